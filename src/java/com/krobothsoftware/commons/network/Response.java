@@ -224,17 +224,33 @@ public class Response implements Closeable {
 	}
 
 	/**
-	 * Helper method for getting string from Response.
+	 * Helper method for getting string from Response. Buffer is sized from
+	 * content length if sent.
 	 * 
 	 * @param response
 	 * @return String from stream
 	 * @throws IOException
-	 * @see CommonUtils#toString(java.io.InputStream, String)
+	 * @see CommonUtils#toString(java.io.InputStream, String, int)
 	 * @since SNC 1.0
 	 */
 	public static String toString(Response response) throws IOException {
-		return CommonUtils
-				.toString(response.getStream(), response.getCharset());
+		return CommonUtils.toString(response.getStream(),
+				response.getCharset(), response.getContentLength());
+	}
+
+	/**
+	 * Helper method for getting bytes from Response. Buffer is sized from
+	 * content length if sent.
+	 * 
+	 * @param response
+	 * @return bytes from stream
+	 * @throws IOException
+	 * @see CommonUtils#toByteArray(java.io.InputStream, int)
+	 * @since SNC 1.0.2
+	 */
+	public static byte[] toByteArray(Response response) throws IOException {
+		return CommonUtils.toByteArray(response.getStream(),
+				response.getContentLength());
 	}
 
 	/**
@@ -45,6 +45,11 @@ import java.net.HttpURLConnection;
  * 
  * </p>
  * <b>There will never be a null delegate stream.</b>
+ * <p>
+ * Mark and reset are always supported. Bytes read after a mark are kept in
+ * a buffer and replayed on reset, so a parser may peek at the start of a
+ * response before reading it.
+ * </p>
  * 
  * @author Kyle Kroboth
  * @since SNC 1.0
@@ -54,6 +59,12 @@ public class UnclosableInputStream extends InputStream {
 	private static final NullInputStream NULL = new NullInputStream();
 	private final InputStream in;
 
+	// bytes read since mark, replayed from pos after reset
+	private byte[] buffer;
+	private int pos;
+	private int count;
+	private int markLimit = -1;
+
 	/**
 	 * Creates {@link #NULL} stream as delegate.
 	 * 
@@ -81,7 +92,10 @@ public class UnclosableInputStream extends InputStream {
 	 */
 	@Override
 	public int read() throws IOException {
-		return in.read();
+		if (pos < count) return buffer[pos++] & 0xFF;
+		if (markLimit < 0) return in.read();
+		byte[] b = new byte[1];
+		return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
 	}
 
 	/**
@@ -89,7 +103,7 @@ public class UnclosableInputStream extends InputStream {
 	 */
 	@Override
 	public int read(byte[] b) throws IOException {
-		return in.read(b);
+		return read(b, 0, b.length);
 	}
 
 	/**
@@ -97,7 +111,31 @@ public class UnclosableInputStream extends InputStream {
 	 */
 	@Override
 	public int read(byte[] b, int off, int len) throws IOException {
-		return in.read(b, off, len);
+		if (pos < count) {
+			int n = Math.min(len, count - pos);
+			System.arraycopy(buffer, pos, b, off, n);
+			pos += n;
+			return n;
+		}
+		int n = in.read(b, off, len);
+		if (n > 0 && markLimit >= 0) {
+			if (count + n > markLimit) {
+				// read past limit, mark is no longer valid
+				markLimit = -1;
+				pos = count = 0;
+			} else {
+				if (count + n > buffer.length) {
+					byte[] grown = new byte[Math.min(markLimit, Math.max(
+							count + n, buffer.length << 1))];
+					System.arraycopy(buffer, 0, grown, 0, count);
+					buffer = grown;
+				}
+				System.arraycopy(b, off, buffer, count, n);
+				count += n;
+				pos = count;
+			}
+		}
+		return n;
 	}
 
 	/**
@@ -105,7 +143,16 @@ public class UnclosableInputStream extends InputStream {
 	 */
 	@Override
 	public long skip(long n) throws IOException {
-		return in.skip(n);
+		if (pos < count) {
+			int skipped = (int) Math.min(n, count - pos);
+			pos += skipped;
+			return skipped;
+		}
+		if (markLimit < 0) return in.skip(n);
+		// keep skipped bytes for reset
+		byte[] b = new byte[(int) Math.min(n, 2048)];
+		int read = read(b, 0, b.length);
+		return read == -1 ? 0 : read;
 	}
 
 	/**
@@ -113,7 +160,37 @@ public class UnclosableInputStream extends InputStream {
 	 */
 	@Override
 	public int available() throws IOException {
-		return in.available();
+		return count - pos + in.available();
+	}
+
+	/**
+	 * Reads up to <code>len</code> bytes from the current position without
+	 * consuming them. Blocks until <code>len</code> bytes are read or end of
+	 * stream. Clears any mark.
+	 * 
+	 * @param b
+	 *            buffer for bytes
+	 * @param off
+	 *            offset in buffer
+	 * @param len
+	 *            max number of bytes
+	 * @return number of bytes peeked, 0 if end of stream
+	 * @throws IOException
+	 * @since SNC 1.0.2
+	 */
+	public int peek(byte[] b, int off, int len) throws IOException {
+		mark(len);
+		int total = 0;
+		try {
+			int n;
+			while (total < len && (n = read(b, off + total, len - total)) != -1)
+				total += n;
+		} finally {
+			// bytes stay buffered until read
+			pos = 0;
+			markLimit = -1;
+		}
+		return total;
 	}
 
 	/**
@@ -137,11 +214,25 @@ public class UnclosableInputStream extends InputStream {
 	}
 
 	/**
+	 * Marks current position. Supported even if delegate stream isn't.
+	 * 
 	 * @since SNC 1.0
 	 */
 	@Override
 	public synchronized void mark(int readlimit) {
-		in.mark(readlimit);
+		// drop bytes before current position
+		int remaining = count - pos;
+		if (buffer == null || buffer.length < Math.max(remaining, Math.min(
+				readlimit, 8192))) {
+			byte[] b = new byte[Math.max(remaining, Math.min(readlimit, 8192))];
+			if (remaining > 0) System.arraycopy(buffer, pos, b, 0, remaining);
+			buffer = b;
+		} else if (remaining > 0) {
+			System.arraycopy(buffer, pos, buffer, 0, remaining);
+		}
+		pos = 0;
+		count = remaining;
+		markLimit = Math.max(readlimit, remaining);
 	}
 
 	/**
@@ -149,15 +240,18 @@ public class UnclosableInputStream extends InputStream {
 	 */
 	@Override
 	public synchronized void reset() throws IOException {
-		in.reset();
+		if (markLimit < 0) throw new IOException("Resetting to invalid mark");
+		pos = 0;
 	}
 
 	/**
+	 * Always true.
+	 * 
 	 * @since SNC 1.0
 	 */
 	@Override
 	public boolean markSupported() {
-		return in.markSupported();
+		return true;
 	}
 
 	/**
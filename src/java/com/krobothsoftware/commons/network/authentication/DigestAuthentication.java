@@ -95,7 +95,8 @@ public class DigestAuthentication extends Authentication {
 	 * @since SNC 1.0
 	 */
 	@Override
-	public void setup(RequestBuilderAuthenticate request) throws IOException {
+	public synchronized void setup(RequestBuilderAuthenticate request)
+			throws IOException {
 		String header = nonceUsable(request);
 
 		if (header != null) {
@@ -116,14 +117,18 @@ public class DigestAuthentication extends Authentication {
 
 		String headerField = response.getAuthentication();
 		response.close();
-		nonceCount = 1;
 
-		realm = getHeaderValueByType("realm", headerField);
-		nonce = getHeaderValueByType("nonce", headerField);
-		algorithm = getHeaderValueByType("algorithm", headerField);
-		qop = getHeaderValueByType("qop", headerField);
-		charset = getHeaderValueByType("charset", headerField);
-		request.header(HEADER_AUTHORIZATION, createHeader(request));
+		// requests may share authentication, only header is made under lock
+		synchronized (this) {
+			nonceCount = 1;
+
+			realm = getHeaderValueByType("realm", headerField);
+			nonce = getHeaderValueByType("nonce", headerField);
+			algorithm = getHeaderValueByType("algorithm", headerField);
+			qop = getHeaderValueByType("qop", headerField);
+			charset = getHeaderValueByType("charset", headerField);
+			request.header(HEADER_AUTHORIZATION, createHeader(request));
+		}
 
 		return new RequestBuilder(request).execute(networkHelper);
 
@@ -135,7 +140,7 @@ public class DigestAuthentication extends Authentication {
 	 * @since SNC 1.0
 	 */
 	@Override
-	public void reset() {
+	public synchronized void reset() {
 		nonce = null;
 		realm = null;
 		algorithm = null;
@@ -0,0 +1,463 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.parse;
+
+/**
+ * Reusable <code>CharSequence</code> view over a slice of a char array. Also
+ * has primitive parsers which read directly from <code>char[]</code>, so
+ * handlers can convert SAX text without creating strings.
+ *
+ * <pre>
+ * builder.setGold(CharSlice.parseInt(ch, start, length));
+ * </pre>
+ *
+ * <p>
+ * A view is only valid until its owner reuses the array, so call
+ * {@link #toString()} to keep the content.
+ * </p>
+ *
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ */
+public final class CharSlice implements CharSequence {
+	private static final int[] DAYS_BEFORE_MONTH = { 0, 31, 59, 90, 120, 151,
+			181, 212, 243, 273, 304, 334 };
+
+	private char[] ch;
+	private int start;
+	private int length;
+
+	/**
+	 * Creates empty slice.
+	 *
+	 * @since SNC 1.0.2
+	 */
+	public CharSlice() {
+		ch = new char[0];
+	}
+
+	/**
+	 * Creates slice of characters.
+	 *
+	 * @param ch
+	 *            characters
+	 * @param start
+	 *            start offset
+	 * @param length
+	 *            number of characters
+	 * @since SNC 1.0.2
+	 */
+	public CharSlice(char[] ch, int start, int length) {
+		set(ch, start, length);
+	}
+
+	/**
+	 * Points view to new slice. Characters are not copied.
+	 *
+	 * @param ch
+	 *            characters
+	 * @param start
+	 *            start offset
+	 * @param length
+	 *            number of characters
+	 * @return this slice
+	 * @since SNC 1.0.2
+	 */
+	public CharSlice set(char[] ch, int start, int length) {
+		if (start < 0 || length < 0 || start + length > ch.length) throw new IndexOutOfBoundsException(
+				String.format("Slice [%d, %d) of %d", start, start + length,
+						ch.length));
+		this.ch = ch;
+		this.start = start;
+		this.length = length;
+		return this;
+	}
+
+	/**
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) throw new IndexOutOfBoundsException(
+				String.valueOf(index));
+		return ch[start + index];
+	}
+
+	/**
+	 * Creates new view sharing the same characters.
+	 *
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) throw new IndexOutOfBoundsException(
+				String.format("Sub sequence [%d, %d) of %d", start, end,
+						length));
+		return new CharSlice(ch, this.start + start, end - start);
+	}
+
+	/**
+	 * Gets array slice is a view of, for methods which read
+	 * <code>char[]</code> directly.
+	 *
+	 * @return characters, not copied
+	 * @see #offset()
+	 * @since SNC 1.0.2
+	 */
+	public char[] array() {
+		return ch;
+	}
+
+	/**
+	 * Gets start of slice in {@link #array()}.
+	 *
+	 * @return start offset
+	 * @since SNC 1.0.2
+	 */
+	public int offset() {
+		return start;
+	}
+
+	/**
+	 * Checks if slice has same characters as string.
+	 *
+	 * @param str
+	 *            string to compare
+	 * @return true, if equal
+	 * @since SNC 1.0.2
+	 */
+	public boolean contentEquals(String str) {
+		if (str.length() != length) return false;
+		for (int i = 0; i < length; i++)
+			if (ch[start + i] != str.charAt(i)) return false;
+		return true;
+	}
+
+	/**
+	 * Checks if slice is empty or only whitespace.
+	 *
+	 * @return true, if blank
+	 * @since SNC 1.0.2
+	 */
+	public boolean isBlank() {
+		for (int i = start, end = start + length; i < end; i++)
+			if (ch[i] > ' ') return false;
+		return true;
+	}
+
+	/**
+	 * Parses slice as int.
+	 *
+	 * @see #parseInt(char[], int, int)
+	 * @since SNC 1.0.2
+	 */
+	public int parseInt() {
+		return parseInt(ch, start, length);
+	}
+
+	/**
+	 * Parses slice as long.
+	 *
+	 * @see #parseLong(char[], int, int)
+	 * @since SNC 1.0.2
+	 */
+	public long parseLong() {
+		return parseLong(ch, start, length);
+	}
+
+	/**
+	 * Parses slice as ISO date.
+	 *
+	 * @see #parseDate(char[], int, int)
+	 * @since SNC 1.0.2
+	 */
+	public long parseDate() {
+		return parseDate(ch, start, length);
+	}
+
+	/**
+	 * Copies slice into new string.
+	 *
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public String toString() {
+		return new String(ch, start, length);
+	}
+
+	/**
+	 * Parses signed decimal int. Same rules as {@link Integer#parseInt(String)}
+	 * except leading and trailing whitespace is skipped.
+	 *
+	 * @param ch
+	 *            characters
+	 * @param start
+	 *            start offset
+	 * @param length
+	 *            number of characters
+	 * @return parsed value
+	 * @throws NumberFormatException
+	 *             if characters aren't a valid int
+	 * @since SNC 1.0.2
+	 */
+	public static int parseInt(char[] ch, int start, int length) {
+		long value = parseLong(ch, start, length);
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw numberFormat(
+				ch, start, length);
+		return (int) value;
+	}
+
+	/**
+	 * Parses signed decimal long. Same rules as
+	 * {@link Long#parseLong(String)} except leading and trailing whitespace is
+	 * skipped.
+	 *
+	 * @param ch
+	 *            characters
+	 * @param start
+	 *            start offset
+	 * @param length
+	 *            number of characters
+	 * @return parsed value
+	 * @throws NumberFormatException
+	 *             if characters aren't a valid long
+	 * @since SNC 1.0.2
+	 */
+	public static long parseLong(char[] ch, int start, int length) {
+		int i = start;
+		int end = start + length;
+		while (i < end && ch[i] <= ' ')
+			i++;
+		while (end > i && ch[end - 1] <= ' ')
+			end--;
+		if (i == end) throw numberFormat(ch, start, length);
+
+		boolean negative = false;
+		if (ch[i] == '-' || ch[i] == '+') {
+			negative = ch[i] == '-';
+			if (++i == end) throw numberFormat(ch, start, length);
+		}
+
+		// accumulate negatively so MIN_VALUE doesn't overflow
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long multmin = limit / 10;
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = ch[i] - '0';
+			if (digit < 0 || digit > 9 || value < multmin) throw numberFormat(
+					ch, start, length);
+			value *= 10;
+			if (value < limit + digit) throw numberFormat(ch, start, length);
+			value -= digit;
+		}
+		return negative ? value : -value;
+	}
+
+	/**
+	 * Parses ISO 8601 date time into milliseconds since epoch. Accepts
+	 * <code>yyyy-MM-dd'T'HH:mm:ss</code> with optional fraction of seconds,
+	 * followed by <code>Z</code>, an offset such as <code>+09:00</code>, or
+	 * nothing for UTC. Used for the <i>Official</i> date format.
+	 *
+	 * @param ch
+	 *            characters
+	 * @param start
+	 *            start offset
+	 * @param length
+	 *            number of characters
+	 * @return milliseconds since epoch
+	 * @throws IllegalArgumentException
+	 *             if characters aren't a valid date
+	 * @since SNC 1.0.2
+	 */
+	public static long parseDate(char[] ch, int start, int length) {
+		int i = start;
+		int end = start + length;
+		while (i < end && ch[i] <= ' ')
+			i++;
+		while (end > i && ch[end - 1] <= ' ')
+			end--;
+		if (end - i < 19 || ch[i + 4] != '-' || ch[i + 7] != '-'
+				|| (ch[i + 10] != 'T' && ch[i + 10] != ' ')
+				|| ch[i + 13] != ':' || ch[i + 16] != ':') throw dateFormat(ch,
+				start, length);
+
+		int year = digits(ch, i, 4, start, length);
+		int month = digits(ch, i + 5, 2, start, length);
+		int day = digits(ch, i + 8, 2, start, length);
+		int hour = digits(ch, i + 11, 2, start, length);
+		int minute = digits(ch, i + 14, 2, start, length);
+		int second = digits(ch, i + 17, 2, start, length);
+		if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23
+				|| minute > 59 || second > 60) throw dateFormat(ch, start,
+				length);
+		i += 19;
+
+		int millis = 0;
+		if (i < end && ch[i] == '.') {
+			int scale = 100;
+			while (++i < end && ch[i] >= '0' && ch[i] <= '9') {
+				millis += (ch[i] - '0') * scale;
+				scale /= 10;
+			}
+		}
+
+		int offset = 0;
+		if (i < end) {
+			char sign = ch[i];
+			if (sign == 'Z' && i + 1 == end) {
+				i++;
+			} else if ((sign == '+' || sign == '-') && end - i == 6
+					&& ch[i + 3] == ':') {
+				offset = digits(ch, i + 1, 2, start, length) * 60
+						+ digits(ch, i + 4, 2, start, length);
+				if (sign == '-') offset = -offset;
+				i = end;
+			} else
+				throw dateFormat(ch, start, length);
+		}
+
+		long days = daysSinceEpoch(year, month, day);
+		return ((days * 24 + hour) * 60 + minute - offset) * 60000L + second
+				* 1000L + millis;
+	}
+
+	/**
+	 * Parses day first date, as shown on the country sites, into milliseconds
+	 * since epoch. Accepts <code>dd/MM/yyyy</code> with optional
+	 * <code>HH:mm</code> or <code>HH:mm:ss</code> after a space. Day and month
+	 * may be one digit and <code>-</code> or <code>.</code> may be used instead
+	 * of <code>/</code>. Pages don't give a time zone, so UTC is used.
+	 *
+	 * @param ch
+	 *            characters
+	 * @param start
+	 *            start offset
+	 * @param length
+	 *            number of characters
+	 * @return milliseconds since epoch
+	 * @throws IllegalArgumentException
+	 *             if characters aren't a valid date
+	 * @since SNC 1.0.2
+	 */
+	public static long parseDayMonthYear(char[] ch, int start, int length) {
+		int i = start;
+		int end = start + length;
+		while (i < end && ch[i] <= ' ')
+			i++;
+		while (end > i && ch[end - 1] <= ' ')
+			end--;
+
+		int next = digitsEnd(ch, i, end, 2, start, length);
+		int day = digits(ch, i, next - i, start, length);
+		i = separator(ch, next, end, start, length);
+		next = digitsEnd(ch, i, end, 2, start, length);
+		int month = digits(ch, i, next - i, start, length);
+		if (next == end || ch[next] != ch[i - 1]) throw dateFormat(ch, start,
+				length);
+		i = next + 1;
+		if (end - i < 4) throw dateFormat(ch, start, length);
+		int year = digits(ch, i, 4, start, length);
+		i += 4;
+
+		int hour = 0;
+		int minute = 0;
+		int second = 0;
+		if (i < end) {
+			if (ch[i] != ' ' || end - i < 6 || ch[i + 3] != ':') throw dateFormat(
+					ch, start, length);
+			hour = digits(ch, i + 1, 2, start, length);
+			minute = digits(ch, i + 4, 2, start, length);
+			i += 6;
+			if (i < end) {
+				if (end - i != 3 || ch[i] != ':') throw dateFormat(ch, start,
+						length);
+				second = digits(ch, i + 1, 2, start, length);
+			}
+		}
+		if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23
+				|| minute > 59 || second > 60) throw dateFormat(ch, start,
+				length);
+
+		long days = daysSinceEpoch(year, month, day);
+		return ((days * 24 + hour) * 60 + minute) * 60000L + second * 1000L;
+	}
+
+	private static long daysSinceEpoch(int year, int month, int day) {
+		long y = year;
+		long days = 365 * (y - 1970) + leapsBefore(y) - leapsBefore(1970);
+		days += DAYS_BEFORE_MONTH[month - 1] + day - 1;
+		if (month > 2 && (y % 4 == 0 && (y % 100 != 0 || y % 400 == 0))) days++;
+		return days;
+	}
+
+	// number of leap years in [1, year)
+	private static long leapsBefore(long year) {
+		year--;
+		return year / 4 - year / 100 + year / 400;
+	}
+
+	private static int digits(char[] ch, int offset, int count, int start,
+			int length) {
+		int value = 0;
+		for (int i = offset; i < offset + count; i++) {
+			int digit = ch[i] - '0';
+			if (digit < 0 || digit > 9) throw dateFormat(ch, start, length);
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	// end of one to max digits starting at offset
+	private static int digitsEnd(char[] ch, int offset, int end, int max,
+			int start, int length) {
+		int i = offset;
+		while (i < end && i - offset < max && ch[i] >= '0' && ch[i] <= '9')
+			i++;
+		if (i == offset) throw dateFormat(ch, start, length);
+		return i;
+	}
+
+	private static int separator(char[] ch, int i, int end, int start,
+			int length) {
+		if (i == end || (ch[i] != '/' && ch[i] != '-' && ch[i] != '.')) throw dateFormat(
+				ch, start, length);
+		return i + 1;
+	}
+
+	private static NumberFormatException numberFormat(char[] ch, int start,
+			int length) {
+		return new NumberFormatException("For input string: \""
+				+ new String(ch, start, length) + "\"");
+	}
+
+	private static IllegalArgumentException dateFormat(char[] ch, int start,
+			int length) {
+		return new IllegalArgumentException("Invalid date: \""
+				+ new String(ch, start, length) + "\"");
+	}
+
+}
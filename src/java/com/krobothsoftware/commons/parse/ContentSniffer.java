@@ -0,0 +1,141 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.parse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.krobothsoftware.commons.network.UnclosableInputStream;
+import com.krobothsoftware.commons.parse.UnexpectedContentException.Content;
+import com.krobothsoftware.commons.util.StringMatcher;
+
+/**
+ * Peeks at the start of a stream before it is parsed and fails fast if the
+ * content can't be what the handler expects. Only bytes are looked at, so it
+ * is skipped for charsets which aren't ASCII compatible. Anything unclear is
+ * left to the parser.
+ * 
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ * @see UnexpectedContentException
+ */
+final class ContentSniffer {
+	static final int XML = 0;
+	static final int HTML = 1;
+	static final int JSON = 2;
+	static final int WINDOW = 1024;
+	private static final StringMatcher MAINTENANCE = new StringMatcher(
+			"maintenance");
+
+	private ContentSniffer() {
+
+	}
+
+	/**
+	 * Checks start of stream for handler. Stream is left at its start. Does
+	 * nothing if stream doesn't support mark, or for Html handlers, which
+	 * accept any content including an empty page.
+	 * 
+	 * @param inputStream
+	 * @param charset
+	 *            charset of stream, may be null
+	 * @param expected
+	 *            {@link #XML}, {@link #HTML} or {@link #JSON}
+	 * @throws UnexpectedContentException
+	 *             if content given to an Xml or Json handler is empty or an
+	 *             Html page
+	 * @throws IOException
+	 */
+	static void check(InputStream inputStream, String charset, int expected)
+			throws UnexpectedContentException, IOException {
+		if (expected == HTML) return;
+		if (charset != null && !isAsciiCompatible(charset)) return;
+
+		byte[] b = new byte[WINDOW];
+		int length;
+		if (inputStream instanceof UnclosableInputStream) {
+			length = ((UnclosableInputStream) inputStream).peek(b, 0, WINDOW);
+		} else if (inputStream.markSupported()) {
+			inputStream.mark(WINDOW);
+			length = 0;
+			try {
+				int n;
+				while (length < WINDOW
+						&& (n = inputStream.read(b, length, WINDOW - length)) != -1)
+					length += n;
+			} finally {
+				inputStream.reset();
+			}
+		} else
+			return;
+
+		int i = 0;
+		// UTF-8 byte order mark
+		if (length >= 3 && (b[0] & 0xFF) == 0xEF && (b[1] & 0xFF) == 0xBB
+				&& (b[2] & 0xFF) == 0xBF) i = 3;
+		while (i < length && b[i] >= 0 && b[i] <= ' ')
+			i++;
+
+		if (i == length) {
+			// whole window is whitespace, rest of stream is unknown
+			if (length < WINDOW) throw new UnexpectedContentException(
+					Content.EMPTY, "Response is empty");
+			return;
+		}
+
+		boolean json = expected == JSON;
+		if (b[i] != '<') return;
+		if (!json && !startsWithIgnoreCase(b, i, length, "<!doctype html")
+				&& !startsWithIgnoreCase(b, i, length, "<html")) return;
+
+		if (contains(b, i, length, MAINTENANCE)) throw new UnexpectedContentException(
+				Content.MAINTENANCE, "Response is a maintenance page");
+		throw new UnexpectedContentException(Content.HTML, String.format(
+				"Response is Html, expected %s", json ? "Json" : "Xml"));
+	}
+
+	private static boolean startsWithIgnoreCase(byte[] b, int start,
+			int length, String prefix) {
+		if (length - start < prefix.length()) return false;
+		for (int i = 0; i < prefix.length(); i++)
+			if (lower(b[start + i]) != prefix.charAt(i)) return false;
+		return true;
+	}
+
+	private static boolean contains(byte[] b, int start, int length,
+			StringMatcher matcher) {
+		int state = StringMatcher.START;
+		for (int i = start; i < length; i++) {
+			state = matcher.next(state, lower(b[i]));
+			if (matcher.getMatch(state) != -1) return true;
+		}
+		return false;
+	}
+
+	private static char lower(byte c) {
+		return c >= 'A' && c <= 'Z' ? (char) (c + 32) : (char) (c & 0xFF);
+	}
+
+	private static boolean isAsciiCompatible(String charset) {
+		String name = charset.toUpperCase();
+		return !name.startsWith("UTF-16") && !name.startsWith("UTF-32")
+				&& !name.startsWith("UTF16") && !name.startsWith("UTF32")
+				&& !name.startsWith("UNICODE");
+	}
+
+}
@@ -119,6 +119,10 @@ public final class Expression {
 		stack.trimToSize();
 	}
 
+	int size() {
+		return stack.size();
+	}
+
 	Node getNode(int index) {
 		if (index >= stack.size()) return null;
 		return stack.get(index);
@@ -0,0 +1,251 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.parse;
+
+import java.util.ArrayList;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+/**
+ * Compiles one or more {@link Expression}s into a single state table. Each
+ * expression node becomes a state holding a tag symbol and an optional
+ * attribute predicate. Tags are mapped to symbols once when compiled, so each
+ * SAX event only does an integer compare per expression instead of walking
+ * nodes with string compares. Tag names given by the SAX parser are
+ * interned, so symbol lookup is usually a reference compare.
+ *
+ * <p>
+ * Every expression is a <i>target</i> with its own cursor into the table. All
+ * targets are advanced by the same SAX event, which lets a single parse drive
+ * multiple {@link ExpressionFilter}s.
+ * </p>
+ *
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ */
+final class ExpressionAutomaton {
+	private static final int SEPARATOR = -2; // "&&" state
+	private static final int ACCEPT = -3; // end of expression
+
+	private final SymbolTable symbols;
+
+	// state table
+	private final int[] stateTag;
+	private final String[] stateAttrib;
+	private final String[] stateAttribV;
+	private final int[] stateIndex;
+
+	// target cursors
+	private final ExpressionFilter[] filters;
+	private final ExpressionBuilderFilter[] builders;
+	private final int[] state;
+	private final int[] count;
+	private final int[] path;
+	private final boolean[] reached;
+	private final boolean[] cont;
+	private final boolean[] stopped;
+	private int running;
+
+	/**
+	 * Compiles expressions of filters.
+	 *
+	 * @param filters
+	 *            targets. A null target has no expression and is never
+	 *            notified, but may still be stopped.
+	 */
+	ExpressionAutomaton(ExpressionFilter... filters) {
+		int len = filters.length;
+		this.filters = filters;
+		builders = new ExpressionBuilderFilter[len];
+		state = new int[len];
+		count = new int[len];
+		path = new int[len];
+		reached = new boolean[len];
+		cont = new boolean[len];
+		stopped = new boolean[len];
+		running = len;
+		ArrayList<String> tags = new ArrayList<String>();
+
+		// count states first so the table is a set of flat arrays
+		int size = 0;
+		for (ExpressionFilter filter : filters)
+			size += filter != null ? filter.getExpression().size() + 1 : 1;
+		stateTag = new int[size];
+		stateAttrib = new String[size];
+		stateAttribV = new String[size];
+		stateIndex = new int[size];
+
+		int s = 0;
+		for (int i = 0; i < len; i++) {
+			if (filters[i] instanceof ExpressionBuilderFilter) builders[i] = (ExpressionBuilderFilter) filters[i];
+			state[i] = s;
+			count[i] = 1;
+			if (filters[i] == null) {
+				stateTag[s++] = ACCEPT;
+				continue;
+			}
+			Expression expr = filters[i].getExpression();
+			Expression.Node node;
+			for (int n = 0; (node = expr.getNode(n)) != null; n++, s++) {
+				if (node.tag.equals("&&")) {
+					stateTag[s] = SEPARATOR;
+					continue;
+				}
+				stateTag[s] = symbol(tags, node.tag);
+				stateAttrib[s] = node.attrib;
+				stateAttribV[s] = node.attribV;
+				stateIndex[s] = node.index;
+			}
+			stateTag[s++] = ACCEPT;
+			checkReached(i);
+		}
+		symbols = new SymbolTable(false, tags.toArray(new String[tags.size()]));
+	}
+
+	/**
+	 * Gets symbol of tag name.
+	 *
+	 * @param tag
+	 *            element tag
+	 * @return symbol, or {@link SymbolTable#UNKNOWN} if no expression uses tag
+	 */
+	int getSymbol(String tag) {
+		return symbols.get(tag);
+	}
+
+	/**
+	 * Checks if target has thrown a {@link StopException}.
+	 */
+	boolean isStopped(int target) {
+		return stopped[target];
+	}
+
+	/**
+	 * Advances all targets with start element and notifies targets which
+	 * reached their path.
+	 */
+	void startElement(int symbol, String uri, String localName, String qName,
+			Attributes attributes) throws SAXException {
+		for (int i = 0; i < filters.length; i++) {
+			if (stopped[i] || filters[i] == null) continue;
+			if (reached[i]) {
+				int s = state[i];
+				if (stateTag[s] == SEPARATOR && cont[i]) {
+					state[i] = s + 1;
+					count[i] = 1;
+					path[i]++;
+					reached[i] = false;
+					cont[i] = false;
+					if (checkReached(i)) continue;
+				} else {
+					try {
+						filters[i].startElement(path[i], uri, localName, qName,
+								attributes);
+					} catch (StopException e) {
+						stop(i);
+					}
+					continue;
+				}
+			}
+
+			int s = state[i];
+			if (stateTag[s] != symbol) continue;
+			if (stateAttrib[s] != null) {
+				int index = attributes.getIndex(stateAttrib[s]);
+				if (index == -1) continue;
+				if (stateAttribV[s] != null
+						&& !attributes.getValue(index).equals(stateAttribV[s])) continue;
+			}
+			if (count[i]++ != stateIndex[s]) continue;
+			state[i] = s + 1;
+			count[i] = 1;
+			if (checkReached(i)) {
+				try {
+					filters[i].startElement(path[i], uri, localName, qName,
+							attributes);
+				} catch (StopException e) {
+					stop(i);
+				}
+			}
+		}
+	}
+
+	void characters(char[] ch, int start, int length) throws SAXException {
+		for (int i = 0; i < filters.length; i++) {
+			if (!reached[i] || stopped[i] || filters[i] == null) continue;
+			try {
+				filters[i].characters(path[i], ch, start, length);
+			} catch (StopException e) {
+				stop(i);
+			}
+		}
+	}
+
+	void buildCharacters(String content) {
+		for (int i = 0; i < filters.length; i++) {
+			if (!reached[i] || stopped[i] || builders[i] == null) continue;
+			try {
+				builders[i].buildCharacters(path[i], content);
+			} catch (StopException e) {
+				stop(i);
+			}
+		}
+	}
+
+	void endElement(String uri, String localName, String qName)
+			throws SAXException {
+		for (int i = 0; i < filters.length; i++) {
+			if (!reached[i] || stopped[i] || filters[i] == null) continue;
+			try {
+				cont[i] = filters[i].endElement(path[i], uri, localName, qName);
+			} catch (StopException e) {
+				stop(i);
+			}
+		}
+	}
+
+	/**
+	 * Marks target as stopped. Once every target has stopped there is nothing
+	 * left to parse, so {@link StopException} is rethrown to end parsing.
+	 */
+	void stop(int target) {
+		if (stopped[target]) return;
+		stopped[target] = true;
+		if (--running == 0) throw new StopException();
+	}
+
+	private boolean checkReached(int target) {
+		int tag = stateTag[state[target]];
+		if (tag == SEPARATOR || tag == ACCEPT) {
+			reached[target] = true;
+			cont[target] = false;
+		}
+		return reached[target];
+	}
+
+	private static int symbol(ArrayList<String> tags, String tag) {
+		int symbol = tags.indexOf(tag);
+		if (symbol == -1) {
+			symbol = tags.size();
+			tags.add(tag);
+		}
+		return symbol;
+	}
+
+}
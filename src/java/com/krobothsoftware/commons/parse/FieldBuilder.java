@@ -0,0 +1,75 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.parse;
+
+/**
+ * Model builder which sets its own fields from parsed text. The builder
+ * declares an int constant for each field and converts values in
+ * {@link #setField(int, CharSlice)}. It also declares the source name of
+ * each id in a <code>FIELD_NAMES</code> array, so handlers only forward values
+ * and names and types are kept in one place.
+ *
+ * <pre>
+ * public static final String[] FIELD_NAMES = new String[FIELD_COUNT];
+ * static {
+ * 	FIELD_NAMES[FIELD_NAME] = &quot;userName&quot;;
+ * 	FIELD_NAMES[FIELD_LEVEL] = &quot;level&quot;;
+ * }
+ * </pre>
+ *
+ * <p>
+ * A Json handler then uses the names as its symbols.
+ * </p>
+ *
+ * <pre>
+ * &#064;Override
+ * protected String[] getSymbols() {
+ * 	return Builder.FIELD_NAMES;
+ * }
+ * 
+ * &#064;Override
+ * protected void field(int id) throws IOException {
+ * 	builder.setField(id, getTextSlice());
+ * }
+ * </pre>
+ *
+ * <p>
+ * Ids of a subclass continue after the ids of its parent builder. Fields
+ * without a source name are left as <code>null</code> in the names, which
+ * {@link SymbolTable} skips.
+ * </p>
+ *
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ */
+public interface FieldBuilder {
+
+	/**
+	 * Sets field from text. Value is only valid during the call.
+	 *
+	 * @param field
+	 *            field id declared by builder
+	 * @param value
+	 *            text of field
+	 * @throws NumberFormatException
+	 *             if field is numeric and value isn't a number
+	 * @since SNC 1.0.2
+	 */
+	void setField(int field, CharSlice value);
+
+}
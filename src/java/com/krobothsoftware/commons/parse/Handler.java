@@ -52,6 +52,8 @@ public abstract class Handler {
 	 */
 	protected Logger log;
 
+	SymbolTable symbols;
+
 	/**
 	 * Creates new Handler with progress.
 	 * 
@@ -73,6 +75,37 @@ public abstract class Handler {
 		monitor = new NullProgressMonitor();
 	}
 
+	/**
+	 * Gets element names handler will switch on. The {@link Parser} creates a
+	 * {@link SymbolTable} from them once per handler class. Id of each name is
+	 * its index in the array. Html handlers ignore case.
+	 * 
+	 * <p>
+	 * Must return the same names for all instances of a class.
+	 * </p>
+	 * 
+	 * @return element names, or null if handler doesn't use symbols
+	 * @since SNC 1.0.2
+	 */
+	protected String[] getSymbols() {
+		return null;
+	}
+
+	/**
+	 * Gets symbol table of handler.
+	 * 
+	 * @return symbol table, or null if handler doesn't use symbols
+	 * @see #getSymbols()
+	 * @since SNC 1.0.2
+	 */
+	public final SymbolTable getSymbolTable() {
+		return symbols;
+	}
+
+	void setSymbolTable(SymbolTable symbols) {
+		this.symbols = symbols;
+	}
+
 	void setParser(Parser defaultParser) {
 		parser = defaultParser;
 	}
@@ -26,166 +26,243 @@ import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
 /**
- * Delegate Handler for evaluating {@link Expression}.
+ * Delegate Handler for evaluating {@link Expression}. Expressions of all
+ * delegates are compiled into one {@link ExpressionAutomaton} so a single
+ * parse may feed several handlers. Delegates which don't implement
+ * {@link ExpressionFilter} still receive every SAX event.
+ * 
+ * <p>
+ * A {@link StopException} thrown by a delegate only stops that delegate.
+ * Parsing ends once every delegate has stopped.
+ * </p>
  * 
  * @author Kyle Kroboth
  * @since SNC 1.0
  */
 class HandlerExpression extends HandlerSAX {
-	final HandlerSAX delegate;
-	private final ExpressionFilter filter;
-	private final Expression expr;
-	private int exprIndex = 0; // node index of expression
-	int index = 0; // index of node
-	private boolean cont; // continue
-	private Expression.Node node;
-	boolean reached; // expression ended
-	private boolean hasAttrib;
-	private boolean hasAttribV;
-	private int count = 1; // node count
+	final HandlerSAX[] delegates;
+	final ExpressionAutomaton automaton;
 
 	public HandlerExpression(HandlerSAX delegate) {
-		this.delegate = delegate;
-		this.filter = (ExpressionFilter) delegate;
-		expr = filter.getExpression();
-		popNode();
+		this(new HandlerSAX[] { delegate });
+	}
+
+	/**
+	 * Creates handler for multiple delegates.
+	 * 
+	 * @param delegates
+	 *            handlers to receive events
+	 * @since SNC 1.0.2
+	 */
+	public HandlerExpression(HandlerSAX... delegates) {
+		this.delegates = delegates;
+		ExpressionFilter[] filters = new ExpressionFilter[delegates.length];
+		for (int i = 0; i < delegates.length; i++)
+			if (delegates[i] instanceof ExpressionFilter) filters[i] = (ExpressionFilter) delegates[i];
+		automaton = new ExpressionAutomaton(filters);
 	}
 
 	@Override
 	public InputSource resolveEntity(String publicId, String systemId)
 			throws IOException, SAXException {
-		return delegate.resolveEntity(publicId, systemId);
+		for (HandlerSAX delegate : delegates) {
+			InputSource source = delegate.resolveEntity(publicId, systemId);
+			if (source != null) return source;
+		}
+		return null;
 	}
 
 	@Override
 	public void notationDecl(String name, String publicId, String systemId)
 			throws SAXException {
-		delegate.notationDecl(name, publicId, systemId);
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].notationDecl(name, publicId, systemId);
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
 	}
 
 	@Override
 	public void unparsedEntityDecl(String name, String publicId,
 			String systemId, String notationName) throws SAXException {
-		delegate.unparsedEntityDecl(name, publicId, systemId, notationName);
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].unparsedEntityDecl(name, publicId, systemId,
+						notationName);
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
 	}
 
 	@Override
 	public void setDocumentLocator(Locator locator) {
-		delegate.setDocumentLocator(locator);
+		for (HandlerSAX delegate : delegates)
+			delegate.setDocumentLocator(locator);
 	}
 
 	@Override
 	public void startDocument() throws SAXException {
-		delegate.startDocument();
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].startDocument();
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
 	}
 
 	@Override
 	public void endDocument() throws SAXException {
-		delegate.endDocument();
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].endDocument();
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
 	}
 
 	@Override
 	public void startPrefixMapping(String prefix, String uri)
 			throws SAXException {
-		delegate.startPrefixMapping(prefix, uri);
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].startPrefixMapping(prefix, uri);
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
 	}
 
 	@Override
 	public void endPrefixMapping(String prefix) throws SAXException {
-		delegate.endPrefixMapping(prefix);
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].endPrefixMapping(prefix);
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
 	}
 
 	@Override
 	public void startElement(String uri, String localName, String qName,
 			Attributes attributes) throws SAXException {
-		delegate.startElement(uri, localName, qName, attributes);
-		if (reached) {
-			if (node != null && cont) {
-				popNode();
-				index++;
-				reached = false;
-				cont = false;
-			} else {
-				filter.startElement(index, uri, localName, qName, attributes);
-				return;
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].startElement(uri, localName, qName, attributes);
+			} catch (StopException e) {
+				automaton.stop(i);
 			}
 		}
-		if (!node.tag.equals(delegate.startTag)) return;
-		if (hasAttrib) {
-			int index = attributes.getIndex(node.attrib);
-			if (index == -1) return;
-			if (hasAttribV && !attributes.getValue(index).equals(node.attribV)) return;
-		}
-		if (count++ != node.index) return;
-		popNode();
-		if (reached) filter.startElement(index, uri, localName, qName,
-				attributes);
-
+		automaton.startElement(
+				automaton.getSymbol(qLocal(qName, localName)), uri,
+				localName, qName, attributes);
 	}
 
 	@Override
 	public void buildCharacters(String content) {
-		delegate.buildCharacters(content);
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].buildCharacters(content);
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
+		automaton.buildCharacters(content);
 	}
 
 	@Override
 	public void endElement(String uri, String localName, String qName)
 			throws SAXException {
-		delegate.endElement(uri, localName, qName);
-		if (reached) cont = filter.endElement(index, uri, localName, qName);
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].endElement(uri, localName, qName);
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
+		automaton.endElement(uri, localName, qName);
 	}
 
 	@Override
 	public void characters(char[] ch, int start, int length)
 			throws SAXException {
-		if (reached) filter.characters(index, ch, start, length);
-		delegate.characters(ch, start, length);
+		// filter first, delegate resets calledStartElement
+		automaton.characters(ch, start, length);
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].characters(ch, start, length);
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
 	}
 
 	@Override
 	public void ignorableWhitespace(char[] ch, int start, int length)
 			throws SAXException {
-		delegate.ignorableWhitespace(ch, start, length);
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].ignorableWhitespace(ch, start, length);
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
 	}
 
 	@Override
 	public void processingInstruction(String target, String data)
 			throws SAXException {
-		delegate.processingInstruction(target, data);
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].processingInstruction(target, data);
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
 	}
 
 	@Override
 	public void skippedEntity(String name) throws SAXException {
-		delegate.skippedEntity(name);
+		for (int i = 0; i < delegates.length; i++) {
+			if (automaton.isStopped(i)) continue;
+			try {
+				delegates[i].skippedEntity(name);
+			} catch (StopException e) {
+				automaton.stop(i);
+			}
+		}
 	}
 
 	@Override
 	public void warning(SAXParseException e) throws SAXException {
-		delegate.warning(e);
+		delegates[0].warning(e);
 	}
 
 	@Override
 	public void error(SAXParseException e) throws SAXException {
-		delegate.error(e);
+		delegates[0].error(e);
 	}
 
 	@Override
 	public void fatalError(SAXParseException e) throws SAXException {
-		delegate.fatalError(e);
-	}
-
-	private void popNode() {
-		count = 1;
-		node = expr.getNode(exprIndex++);
-		if (node == null) {
-			reached = true;
-			return;
-		} else if (node.tag.equals("&&")) {
-			cont = false;
-			reached = true;
-			return;
-		}
-		hasAttrib = node.attrib != null;
-		hasAttribV = node.attribV != null;
+		delegates[0].fatalError(e);
 	}
+
 }
@@ -18,22 +18,17 @@
 package com.krobothsoftware.commons.parse;
 
 /**
+ * Handler for {@link ExpressionBuilderFilter}. Built characters are passed to
+ * the filter by <code>HandlerExpression</code>, so this only exists for
+ * compatibility.
  * 
  * @author Kyle Kroboth
  * @since SNC 1.0.1
  */
 public class HandlerExpressionBuilder extends HandlerExpression {
-	private final ExpressionBuilderFilter filter;
 
 	public HandlerExpressionBuilder(HandlerSAX delegate) {
 		super(delegate);
-		filter = (ExpressionBuilderFilter) delegate;
-	}
-
-	@Override
-	public void buildCharacters(String content) {
-		delegate.buildCharacters(content);
-		if (reached) filter.buildCharacters(index, content);
 	}
 
 }
@@ -17,8 +17,13 @@
 
 package com.krobothsoftware.commons.parse;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.htmlcleaner.HtmlCleaner;
 import org.htmlcleaner.TagNode;
+import org.htmlcleaner.XPather;
+import org.htmlcleaner.XPatherException;
 
 import com.krobothsoftware.commons.progress.ProgressMonitor;
 
@@ -30,6 +35,8 @@ import com.krobothsoftware.commons.progress.ProgressMonitor;
  * @see com.krobothsoftware.commons.parse.ParserHtmlCleaner
  */
 public abstract class HandlerHtmlCleaner extends Handler {
+	private static final int MAX_XPATHS = 256;
+	private static final ConcurrentMap<String, XPather> XPATHS = new ConcurrentHashMap<String, XPather>();
 
 	/**
 	 * html cleaner from parser.
@@ -67,6 +74,52 @@ public abstract class HandlerHtmlCleaner extends Handler {
 	 */
 	public abstract void parse(TagNode rootNode) throws ParseException;
 
+	/**
+	 * Gets paths of the only subtrees handler needs. If not null, the page is
+	 * streamed through the SAX Html parser and nodes are only built for the
+	 * first element matching each expression, or one per path of an
+	 * expression separated by <code>/&amp;&amp;</code>. Everything else is pruned
+	 * while parsing, and parsing stops once all subtrees are read.
+	 * 
+	 * <p>
+	 * The root node given to {@link #parse(TagNode)} is then an empty
+	 * <code>html</code> node holding the subtrees in document order, so
+	 * XPaths should be relative to them. Cleaning is done by
+	 * <code>TagSoup</code> instead of Html Cleaner.
+	 * </p>
+	 * 
+	 * @return subtree expressions, or null to clean whole page
+	 * @since SNC-EXT-HTMLCLEANER 1.0.2
+	 */
+	protected Expression[] getSubtrees() {
+		return null;
+	}
+
+	/**
+	 * Evaluates XPath against node. Unlike
+	 * {@link TagNode#evaluateXPath(String)}, expressions are compiled once and
+	 * shared by all handlers.
+	 * 
+	 * @param node
+	 *            node to evaluate against
+	 * @param xpath
+	 *            XPath expression
+	 * @return result of evaluation
+	 * @throws XPatherException
+	 *             if expression is invalid
+	 * @since SNC-EXT-HTMLCLEANER 1.0.2
+	 */
+	protected final Object[] evaluateXPath(TagNode node, String xpath)
+			throws XPatherException {
+		XPather xpather = XPATHS.get(xpath);
+		if (xpather == null) {
+			xpather = new XPather(xpath);
+			// expressions are normally constants, don't grow on generated ones
+			if (XPATHS.size() < MAX_XPATHS) XPATHS.putIfAbsent(xpath, xpather);
+		}
+		return xpather.evaluateAgainstNode(node);
+	}
+
 	void setHtmlCleaner(HtmlCleaner cleaner) {
 		this.cleaner = cleaner;
 	}
@@ -19,8 +19,10 @@ package com.krobothsoftware.commons.parse;
 
 import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
 import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
 import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
 import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_INT;
 
 import java.io.IOException;
 
@@ -53,6 +55,15 @@ public abstract class HandlerJson extends Handler {
 	 */
 	protected JsonParser jsonParser;
 
+	/**
+	 * Symbol id of current field name, or {@link SymbolTable#UNKNOWN}. Only set
+	 * if handler has symbols.
+	 * 
+	 * @see #getSymbols()
+	 * @since SNC-EXT-JSON 1.0.1
+	 */
+	protected int fieldId = SymbolTable.UNKNOWN;
+
 	/**
 	 * Current name of token being processed.
 	 * 
@@ -60,6 +71,8 @@ public abstract class HandlerJson extends Handler {
 	 */
 	private String currentName;
 
+	private final CharSlice slice = new CharSlice();
+
 	/**
 	 * Creates new Json handler with monitor.
 	 * 
@@ -111,12 +124,23 @@ public abstract class HandlerJson extends Handler {
 	 * </tr>
 	 * </table>
 	 * 
+	 * <p>
+	 * If handler has symbols, scalar values of fields go to {@link #field(int)}
+	 * with the field's symbol id instead of <code>token</code> and
+	 * <code>tokenText</code>.
+	 * </p>
+	 * 
 	 * @throws JsonParseException
 	 * @throws IOException
 	 * @throws ParseException
 	 * @since SNC-EXT-JSON 1.0
 	 */
 	public void parse() throws JsonParseException, IOException, ParseException {
+		if (symbols != null) {
+			parseFields();
+			return;
+		}
+
 		while ((currentToken = jsonParser.nextToken()) != null) {
 			if (currentToken == START_OBJECT) {
 				startObject(jsonParser.getCurrentName());
@@ -142,6 +166,86 @@ public abstract class HandlerJson extends Handler {
 		}
 	}
 
+	/**
+	 * Dispatches fields by symbol id. Field names are canonicalized by Jackson,
+	 * so lookups are usually a reference compare.
+	 */
+	private void parseFields() throws JsonParseException, IOException,
+			ParseException {
+		while ((currentToken = jsonParser.nextToken()) != null) {
+			if (currentToken == FIELD_NAME) {
+				fieldId = symbols.get(jsonParser.getCurrentName());
+				if ((currentToken = jsonParser.nextToken()) == null) break;
+				if (currentToken.isScalarValue()) {
+					if (fieldId != SymbolTable.UNKNOWN) field(fieldId);
+					continue;
+				}
+			}
+
+			if (currentToken == START_OBJECT) startObject(jsonParser
+					.getCurrentName());
+			else if (currentToken == END_OBJECT) endObject(jsonParser
+					.getCurrentName());
+			else if (currentToken == START_ARRAY) startArray(jsonParser
+					.getCurrentName());
+			else if (currentToken == END_ARRAY) endArray(jsonParser
+					.getCurrentName());
+			else
+				token(jsonParser.getCurrentName());
+		}
+	}
+
+	/**
+	 * Called for scalar value of a field in {@link #getSymbols()}. Parser is on
+	 * the value token. To skip an unused object or array, call
+	 * <code>jsonParser.skipChildren()</code> from
+	 * {@link #startObject(String)} or {@link #startArray(String)}.
+	 * 
+	 * @param id
+	 *            symbol id of field
+	 * @throws ParseException
+	 * @throws JsonParseException
+	 * @throws IOException
+	 * @since SNC-EXT-JSON 1.0.1
+	 */
+	protected void field(int id) throws ParseException, JsonParseException,
+			IOException {
+
+	}
+
+	/**
+	 * Gets current value as int without creating a string. Numbers sent as
+	 * strings are parsed from Jackson's text buffer.
+	 * 
+	 * @return int value
+	 * @throws JsonParseException
+	 * @throws IOException
+	 * @throws NumberFormatException
+	 *             if value isn't an int
+	 * @since SNC-EXT-JSON 1.0.1
+	 */
+	protected final int getIntValue() throws JsonParseException, IOException {
+		if (currentToken == VALUE_NUMBER_INT) return jsonParser.getIntValue();
+		return CharSlice.parseInt(jsonParser.getTextCharacters(),
+				jsonParser.getTextOffset(), jsonParser.getTextLength());
+	}
+
+	/**
+	 * Gets text of current value as a view over Jackson's text buffer. Works
+	 * for strings and numbers. View is reused, so it is only valid until the
+	 * next token.
+	 *
+	 * @return text of current value
+	 * @throws JsonParseException
+	 * @throws IOException
+	 * @since SNC-EXT-JSON 1.0.1
+	 */
+	protected final CharSlice getTextSlice() throws JsonParseException,
+			IOException {
+		return slice.set(jsonParser.getTextCharacters(),
+				jsonParser.getTextOffset(), jsonParser.getTextLength());
+	}
+
 	/**
 	 * Called when {@link JsonToken#START_OBJECT} is found.
 	 * 
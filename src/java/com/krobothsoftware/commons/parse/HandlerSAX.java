@@ -55,6 +55,24 @@ public abstract class HandlerSAX extends Handler implements EntityResolver,
 	 */
 	protected String endTag;
 
+	/**
+	 * Symbol id of {@link #startTag}, or {@link SymbolTable#UNKNOWN}. Only set
+	 * if handler has symbols.
+	 * 
+	 * @see #getSymbols()
+	 * @since SNC 1.0.2
+	 */
+	protected int startId = SymbolTable.UNKNOWN;
+
+	/**
+	 * Symbol id of {@link #endTag}, or {@link SymbolTable#UNKNOWN}. Only set
+	 * if handler has symbols.
+	 * 
+	 * @see #getSymbols()
+	 * @since SNC 1.0.2
+	 */
+	protected int endId = SymbolTable.UNKNOWN;
+
 	/**
 	 * Used when retrieving characters to tell if start element was called.
 	 * 
@@ -65,14 +83,16 @@ public abstract class HandlerSAX extends Handler implements EntityResolver,
 	/**
 	 * If true, will build all characters in
 	 * {@link #characters(char[], int, int)} and call
-	 * {@link #buildCharacters(String)} when element is closed. Used when
+	 * {@link #buildCharacters(CharSlice)} when element is closed. Used when
 	 * handling multiple chunk calls.
 	 * 
 	 * @since SNC 1.0
 	 */
 	protected boolean buildChars;
 
-	final StringBuilder sb = new StringBuilder();
+	private char[] buffer = new char[64];
+	private int bufferLength;
+	private final CharSlice slice = new CharSlice();
 
 	/**
 	 * Creates new SAX Handler with progress.
@@ -198,6 +218,7 @@ public abstract class HandlerSAX extends Handler implements EntityResolver,
 	public void startElement(String uri, String localName, String qName,
 			Attributes attributes) throws SAXException {
 		startTag = qLocal(qName, localName);
+		if (symbols != null) startId = symbols.get(startTag);
 		calledStartElement = true;
 	}
 
@@ -211,7 +232,35 @@ public abstract class HandlerSAX extends Handler implements EntityResolver,
 	public void characters(char[] ch, int start, int length)
 			throws SAXException {
 		calledStartElement = false;
-		if (buildChars) sb.append(ch, start, length);
+		if (buildChars) {
+			int required = bufferLength + length;
+			if (required > buffer.length) {
+				char[] grown = new char[Math.max(required, buffer.length << 1)];
+				System.arraycopy(buffer, 0, grown, 0, bufferLength);
+				buffer = grown;
+			}
+			System.arraycopy(ch, start, buffer, bufferLength, length);
+			bufferLength = required;
+		}
+	}
+
+	/**
+	 * Gets built characters from multiple chunks as a view over the handler's
+	 * buffer. Only if {@link #buildChars} is true. Default implementation
+	 * creates a string and calls {@link #buildCharacters(String)}, override
+	 * to read content without allocating.
+	 * 
+	 * <p>
+	 * View is reused, so it is only valid during this call.
+	 * </p>
+	 * 
+	 * @param content
+	 *            built characters
+	 * @see CharSlice#parseInt()
+	 * @since SNC 1.0.2
+	 */
+	public void buildCharacters(CharSlice content) {
+		buildCharacters(content.toString());
 	}
 
 	/**
@@ -229,7 +278,7 @@ public abstract class HandlerSAX extends Handler implements EntityResolver,
 
 	/**
 	 * Sets end tag and If <code>buildChars</code> is true, call
-	 * {@link #buildCharacters(String)} with built characters.
+	 * {@link #buildCharacters(CharSlice)} with built characters.
 	 * 
 	 * @since SNC 1.0
 	 */
@@ -237,9 +286,10 @@ public abstract class HandlerSAX extends Handler implements EntityResolver,
 	public void endElement(String uri, String localName, String qName)
 			throws SAXException {
 		endTag = qLocal(qName, localName);
+		if (symbols != null) endId = symbols.get(endTag);
 		if (buildChars) {
-			buildCharacters(sb.toString());
-			sb.setLength(0);
+			buildCharacters(slice.set(buffer, 0, bufferLength));
+			bufferLength = 0;
 		}
 	}
 
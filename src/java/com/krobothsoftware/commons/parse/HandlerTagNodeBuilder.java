@@ -0,0 +1,145 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.parse;
+
+import org.htmlcleaner.ContentNode;
+import org.htmlcleaner.TagNode;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+/**
+ * Builds Html Cleaner nodes for selected subtrees while streaming a page
+ * through the SAX Html parser. Elements outside of the subtrees are never
+ * turned into nodes. Part of <code>SNC-EXT-HTMLCLEANER</code>.
+ * 
+ * <p>
+ * Each expression selects the first element matching its path, or one per
+ * path if separated by <code>/&amp;&amp;</code>. Subtrees are added to an empty
+ * <code>html</code> root in document order. Parsing stops once every subtree
+ * has been read.
+ * </p>
+ * 
+ * @author Kyle Kroboth
+ * @since SNC-EXT-HTMLCLEANER 1.0.2
+ * @see HandlerHtmlCleaner#getSubtrees()
+ */
+final class HandlerTagNodeBuilder extends HandlerHtml {
+	private final TagNode root;
+	private final ExpressionAutomaton automaton;
+
+	HandlerTagNodeBuilder(Expression... subtrees) {
+		root = new TagNode("html");
+		Subtree[] targets = new Subtree[subtrees.length];
+		for (int i = 0; i < subtrees.length; i++)
+			targets[i] = new Subtree(subtrees[i], root);
+		automaton = new ExpressionAutomaton(targets);
+	}
+
+	/**
+	 * Gets root holding subtrees read so far.
+	 */
+	TagNode getRootNode() {
+		return root;
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName,
+			Attributes attributes) throws SAXException {
+		automaton.startElement(
+				automaton.getSymbol(qLocal(qName, localName)), uri,
+				localName, qName, attributes);
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length)
+			throws SAXException {
+		automaton.characters(ch, start, length);
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName)
+			throws SAXException {
+		automaton.endElement(uri, localName, qName);
+	}
+
+	/**
+	 * Target of one expression. Builds nodes from the matched element until
+	 * it is closed.
+	 */
+	private static final class Subtree implements ExpressionFilter {
+		private final Expression expr;
+		private final TagNode root;
+		private final int paths;
+		private TagNode current;
+		private int done = -1;
+
+		Subtree(Expression expr, TagNode root) {
+			this.expr = expr;
+			this.root = root;
+			int count = 1;
+			Expression.Node node;
+			for (int n = 0; (node = expr.getNode(n)) != null; n++)
+				if (node.tag.equals("&&")) count++;
+			paths = count;
+		}
+
+		@Override
+		public Expression getExpression() {
+			return expr;
+		}
+
+		@Override
+		public void startElement(int expr, String uri, String localName,
+				String qName, Attributes attributes) throws SAXException {
+			if (current == null) {
+				// siblings after subtree are still sent, ignore them
+				if (expr <= done) return;
+				current = root;
+			}
+			TagNode node = new TagNode(qName);
+			for (int i = 0, len = attributes.getLength(); i < len; i++)
+				node.addAttribute(attributes.getQName(i),
+						attributes.getValue(i));
+			current.addChild(node);
+			current = node;
+		}
+
+		@Override
+		public void characters(int expr, char[] ch, int start, int length)
+				throws SAXException {
+			if (current != null) current.addChild(new ContentNode(new String(
+					ch, start, length)));
+		}
+
+		@Override
+		public boolean endElement(int expr, String uri, String localName,
+				String qName) throws SAXException {
+			// keep moving to next path once subtree is done
+			if (current == null) return expr <= done;
+			current = current.getParent();
+			if (current != root) return false;
+
+			current = null;
+			done = expr;
+			if (expr + 1 == paths) throw new StopException();
+			return true;
+		}
+
+	}
+
+}
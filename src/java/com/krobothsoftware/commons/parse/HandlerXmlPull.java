@@ -0,0 +1,219 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.parse;
+
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_DOCUMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.krobothsoftware.commons.progress.ProgressMonitor;
+
+/**
+ * Pull based handler for XML data, driven by a StAX
+ * <code>XMLStreamReader</code>. Instead of receiving callbacks the handler
+ * reads elements itself in {@link #parse()}, so it can skip subtrees it
+ * doesn't need and stop reading by returning once it has its data. No
+ * {@link StopException} is needed.
+ *
+ * <p>
+ * Android has no <code>javax.xml.stream</code>, so pull handlers can't be
+ * used there. Use {@link HandlerXml} for handlers shared with Android.
+ * </p>
+ *
+ * <pre>
+ * public void parse() throws XMLStreamException {
+ * 	while (nextStartElement()) {
+ * 		switch (startId) {
+ * 			case NAME:
+ * 				name = getElementText().toString();
+ * 				return; // done, rest of stream isn't read
+ * 			case COMMENTS:
+ * 				skipElement();
+ * 				break;
+ * 		}
+ * 	}
+ * }
+ * </pre>
+ *
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ * @see Parser#parse(java.io.InputStream, Handler, String)
+ */
+public abstract class HandlerXmlPull extends Handler {
+
+	/**
+	 * Stream reader of document being parsed.
+	 *
+	 * @since SNC 1.0.2
+	 */
+	protected XMLStreamReader reader;
+
+	/**
+	 * Local name of current start element.
+	 *
+	 * @since SNC 1.0.2
+	 */
+	protected String startTag;
+
+	/**
+	 * Symbol id of {@link #startTag}, or {@link SymbolTable#UNKNOWN}. Only set
+	 * if handler has symbols.
+	 *
+	 * @see #getSymbols()
+	 * @since SNC 1.0.2
+	 */
+	protected int startId = SymbolTable.UNKNOWN;
+
+	private boolean pending;
+	private char[] buffer = new char[64];
+	private final CharSlice slice = new CharSlice();
+
+	/**
+	 * Creates new Xml pull handler with progress.
+	 *
+	 * @param monitor
+	 *            for progress
+	 * @since SNC 1.0.2
+	 */
+	public HandlerXmlPull(ProgressMonitor monitor) {
+		super(monitor);
+	}
+
+	/**
+	 * Creates new Xml pull handler with no progress.
+	 *
+	 * @since SNC 1.0.2
+	 */
+	public HandlerXmlPull() {
+		super();
+	}
+
+	/**
+	 * Called when handler is parsed. Read elements from {@link #reader} and
+	 * return when done. Anything left in the stream isn't read.
+	 *
+	 * @throws XMLStreamException
+	 * @throws ParseException
+	 * @since SNC 1.0.2
+	 */
+	public abstract void parse() throws XMLStreamException, ParseException;
+
+	/**
+	 * Advances to next start element and sets {@link #startTag} and
+	 * {@link #startId}.
+	 *
+	 * @return true, if found. False if end of document
+	 * @throws XMLStreamException
+	 * @since SNC 1.0.2
+	 */
+	protected final boolean nextStartElement() throws XMLStreamException {
+		if (!pending) {
+			int event;
+			do {
+				if (!reader.hasNext()) return false;
+				event = reader.next();
+				if (event == END_DOCUMENT) return false;
+			} while (event != START_ELEMENT);
+		}
+		pending = false;
+		startTag = reader.getLocalName();
+		if (symbols != null) startId = symbols.get(startTag);
+		return true;
+	}
+
+	/**
+	 * Skips current element and all of its children. Reader is left on the
+	 * element's end tag.
+	 *
+	 * @throws XMLStreamException
+	 * @since SNC 1.0.2
+	 */
+	protected final void skipElement() throws XMLStreamException {
+		int depth = 1;
+		if (pending) {
+			pending = false;
+			depth++;
+		}
+		while (depth > 0 && reader.hasNext()) {
+			int event = reader.next();
+			if (event == START_ELEMENT) depth++;
+			else if (event == END_ELEMENT) depth--;
+		}
+	}
+
+	/**
+	 * Reads text directly after current start element. Reading stops at the
+	 * next start or end tag. If a child element is found, the next call to
+	 * {@link #nextStartElement()} returns it.
+	 *
+	 * <p>
+	 * View is reused, so it is only valid until the next call.
+	 * </p>
+	 *
+	 * @return text of element, empty if none
+	 * @throws XMLStreamException
+	 * @since SNC 1.0.2
+	 */
+	protected final CharSlice getElementText() throws XMLStreamException {
+		int length = 0;
+		while (!pending && reader.hasNext()) {
+			int event = reader.next();
+			if (event == CHARACTERS || event == CDATA || event == SPACE) {
+				int count = reader.getTextLength();
+				if (length + count > buffer.length) {
+					char[] grown = new char[Math.max(length + count,
+							buffer.length << 1)];
+					System.arraycopy(buffer, 0, grown, 0, length);
+					buffer = grown;
+				}
+				System.arraycopy(reader.getTextCharacters(),
+						reader.getTextStart(), buffer, length, count);
+				length += count;
+			} else if (event == START_ELEMENT) {
+				pending = true;
+			} else if (event == END_ELEMENT || event == END_DOCUMENT) {
+				break;
+			}
+		}
+		return slice.set(buffer, 0, length);
+	}
+
+	/**
+	 * Gets attribute value of current start element.
+	 *
+	 * @param name
+	 *            local name of attribute
+	 * @return value, or null if not found
+	 * @since SNC 1.0.2
+	 */
+	protected final String getAttribute(String name) {
+		return reader.getAttributeValue(null, name);
+	}
+
+	void setReader(XMLStreamReader reader) {
+		this.reader = reader;
+		pending = false;
+	}
+
+}
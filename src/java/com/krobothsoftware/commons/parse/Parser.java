@@ -29,16 +29,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
 
 /**
  * Parser is used to parse XML and HTML data. Xml is parsed by SAX and Html by
- * TagSoup(SAX). Supports more formats through {@link ParserHandler}.
+ * TagSoup(SAX). {@link HandlerXmlPull} handlers are parsed by StAX. Supports
+ * more formats through {@link ParserHandler}.
  * 
  * @author Kyle Kroboth
  * @since SNC 1.0
  */
 public final class Parser implements ParserInitializable {
 	private static final String SAXPARSER_TAGSOUP = "org.ccil.cowan.tagsoup.jaxp.SAXFactoryImpl";
+	private static final String FEATURE_STRING_INTERNING = "http://xml.org/sax/features/string-interning";
 
 	/**
 	 * Null Parser Handler. Use this instead of <code>null</code> when setting
@@ -77,10 +81,8 @@ public final class Parser implements ParserInitializable {
 	@Override
 	public void init() {
 		try {
-			xmlParser = SAXParserFactory.newInstance().newSAXParser();
-			htmlParser = SAXParserFactory.newInstance(
-					"org.ccil.cowan.tagsoup.jaxp.SAXFactoryImpl",
-					Parser.class.getClassLoader()).newSAXParser();
+			xmlParser = newXmlParser();
+			htmlParser = newHtmlParser();
 		} catch (FactoryConfigurationError e) {
 			log.error("Init - " + e.getMessage());
 		} catch (ParserConfigurationException e) {
@@ -91,7 +93,8 @@ public final class Parser implements ParserInitializable {
 	}
 
 	/**
-	 * Xml SAX parser.
+	 * Xml SAX parser. Parser is shared, so synchronize on it when parsing
+	 * from several threads.
 	 * 
 	 * @return xml parser or null if not initiated
 	 * @since SNC 1.0
@@ -103,7 +106,8 @@ public final class Parser implements ParserInitializable {
 	}
 
 	/**
-	 * Html SAX parser.
+	 * Html SAX parser. Parser is shared, so synchronize on it when parsing
+	 * from several threads.
 	 * 
 	 * @return html parser or null if not initiated
 	 * @since SNC 1.0
@@ -131,7 +135,15 @@ public final class Parser implements ParserInitializable {
 
 	/**
 	 * Parses inputstream for {@link Handler}. Stream is handled inside
-	 * SAXParsers and should close after use.
+	 * SAXParsers and should close after use. If stream supports mark, its
+	 * start is checked first and an {@link UnexpectedContentException} is
+	 * thrown for an empty response, or an Html page given to an Xml handler.
+	 * 
+	 * <p>
+	 * May be called from several threads. SAX parsers are shared, so
+	 * {@link HandlerSAX} handlers are parsed one at a time per parser type
+	 * while the others wait.
+	 * </p>
 	 * 
 	 * @param inputStream
 	 *            inputstream to be parsed
@@ -150,17 +162,34 @@ public final class Parser implements ParserInitializable {
 			if (handler instanceof HandlerSAX) {
 				SAXParser parser = getParser(handler);
 				if (parser != null) {
+					ContentSniffer.check(inputStream, charset,
+							handler instanceof HandlerHtml ? ContentSniffer.HTML
+									: ContentSniffer.XML);
 					DefaultHandlerDelegate delegate = new DefaultHandlerDelegate(
 							(HandlerSAX) realHandler);
 					InputSource inputSource = new InputSource(inputStream);
 					inputSource.setEncoding(charset);
 					realHandler.setParser(this);
 					realHandler.setLogger(log);
-					parser.parse(inputSource, delegate);
+					handler.setParser(this);
+					handler.setLogger(log);
+					handler.setSymbolTable(SymbolTable.forHandler(handler));
+					// SAXParser isn't thread safe and is shared
+					synchronized (parser) {
+						parser.parse(inputSource, delegate);
+					}
 					return;
 				}
 			}
 
+			// StAX handler, not available on Android
+			if (handler instanceof HandlerXmlPull) {
+				ContentSniffer.check(inputStream, charset, ContentSniffer.XML);
+				StaxParser.parse(this, inputStream, (HandlerXmlPull) handler,
+						charset);
+				return;
+			}
+
 			/**
 			 * Pass unsupported handler to ParserHandler. If returns false,
 			 * throw exception.
@@ -180,18 +209,78 @@ public final class Parser implements ParserInitializable {
 		}
 	}
 
-	private SAXParser getParser(Handler handler) throws ParseException {
+	/**
+	 * Parses inputstream for multiple {@link HandlerSAX}s in a single pass.
+	 * Expressions of every {@link ExpressionFilter} handler are compiled into
+	 * one state table, so several tables may be extracted from the same
+	 * document without parsing it again. Handlers which don't implement
+	 * <code>ExpressionFilter</code> receive every event.
+	 * 
+	 * <p>
+	 * A {@link StopException} thrown by a handler will only stop that
+	 * handler. Parsing stops once all handlers have stopped.
+	 * </p>
+	 * 
+	 * @param inputStream
+	 *            inputstream to be parsed
+	 * @param charset
+	 * @param handlers
+	 *            handlers of the same type, either all {@link HandlerXml} or
+	 *            all {@link HandlerHtml}
+	 * @throws ParseException
+	 * @throws IllegalArgumentException
+	 *             if no handlers are given or they are mixed types
+	 * @since SNC 1.0.2
+	 */
+	public void parse(InputStream inputStream, String charset,
+			HandlerSAX... handlers) throws ParseException {
+		if (handlers.length == 0) throw new IllegalArgumentException(
+				"At least one handler is required");
+		boolean html = handlers[0] instanceof HandlerHtml;
+		for (HandlerSAX handler : handlers) {
+			if (html != (handler instanceof HandlerHtml)) throw new IllegalArgumentException(
+					"Handlers must be all Xml or all Html");
+			handler.setParser(this);
+			handler.setLogger(log);
+			handler.setSymbolTable(SymbolTable.forHandler(handler));
+		}
+		log.debug("Parsing {} handlers", String.valueOf(handlers.length));
+
+		try {
+			SAXParser parser = getParser(handlers[0]);
+			if (parser == null) throw new ParseException(String.format(
+					"Unsupported Handler [%s]", handlers[0].getClass()));
+			ContentSniffer.check(inputStream, charset,
+					html ? ContentSniffer.HTML : ContentSniffer.XML);
+			HandlerExpression realHandler = new HandlerExpression(handlers);
+			realHandler.setParser(this);
+			realHandler.setLogger(log);
+			InputSource inputSource = new InputSource(inputStream);
+			inputSource.setEncoding(charset);
+			synchronized (parser) {
+				parser.parse(inputSource, new DefaultHandlerDelegate(
+						realHandler));
+			}
+		} catch (StopException e) {
+			log.debug("Caught Stop Exception - all handlers stopped");
+		} catch (SAXException e) {
+			throw new ParseException(e);
+		} catch (IOException e) {
+			throw new ParseException(e);
+		}
+	}
+
+	private synchronized SAXParser getParser(Handler handler)
+			throws ParseException {
 		try {
 			if (handler instanceof HandlerXml) {
 				if (xmlParser == null) {
-					xmlParser = SAXParserFactory.newInstance().newSAXParser();
+					xmlParser = newXmlParser();
 				}
 				return xmlParser;
 			} else if (handler instanceof HandlerHtml) {
 				if (htmlParser == null) {
-					htmlParser = SAXParserFactory.newInstance(
-							SAXPARSER_TAGSOUP, Parser.class.getClassLoader())
-							.newSAXParser();
+					htmlParser = newHtmlParser();
 				}
 				return htmlParser;
 			}
@@ -204,6 +293,33 @@ public final class Parser implements ParserInitializable {
 		return null;
 	}
 
+	private static SAXParser newXmlParser()
+			throws ParserConfigurationException, SAXException {
+		return newParser(SAXParserFactory.newInstance());
+	}
+
+	private static SAXParser newHtmlParser()
+			throws ParserConfigurationException, SAXException {
+		return newParser(SAXParserFactory.newInstance(SAXPARSER_TAGSOUP,
+				Parser.class.getClassLoader()));
+	}
+
+	/**
+	 * Creates parser which interns element names, if supported, so
+	 * {@link SymbolTable} lookups can compare references.
+	 */
+	private static SAXParser newParser(SAXParserFactory factory)
+			throws ParserConfigurationException, SAXException {
+		try {
+			factory.setFeature(FEATURE_STRING_INTERNING, true);
+		} catch (SAXNotRecognizedException e) {
+			// names will be compared by characters
+		} catch (SAXNotSupportedException e) {
+			// names will be compared by characters
+		}
+		return factory.newSAXParser();
+	}
+
 	private Handler getHandler(Handler handler) {
 		Handler found = listener.getHandler(handler);
 		if (found == null) {
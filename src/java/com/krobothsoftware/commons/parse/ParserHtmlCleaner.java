@@ -22,6 +22,7 @@ import java.io.InputStream;
 
 import org.htmlcleaner.CleanerProperties;
 import org.htmlcleaner.HtmlCleaner;
+import org.htmlcleaner.TagNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +35,7 @@ import org.slf4j.LoggerFactory;
  */
 public final class ParserHtmlCleaner implements ParserInitializable {
 	private HtmlCleaner cleaner;
+	private Parser saxParser;
 	private final CleanerProperties properties;
 	private final Logger log;
 
@@ -59,7 +61,9 @@ public final class ParserHtmlCleaner implements ParserInitializable {
 	}
 
 	/**
-	 * Creates Html Cleaner parser. No exceptions to worry about.
+	 * Creates Html Cleaner parser and SAX parser used for
+	 * {@link HandlerHtmlCleaner#getSubtrees() subtrees}. No exceptions to
+	 * worry about.
 	 * 
 	 * @since SNC-EXT-HTMLCLEANER 1.0
 	 */
@@ -67,6 +71,8 @@ public final class ParserHtmlCleaner implements ParserInitializable {
 	public void init() {
 		// no exceptions or errors to worry about
 		cleaner = new HtmlCleaner(properties);
+		saxParser = new Parser();
+		saxParser.init();
 	}
 
 	/**
@@ -83,7 +89,8 @@ public final class ParserHtmlCleaner implements ParserInitializable {
 
 	/**
 	 * Parses Html InputStream for handler. Inputstream is passed to Html
-	 * Cleaner and should close after use.
+	 * Cleaner and should close after use. If handler has
+	 * {@link HandlerHtmlCleaner#getSubtrees() subtrees}, only those are built.
 	 * 
 	 * @param inputStream
 	 * @param handler
@@ -99,12 +106,28 @@ public final class ParserHtmlCleaner implements ParserInitializable {
 		try {
 			handler.setLogger(log);
 			handler.setHtmlCleaner(cleaner);
+			Expression[] subtrees = handler.getSubtrees();
+			if (subtrees != null) {
+				handler.parse(parseSubtrees(inputStream, subtrees, charset));
+				return;
+			}
 			handler.parse(cleaner.clean(inputStream, charset));
 		} catch (IOException e) {
 			throw new ParseException(e);
 		}
 	}
 
+	private TagNode parseSubtrees(InputStream inputStream,
+			Expression[] subtrees, String charset) throws ParseException {
+		if (saxParser == null) {
+			saxParser = new Parser();
+			saxParser.init();
+		}
+		HandlerTagNodeBuilder builder = new HandlerTagNodeBuilder(subtrees);
+		saxParser.parse(inputStream, builder, charset);
+		return builder.getRootNode();
+	}
+
 	/**
 	 * Parses Html InputStream from
 	 * {@link ParserHandler#parseHandler(InputStream, Handler, Handler, String) }
@@ -37,6 +37,8 @@ import com.krobothsoftware.commons.util.CommonUtils;
  * @since SNC-EXT-JSON 1.0
  */
 public final class ParserJson implements ParserInitializable {
+	// thread-safe once configured, and caches field names across parsers
+	private static final JsonFactory SHARED_FACTORY = new JsonFactory();
 	private JsonFactory factory;
 	private final Logger log;
 
@@ -50,18 +52,20 @@ public final class ParserJson implements ParserInitializable {
 	}
 
 	/**
-	 * Creates Json Factory. No throwables to worry about.
+	 * Sets Json Factory to the process-wide shared factory. No throwables to
+	 * worry about.
 	 * 
 	 * @since SNC-EXT-JSON 1.0
 	 */
 	@Override
 	public void init() {
 		// no errors or exceptions to worry about
-		factory = new JsonFactory();
+		factory = SHARED_FACTORY;
 	}
 
 	/**
-	 * Gets Factory for json created inside the parser.
+	 * Gets Factory for json used by the parser. Factory is shared by all
+	 * parsers, so changing its configuration affects all of them.
 	 * 
 	 * @return json factory or null if not initiated
 	 * @since SNC-EXT-JSON 1.0
@@ -72,7 +76,9 @@ public final class ParserJson implements ParserInitializable {
 
 	/**
 	 * Parses Json Inputstream for handler. Stream is passed to Jackson parser
-	 * and should close after use.
+	 * and should close after use. If stream supports mark, its start is
+	 * checked first and an {@link UnexpectedContentException} is thrown for an
+	 * empty response or Html page.
 	 * 
 	 * @param inputStream
 	 * @param handler
@@ -82,11 +88,13 @@ public final class ParserJson implements ParserInitializable {
 	@SuppressWarnings("resource")
 	public void parse(InputStream inputStream, HandlerJson handler)
 			throws ParseException {
-		if (factory == null) factory = new JsonFactory();
+		if (factory == null) factory = SHARED_FACTORY;
 		JsonParser parser = null;
 		try {
+			ContentSniffer.check(inputStream, null, ContentSniffer.JSON);
 			parser = factory.createParser(inputStream);
 			handler.setLogger(log);
+			handler.setSymbolTable(SymbolTable.forHandler(handler));
 			handler.setJsonParser(parser);
 			handler.parse();
 		} catch (JsonParseException e) {
@@ -0,0 +1,60 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.parse;
+
+/**
+ * Receives results from a handler as soon as each one is parsed, instead of
+ * collecting them in a list. Called on the parsing thread, so the stream
+ * isn't read any further until the callback returns. Parsers which buffer the
+ * whole response first, such as the one for <i>Official</i> lists, call back
+ * only after it has been read.
+ *
+ * <pre>
+ * psn.getOfficialTrophyList(jid, gameId, new ResultCallback&lt;PsnTrophyOfficial&gt;() {
+ * 
+ * 	&#064;Override
+ * 	public boolean onResult(PsnTrophyOfficial trophy) {
+ * 		store(trophy);
+ * 		return true; // false stops parsing
+ * 	}
+ * });
+ * </pre>
+ *
+ * <p>
+ * Returning <code>false</code> throws a {@link StopException} from the
+ * handler, which ends parsing without reading the rest of the document.
+ * </p>
+ *
+ * @param <T>
+ *            type of result
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ */
+public interface ResultCallback<T> {
+
+	/**
+	 * Called for each parsed result, in document order.
+	 *
+	 * @param result
+	 *            parsed result
+	 * @return true to continue parsing, false to stop
+	 * @since SNC 1.0.2
+	 */
+	boolean onResult(T result);
+
+}
@@ -0,0 +1,70 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.parse;
+
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Parses {@link HandlerXmlPull} handlers with StAX. Kept apart from
+ * {@link Parser} so <code>javax.xml.stream</code>, which Android doesn't
+ * have, is only loaded once a pull handler is parsed.
+ * 
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ */
+final class StaxParser {
+	// created on first pull parse, factory is thread safe once configured
+	private static final XMLInputFactory FACTORY = XMLInputFactory
+			.newInstance();
+
+	private StaxParser() {
+
+	}
+
+	/**
+	 * Parses stream with StAX. Handler pulls events until done, so the stream
+	 * is only read as far as the handler needs.
+	 */
+	static void parse(Parser parser, InputStream inputStream,
+			HandlerXmlPull handler, String charset) throws ParseException {
+		XMLStreamReader reader = null;
+		try {
+			reader = FACTORY.createXMLStreamReader(inputStream, charset);
+			handler.setParser(parser);
+			handler.setLogger(parser.log);
+			handler.setSymbolTable(SymbolTable.forHandler(handler));
+			handler.setReader(reader);
+			handler.parse();
+		} catch (XMLStreamException e) {
+			throw new ParseException(e);
+		} finally {
+			handler.setReader(null);
+			// doesn't close underlying stream
+			if (reader != null) try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				// ignore
+			}
+		}
+	}
+
+}
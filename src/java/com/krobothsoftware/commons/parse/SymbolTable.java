@@ -0,0 +1,235 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.parse;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable table mapping element names to small integer ids. Ids are the
+ * index of the name given when created, so they may be declared as constants
+ * and used in a <code>switch</code>.
+ *
+ * <pre>
+ * private static final int NPTROPHY = 0;
+ * private static final int TROPHY = 1;
+ *
+ * &#064;Override
+ * protected String[] getSymbols() {
+ * 	return new String[] { &quot;nptrophy&quot;, &quot;trophy&quot; };
+ * }
+ * </pre>
+ *
+ * <p>
+ * Names from SAX parsers are interned, so lookups compare references first
+ * and only fall back to comparing characters on a miss. Tables created for
+ * Html ignore case.
+ * </p>
+ *
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ * @see HandlerSAX#getSymbols()
+ */
+public final class SymbolTable {
+
+	/**
+	 * Id returned for names not in table.
+	 *
+	 * @since SNC 1.0.2
+	 */
+	public static final int UNKNOWN = -1;
+
+	// handler symbols are fixed per class, so tables are shared by all parsers
+	private static final ConcurrentMap<Class<?>, SymbolTable> HANDLER_TABLES = new ConcurrentHashMap<Class<?>, SymbolTable>();
+
+	private final String[] names;
+	private final String[] keys;
+	private final int[] ids;
+	private final int mask;
+	private final boolean ignoreCase;
+
+	/**
+	 * Creates new symbol table.
+	 *
+	 * @param ignoreCase
+	 *            true, if names should be case-normalized
+	 * @param names
+	 *            element names. Id of each name is its index. Null names
+	 *            are skipped, leaving their id unused.
+	 * @since SNC 1.0.2
+	 */
+	public SymbolTable(boolean ignoreCase, String... names) {
+		this.ignoreCase = ignoreCase;
+		this.names = names.clone();
+
+		// power of two, at most half full
+		int capacity = 4;
+		while (capacity < names.length * 2)
+			capacity <<= 1;
+		mask = capacity - 1;
+		keys = new String[capacity];
+		ids = new int[capacity];
+
+		for (int i = 0; i < names.length; i++) {
+			if (names[i] == null) continue;
+			String key = (ignoreCase ? names[i].toLowerCase(Locale.ENGLISH) : names[i])
+					.intern();
+			int slot = hash(key) & mask;
+			while (keys[slot] != null) {
+				if (keys[slot] == key) break;
+				slot = (slot + 1) & mask;
+			}
+			if (keys[slot] != null) continue; // keep first id of duplicate
+			keys[slot] = key;
+			ids[slot] = i;
+		}
+	}
+
+	/**
+	 * Gets table of handler's symbols, creating it once per handler class.
+	 * Tables for {@link HandlerHtml} ignore case.
+	 * 
+	 * @return table, or null if handler doesn't use symbols
+	 */
+	static SymbolTable forHandler(Handler handler) {
+		Class<?> type = handler.getClass();
+		SymbolTable table = HANDLER_TABLES.get(type);
+		if (table == null) {
+			String[] names = handler.getSymbols();
+			if (names == null) return null;
+			table = new SymbolTable(handler instanceof HandlerHtml, names);
+			SymbolTable existing = HANDLER_TABLES.putIfAbsent(type, table);
+			if (existing != null) table = existing;
+		}
+		return table;
+	}
+
+	/**
+	 * Gets id of element name.
+	 *
+	 * @param name
+	 *            element name
+	 * @return id, or {@link #UNKNOWN}
+	 * @since SNC 1.0.2
+	 */
+	public int get(String name) {
+		if (name == null) return UNKNOWN;
+		int slot = hash(name) & mask;
+		String key;
+		while ((key = keys[slot]) != null) {
+			if (key == name) return ids[slot];
+			if (ignoreCase ? key.equalsIgnoreCase(name) : key.equals(name)) return ids[slot];
+			slot = (slot + 1) & mask;
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Gets id of element name from characters without creating a string.
+	 *
+	 * @param ch
+	 *            characters
+	 * @param start
+	 *            start of name
+	 * @param length
+	 *            length of name
+	 * @return id, or {@link #UNKNOWN}
+	 * @since SNC 1.0.2
+	 */
+	public int get(char[] ch, int start, int length) {
+		int slot = hash(ch, start, length) & mask;
+		String key;
+		while ((key = keys[slot]) != null) {
+			if (matches(key, ch, start, length)) return ids[slot];
+			slot = (slot + 1) & mask;
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Gets element name of id.
+	 *
+	 * @param id
+	 *            symbol id
+	 * @return name, or null if id is unknown
+	 * @since SNC 1.0.2
+	 */
+	public String getName(int id) {
+		if (id < 0 || id >= names.length) return null;
+		return names[id];
+	}
+
+	/**
+	 * Gets number of names in table.
+	 *
+	 * @return size of table
+	 * @since SNC 1.0.2
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * Checks if table ignores case of names.
+	 *
+	 * @return true, if case-normalized
+	 * @since SNC 1.0.2
+	 */
+	public boolean isIgnoreCase() {
+		return ignoreCase;
+	}
+
+	/**
+	 * Same as {@link String#hashCode()} unless ignoring case, which hashes the
+	 * lower case characters without creating a new string.
+	 */
+	private int hash(String name) {
+		if (!ignoreCase) return spread(name.hashCode());
+		int h = 0;
+		for (int i = 0, len = name.length(); i < len; i++)
+			h = 31 * h + Character.toLowerCase(name.charAt(i));
+		return spread(h);
+	}
+
+	private int hash(char[] ch, int start, int length) {
+		int h = 0;
+		int end = start + length;
+		if (ignoreCase) for (int i = start; i < end; i++)
+			h = 31 * h + Character.toLowerCase(ch[i]);
+		else
+			for (int i = start; i < end; i++)
+				h = 31 * h + ch[i];
+		return spread(h);
+	}
+
+	private boolean matches(String key, char[] ch, int start, int length) {
+		if (key.length() != length) return false;
+		for (int i = 0; i < length; i++) {
+			char c = ch[start + i];
+			if (ignoreCase) c = Character.toLowerCase(c);
+			if (key.charAt(i) != c) return false;
+		}
+		return true;
+	}
+
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+
+}
@@ -0,0 +1,82 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.parse;
+
+/**
+ * Thrown before parsing when a response clearly isn't in the format the
+ * handler expects, such as an Html error page given to a Json handler. Found
+ * by peeking at the first bytes of the stream, so no parser is set up.
+ * 
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ */
+public class UnexpectedContentException extends ParseException {
+	private static final long serialVersionUID = -3342907618843453637L;
+	private final Content content;
+
+	/**
+	 * Kind of content found instead of expected format.
+	 * 
+	 * @since SNC 1.0.2
+	 */
+	public enum Content {
+
+		/**
+		 * No data, or only whitespace.
+		 * 
+		 * @since SNC 1.0.2
+		 */
+		EMPTY,
+
+		/**
+		 * Html page, usually an error page.
+		 * 
+		 * @since SNC 1.0.2
+		 */
+		HTML,
+
+		/**
+		 * Html page mentioning maintenance.
+		 * 
+		 * @since SNC 1.0.2
+		 */
+		MAINTENANCE
+	}
+
+	/**
+	 * @param content
+	 *            kind of content found
+	 * @param message
+	 * @since SNC 1.0.2
+	 */
+	public UnexpectedContentException(Content content, String message) {
+		super(message);
+		this.content = content;
+	}
+
+	/**
+	 * Gets kind of content found instead of expected format.
+	 * 
+	 * @return content
+	 * @since SNC 1.0.2
+	 */
+	public Content getContent() {
+		return content;
+	}
+
+}
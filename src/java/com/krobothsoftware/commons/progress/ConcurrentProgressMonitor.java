@@ -0,0 +1,408 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.progress;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.krobothsoftware.commons.util.CommonUtils;
+
+/**
+ * Monitor which may be worked from many threads at once, such as requests
+ * running in parallel under one progress bar. Each parallel task gets its own
+ * child from {@link #newChild(int)}, which has its own ticks and reports its
+ * share of work to this monitor.
+ * 
+ * <pre>
+ * ConcurrentProgressMonitor monitor = new ConcurrentProgressMonitor(listener);
+ * monitor.beginTask(&quot;Syncing&quot;, games.size());
+ * for (PsnGameOfficial game : games) {
+ * 	final ProgressMonitor child = monitor.newChild(1);
+ * 	executor.execute(new Runnable() {
+ * 		...
+ * 	});
+ * }
+ * </pre>
+ * 
+ * <p>
+ * Work is counted with atomics, so no locks are held while working. Listener
+ * updates are coalesced to at most one per interval, and the listener is
+ * never called from two threads at once. Finishing the task always updates
+ * the listener.
+ * </p>
+ * 
+ * <p>
+ * Once canceled, by {@link #cancel()} or by the listener, every
+ * <code>Closeable</code> given to {@link #register(Closeable)} is closed, and
+ * streams from {@link #wrap(InputStream)} fail on their next read. Wrap
+ * responses which are still being read, since closing a connection's stream
+ * waits for a read running on another thread.
+ * </p>
+ * 
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ */
+public class ConcurrentProgressMonitor extends ProgressMonitor {
+	/**
+	 * Default minimum time between listener updates, in milliseconds.
+	 * 
+	 * @since SNC 1.0.2
+	 */
+	public static final long DEFAULT_INTERVAL = 100;
+
+	// fixed point units per tick, so children may report fractions of a tick
+	private static final long UNIT = 1 << 16;
+
+	private final AtomicLong units = new AtomicLong();
+	private final AtomicLong nextUpdate = new AtomicLong();
+	private final ConcurrentMap<Closeable, Boolean> registered = new ConcurrentHashMap<Closeable, Boolean>();
+	private final Object listenerLock = new Object();
+	private final long interval;
+	private volatile long totalUnits = UNIT;
+	private volatile String currentTask = "";
+	private volatile boolean canceled;
+	private volatile boolean finished;
+
+	/**
+	 * Creates new monitor which updates listener at most every
+	 * {@link #DEFAULT_INTERVAL} milliseconds.
+	 * 
+	 * @param listener
+	 *            listener to update
+	 * @since SNC 1.0.2
+	 */
+	public ConcurrentProgressMonitor(ProgressListener listener) {
+		this(listener, DEFAULT_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates new monitor.
+	 * 
+	 * @param listener
+	 *            listener to update
+	 * @param interval
+	 *            minimum time between listener updates
+	 * @param unit
+	 *            unit of interval
+	 * @since SNC 1.0.2
+	 */
+	public ConcurrentProgressMonitor(ProgressListener listener,
+			long interval, TimeUnit unit) {
+		if (listener == null) throw new IllegalArgumentException(
+				"Listener may not be null");
+		this.listener = listener;
+		length = listener.getProgressLength();
+		this.interval = unit.toNanos(interval);
+		nextUpdate.set(System.nanoTime());
+	}
+
+	/**
+	 * Begins new task. Should be called before any work is done.
+	 * 
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public void beginTask(String task, int ticks) {
+		currentTask = task;
+		totalUnits = Math.max(ticks, 1) * UNIT;
+		units.set(0);
+		finished = false;
+		update(task, true);
+	}
+
+	/**
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public void setTask(String task) {
+		currentTask = task;
+		update(task, false);
+	}
+
+	/**
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public void worked(int ticks) {
+		add(ticks * UNIT, currentTask);
+	}
+
+	/**
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public void worked(int ticks, String task) {
+		currentTask = task;
+		add(ticks * UNIT, task);
+	}
+
+	/**
+	 * Finishes task with current task name.
+	 * 
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public void done() {
+		done(currentTask);
+	}
+
+	/**
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public void done(String task) {
+		currentTask = task;
+		units.set(totalUnits);
+		finished = true;
+		update(task, true);
+	}
+
+	/**
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public boolean isCanceled() {
+		return canceled;
+	}
+
+	/**
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	public boolean isDone() {
+		return finished;
+	}
+
+	/**
+	 * Creates monitor for a parallel subtask. Child begins its own task with
+	 * any number of ticks and, once done, has worked the given ticks of this
+	 * monitor. Children share this monitor's cancel state.
+	 * 
+	 * @param ticks
+	 *            ticks of this monitor child is worth
+	 * @return child monitor
+	 * @since SNC 1.0.2
+	 */
+	public ProgressMonitor newChild(int ticks) {
+		return new Child(ticks);
+	}
+
+	/**
+	 * Cancels monitor and closes everything registered. Closeables registered
+	 * afterwards are closed immediately.
+	 * 
+	 * @since SNC 1.0.2
+	 */
+	public void cancel() {
+		canceled = true;
+		for (Closeable closeable : registered.keySet())
+			if (registered.remove(closeable) != null) CommonUtils
+					.closeQuietly(closeable);
+	}
+
+	/**
+	 * Registers closeable, such as a <code>Response</code>, to be closed if
+	 * monitor is canceled. Unregister it once done with it.
+	 * 
+	 * @param closeable
+	 *            closeable to register
+	 * @since SNC 1.0.2
+	 */
+	public void register(Closeable closeable) {
+		registered.put(closeable, Boolean.TRUE);
+		// cancel may have run before put
+		if (canceled && registered.remove(closeable) != null) CommonUtils
+				.closeQuietly(closeable);
+	}
+
+	/**
+	 * Unregisters closeable.
+	 * 
+	 * @param closeable
+	 *            closeable to unregister
+	 * @since SNC 1.0.2
+	 */
+	public void unregister(Closeable closeable) {
+		registered.remove(closeable);
+	}
+
+	/**
+	 * Wraps stream so reading it throws an
+	 * <code>InterruptedIOException</code> once monitor is canceled. A read
+	 * already waiting for data returns first, so a response stops at its next
+	 * chunk instead of being read to the end. Closing is left to the reader.
+	 * 
+	 * @param in
+	 *            stream to wrap
+	 * @return stream which stops when canceled
+	 * @since SNC 1.0.2
+	 */
+	public InputStream wrap(InputStream in) {
+		return new FilterInputStream(in) {
+
+			@Override
+			public int read() throws IOException {
+				checkCanceled();
+				int b = super.read();
+				checkCanceled();
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				checkCanceled();
+				int read = super.read(b, off, len);
+				checkCanceled();
+				return read;
+			}
+
+			@Override
+			public long skip(long n) throws IOException {
+				checkCanceled();
+				return super.skip(n);
+			}
+
+		};
+	}
+
+	/**
+	 * Gets current progress without updating listener.
+	 * 
+	 * @return progress, between 0 and listener's length
+	 * @since SNC 1.0.2
+	 */
+	public float getValue() {
+		return length * Math.min(units.get(), totalUnits) / totalUnits;
+	}
+
+	/**
+	 * Updates listener directly. Prefer {@link #worked(int)}.
+	 * 
+	 * @since SNC 1.0.2
+	 */
+	@Override
+	protected void updateListener(float value, String task) {
+		synchronized (listenerLock) {
+			this.value = value;
+			if (listener.onProgressUpdate(value, task)) cancel();
+		}
+	}
+
+	private void checkCanceled() throws InterruptedIOException {
+		if (canceled) throw new InterruptedIOException("Canceled");
+	}
+
+	private void add(long delta, String task) {
+		if (delta == 0) return;
+		units.addAndGet(delta);
+		update(task, false);
+	}
+
+	private void update(String task, boolean force) {
+		long now = System.nanoTime();
+		if (!force) {
+			long next = nextUpdate.get();
+			if (now - next < 0
+					|| !nextUpdate.compareAndSet(next, now + interval)) return;
+		} else
+			nextUpdate.set(now + interval);
+		updateListener(getValue(), task);
+	}
+
+	/**
+	 * Monitor of a parallel subtask. Converts its own ticks into units of the
+	 * parent, reporting only what hasn't been reported yet.
+	 */
+	private final class Child extends ProgressMonitor {
+		private final long share;
+		private final AtomicInteger ticks = new AtomicInteger();
+		private final AtomicLong reported = new AtomicLong();
+		private volatile int childTicks = 1;
+		private volatile String childTask = "";
+
+		Child(int parentTicks) {
+			share = parentTicks * UNIT;
+		}
+
+		@Override
+		public void beginTask(String task, int ticks) {
+			childTask = task;
+			childTicks = Math.max(ticks, 1);
+			setTask(task);
+		}
+
+		@Override
+		public void setTask(String task) {
+			childTask = task;
+			ConcurrentProgressMonitor.this.setTask(task);
+		}
+
+		@Override
+		public void worked(int ticks) {
+			worked(ticks, childTask);
+		}
+
+		@Override
+		public void worked(int ticks, String task) {
+			childTask = task;
+			int done = this.ticks.addAndGet(ticks);
+			report(Math.min(share, share * done / childTicks), task);
+		}
+
+		@Override
+		public void done() {
+			done(childTask);
+		}
+
+		@Override
+		public void done(String task) {
+			childTask = task;
+			report(share, task);
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return canceled;
+		}
+
+		@Override
+		public boolean isDone() {
+			return reported.get() == share;
+		}
+
+		private void report(long target, String task) {
+			long previous;
+			do {
+				previous = reported.get();
+				if (target <= previous) return;
+			} while (!reported.compareAndSet(previous, target));
+			currentTask = task;
+			add(target - previous, task);
+		}
+
+	}
+
+}
@@ -17,14 +17,21 @@
 
 package com.krobothsoftware.commons.util;
 
-import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
 import java.util.Random;
-import java.util.Scanner;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,33 +50,105 @@ public final class CommonUtils {
 	 */
 	private static Logger log;
 
+	// initial size hints are taken from headers, don't trust huge ones
+	private static final int MAX_SIZE_HINT = 1024 * 1024;
+	// don't keep huge buffers around after a large response
+	private static final int MAX_POOLED = 256 * 1024;
+	private static final ThreadLocal<byte[]> BYTE_POOL = new ThreadLocal<byte[]>();
+	private static final ThreadLocal<CharsetDecoder> DECODER = new ThreadLocal<CharsetDecoder>();
+
 	private CommonUtils() {
 
 	}
 
 	/**
-	 * Gets string from InputStream. Uses Scanner with delimiter
-	 * <code>\\A</code>. <a
-	 * href="http://stackoverflow.com/a/5445161/702568">More Info</a>.
+	 * Gets string from InputStream. Reads stream into a buffer and decodes it
+	 * once. Malformed input is replaced. Stream is closed after use.
 	 * 
 	 * @param inputStream
 	 * @param charset
 	 * @return String from stream, or an empty string
 	 * @throws IOException
 	 * @since SNC 1.0
+	 * @see #toString(InputStream, String, int)
 	 */
-	@SuppressWarnings("resource")
 	public static String toString(InputStream inputStream, String charset)
 			throws IOException {
-		Scanner s = null;
+		return toString(inputStream, charset, -1);
+	}
+
+	/**
+	 * Gets string from InputStream. Buffer is sized from
+	 * <code>sizeHint</code>, such as a <code>Content-Length</code>, so a
+	 * body is usually read without growing. Stream is closed after use.
+	 * 
+	 * @param inputStream
+	 * @param charset
+	 * @param sizeHint
+	 *            expected number of bytes, or -1 if unknown
+	 * @return String from stream, or an empty string
+	 * @throws IOException
+	 * @since SNC 1.0.2
+	 */
+	public static String toString(InputStream inputStream, String charset,
+			int sizeHint) throws IOException {
+		CharBuffer chars = toCharSequence(inputStream, charset, sizeHint);
+		return new String(chars.array(), 0, chars.length());
+	}
+
+	/**
+	 * Gets decoded content of InputStream as a <code>CharSequence</code>
+	 * without copying it into a string. Decoder is pooled per thread, and
+	 * malformed input is replaced. Stream is closed after use.
+	 * 
+	 * @param inputStream
+	 * @param charset
+	 * @param sizeHint
+	 *            expected number of bytes, or -1 if unknown
+	 * @return chars from stream
+	 * @throws IOException
+	 * @throws java.nio.charset.UnsupportedCharsetException
+	 *             if charset isn't supported
+	 * @since SNC 1.0.2
+	 */
+	public static CharBuffer toCharSequence(InputStream inputStream,
+			String charset, int sizeHint) throws IOException {
+		int size = initialSize(sizeHint);
+		byte[] pooled = BYTE_POOL.get();
+		ByteBuffer bytes;
+		try {
+			bytes = read(inputStream,
+					pooled != null && pooled.length >= size ? pooled
+							: new byte[size]);
+		} finally {
+			closeQuietly(inputStream);
+		}
+		if (bytes.capacity() <= MAX_POOLED) BYTE_POOL.set(bytes.array());
+		return decode(bytes, charset);
+	}
+
+	/**
+	 * Gets bytes of InputStream. Buffer is sized from <code>sizeHint</code>.
+	 * Stream is closed after use.
+	 * 
+	 * @param inputStream
+	 * @param sizeHint
+	 *            expected number of bytes, or -1 if unknown
+	 * @return bytes from stream
+	 * @throws IOException
+	 * @since SNC 1.0.2
+	 */
+	public static byte[] toByteArray(InputStream inputStream, int sizeHint)
+			throws IOException {
+		ByteBuffer bytes;
 		try {
-			s = new Scanner(inputStream, charset);
-			s.useDelimiter("\\A");
-			String text = s.hasNext() ? s.next() : "";
-			return text;
+			bytes = read(inputStream, new byte[initialSize(sizeHint)]);
 		} finally {
-			closeQuietly(s);
+			closeQuietly(inputStream);
 		}
+		byte[] array = bytes.array();
+		return bytes.limit() == array.length ? array : Arrays.copyOf(array,
+				bytes.limit());
 	}
 
 	/**
@@ -176,31 +255,7 @@ public final class CommonUtils {
 	 */
 	public static boolean streamingContains(InputStream input, String charset,
 			String contains) throws IOException {
-		BufferedReader in = null;
-		int count = 0;
-		char[] content = contains.toCharArray();
-		try {
-			in = new BufferedReader(new InputStreamReader(input, charset));
-
-			int ic;
-			while ((ic = in.read()) != -1) {
-				if ((char) ic == content[count]) {
-					count++;
-					if (count == contains.length()) return true;
-				} else
-					count = 0;
-			}
-
-		} catch (UnsupportedEncodingException e) {
-			createLogger();
-			log.error("streamingContains UnsupportedEncodingException {}",
-					e.getMessage());
-			return false;
-		} finally {
-			closeQuietly(in);
-		}
-
-		return false;
+		return streamingContains(input, charset, new StringMatcher(contains)) == 0;
 	}
 
 	/**
@@ -220,29 +275,30 @@ public final class CommonUtils {
 	 */
 	public static int streamingContains(InputStream input, String charset,
 			String... contains) throws IOException {
-		BufferedReader in = null;
-		int len = contains.length;
-		int[] conLen = new int[len];
-		int[] countArray = new int[len];
-		char[][] contentArray = new char[len][];
-		for (int i = 0; i < len; i++) {
-			contentArray[i] = contains[i].toCharArray();
-			conLen[i] = contains[i].length();
-		}
-		try {
-			in = new BufferedReader(new InputStreamReader(input, charset));
-
-			int ic;
-			while ((ic = in.read()) != -1) {
-				for (int i = 0; i < len; i++) {
-					if ((char) ic == contentArray[i][countArray[i]]) {
-						countArray[i]++;
-						if (countArray[i] == conLen[i]) return i;
-					} else
-						countArray[i] = 0;
-				}
-			}
+		return streamingContains(input, charset, new StringMatcher(contains));
+	}
 
+	/**
+	 * Checks if inputstream contains any pattern of matcher. Reading stops at
+	 * the first match.
+	 * 
+	 * @param input
+	 *            inputstream to be checked
+	 * @param charset
+	 *            encoding charset
+	 * @param matcher
+	 *            patterns to find
+	 * @return index of first pattern found, or -1 if none
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @since SNC 1.0.2
+	 */
+	public static int streamingContains(InputStream input, String charset,
+			StringMatcher matcher) throws IOException {
+		Reader in = null;
+		try {
+			in = new InputStreamReader(input, charset);
+			return matcher.find(in);
 		} catch (UnsupportedEncodingException e) {
 			createLogger();
 			log.error("streamingContains UnsupportedEncodingException {}",
@@ -251,8 +307,6 @@ public final class CommonUtils {
 		} finally {
 			closeQuietly(in);
 		}
-
-		return -1;
 	}
 
 	/**
@@ -274,45 +328,41 @@ public final class CommonUtils {
 	 */
 	public static String streamingSubString(InputStream input, String charset,
 			String beginIndex, String endIndex) throws IOException {
-		StringBuilder sb;
-		BufferedReader in = null;
-		int count = 0;
-		int len = beginIndex.length();
-		char[] content = beginIndex.toCharArray();
-		boolean found = false;
+		StringMatcher begin = new StringMatcher(beginIndex);
+		StringMatcher end = new StringMatcher(endIndex);
+		Reader in = null;
 
 		try {
-			in = new BufferedReader(new InputStreamReader(input, charset));
-
-			int ic;
-			// find beginIndex
-			while ((ic = in.read()) != -1) {
-				if ((char) ic == content[count]) {
-					count++;
-					if (count == len) {
-						found = true;
-						break;
+			in = new InputStreamReader(input, charset);
+			char[] buffer = new char[2048];
+			StringBuilder sb = null;
+			int state = StringMatcher.START;
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				int i = 0;
+				// find beginIndex
+				if (sb == null) {
+					while (i < read) {
+						state = begin.next(state, buffer[i++]);
+						if (begin.getMatch(state) != -1) {
+							sb = new StringBuilder();
+							state = StringMatcher.START;
+							break;
+						}
 					}
-				} else
-					count = 0;
-			}
-			if (found) {
-				sb = new StringBuilder();
-				count = 0;
-				len = endIndex.length();
-				content = endIndex.toCharArray();
+					if (sb == null) continue;
+				}
 				// find endIndex
-				while ((ic = in.read()) != -1) {
-					char c = (char) ic;
-					sb.append(c);
-					if (c == content[count]) {
-						count++;
-						if (count == len) {
-							return sb.substring(0, sb.length() - len);
-						}
-					} else
-						count = 0;
+				int start = i;
+				while (i < read) {
+					state = end.next(state, buffer[i++]);
+					if (end.getMatch(state) != -1) {
+						sb.append(buffer, start, i - start);
+						return sb.substring(0,
+								sb.length() - endIndex.length());
+					}
 				}
+				sb.append(buffer, start, read - start);
 			}
 
 		} catch (UnsupportedEncodingException e) {
@@ -355,6 +405,52 @@ public final class CommonUtils {
 		}
 	}
 
+	private static int initialSize(int sizeHint) {
+		// one extra byte so a correct hint ends on EOF instead of growing
+		return sizeHint < 0 ? 8 * 1024 : Math.min(sizeHint, MAX_SIZE_HINT) + 1;
+	}
+
+	/**
+	 * Reads stream into buffer, growing it if full.
+	 * 
+	 * @return buffer with bytes read, from 0 to limit
+	 */
+	private static ByteBuffer read(InputStream inputStream, byte[] buffer)
+			throws IOException {
+		int length = 0;
+		int read;
+		while ((read = inputStream.read(buffer, length, buffer.length
+				- length)) != -1) {
+			length += read;
+			if (length == buffer.length) buffer = Arrays.copyOf(buffer,
+					buffer.length << 1);
+		}
+		return ByteBuffer.wrap(buffer, 0, length);
+	}
+
+	private static CharBuffer decode(ByteBuffer bytes, String charset)
+			throws CharacterCodingException {
+		CharsetDecoder decoder = DECODER.get();
+		if (decoder == null
+				|| !decoder.charset().name().equalsIgnoreCase(charset)
+				&& !decoder.charset().aliases().contains(charset)) {
+			decoder = Charset.forName(charset).newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			DECODER.set(decoder);
+		}
+
+		CharBuffer chars = CharBuffer.allocate((int) Math.ceil(bytes
+				.remaining() * (double) decoder.maxCharsPerByte()));
+		decoder.reset();
+		CoderResult result = decoder.decode(bytes, chars, true);
+		if (!result.isUnderflow()) result.throwException();
+		result = decoder.flush(chars);
+		if (!result.isUnderflow()) result.throwException();
+		chars.flip();
+		return chars;
+	}
+
 	private static boolean isWhiteSpace(char ch) {
 		if ('\u00A0' == ch) return true;
 		else if ('\u2007' == ch) return true;
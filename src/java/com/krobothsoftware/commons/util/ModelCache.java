@@ -0,0 +1,413 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Size bounded cache of loaded values which expire after a time to live.
+ * Least recently used values are evicted first.
+ * 
+ * <p>
+ * Expired values may still be served in two cases:
+ * <ul>
+ * <li><b>Stale while revalidate</b>. For a while after expiring, a value is
+ * returned right away while one background load on the executor replaces
+ * it.</li>
+ * <li><b>Stale if error</b>. For a while after expiring, a value is returned
+ * instead of the exception if loading fails, such as while a service is under
+ * maintenance.</li>
+ * </ul>
+ * </p>
+ * 
+ * <p>
+ * Values may be kept off heap in direct buffers. They are then serialized
+ * when stored and deserialized on each get, so each caller gets its own copy.
+ * Null values are cached like any other value.
+ * </p>
+ * 
+ * <pre>
+ * ModelCache&lt;String, PsnProfile&gt; profiles = new ModelCache&lt;String, PsnProfile&gt;(
+ * 		1024, 10, TimeUnit.MINUTES);
+ * profiles.setStaleWhileRevalidate(5, TimeUnit.MINUTES, executor);
+ * PsnProfile profile = profiles.get(jid, loader);
+ * </pre>
+ * 
+ * <p>
+ * Cache is thread safe. Loads aren't done while holding the cache's lock, so
+ * the same key may be loaded by more than one thread at once.
+ * </p>
+ * 
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ * @param <K>
+ *            key type
+ * @param <V>
+ *            value type
+ */
+public final class ModelCache<K, V> {
+	private final Logger log = LoggerFactory.getLogger(ModelCache.class);
+
+	private final LinkedHashMap<K, Entry> entries = new LinkedHashMap<K, Entry>(
+			16, 0.75f, true);
+	private final ConcurrentMap<K, Boolean> refreshing = new ConcurrentHashMap<K, Boolean>();
+	private volatile int maxSize;
+	private volatile long ttl;
+	private volatile long staleWhileRevalidate;
+	private volatile long staleIfError;
+	private volatile Executor executor;
+	private volatile boolean offHeap;
+
+	/**
+	 * Loads values missing from cache.
+	 * 
+	 * @author Kyle Kroboth
+	 * @since SNC 1.0.2
+	 * @param <K>
+	 *            key type
+	 * @param <V>
+	 *            value type
+	 */
+	public interface Loader<K, V> {
+
+		/**
+		 * Loads value of key.
+		 * 
+		 * @param key
+		 *            key to load
+		 * @return value, may be null
+		 * @throws Exception
+		 *             if value couldn't be loaded
+		 * @since SNC 1.0.2
+		 */
+		V load(K key) throws Exception;
+
+	}
+
+	/**
+	 * Creates new cache.
+	 * 
+	 * @param maxSize
+	 *            maximum number of values
+	 * @param ttl
+	 *            time a value is fresh for
+	 * @param unit
+	 *            unit of ttl
+	 * @throws IllegalArgumentException
+	 *             if maxSize isn't positive or ttl is negative
+	 * @since SNC 1.0.2
+	 */
+	public ModelCache(int maxSize, long ttl, TimeUnit unit) {
+		setMaxSize(maxSize);
+		setTtl(ttl, unit);
+	}
+
+	/**
+	 * Gets value of key, loading it if missing or expired.
+	 * 
+	 * @param key
+	 *            key of value
+	 * @param loader
+	 *            loads value if needed
+	 * @return value
+	 * @throws Exception
+	 *             exception thrown by loader, if no value could be served
+	 *             instead
+	 * @since SNC 1.0.2
+	 */
+	public V get(K key, Loader<? super K, ? extends V> loader)
+			throws Exception {
+		long now = System.nanoTime();
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+
+		if (entry != null) {
+			long age = now - entry.loaded;
+			if (age < ttl) return value(entry);
+			Executor exec = executor;
+			if (exec != null && age - ttl < staleWhileRevalidate) {
+				refresh(key, loader, exec);
+				return value(entry);
+			}
+		}
+
+		V value;
+		try {
+			value = loader.load(key);
+		} catch (Exception e) {
+			if (entry == null || now - entry.loaded - ttl >= staleIfError) throw e;
+			log.warn("Serving stale value of [{}] after error: {}", key,
+					e.toString());
+			return value(entry);
+		}
+		put(key, value);
+		return value;
+	}
+
+	/**
+	 * Gets value of key if it is cached and fresh.
+	 * 
+	 * @param key
+	 *            key of value
+	 * @return value, or null if missing or expired
+	 * @since SNC 1.0.2
+	 */
+	public V getIfPresent(K key) {
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(key);
+		}
+		if (entry == null || System.nanoTime() - entry.loaded >= ttl) return null;
+		return value(entry);
+	}
+
+	/**
+	 * Puts fresh value of key, evicting least recently used values if cache
+	 * is full.
+	 * 
+	 * @param key
+	 *            key of value
+	 * @param value
+	 *            value, may be null
+	 * @throws IllegalArgumentException
+	 *             if cache is off heap and value isn't serializable
+	 * @since SNC 1.0.2
+	 */
+	public void put(K key, V value) {
+		Entry entry = offHeap ? new Entry(serialize(value), true) : new Entry(
+				value, false);
+		synchronized (entries) {
+			entries.put(key, entry);
+			Iterator<Entry> iterator = entries.values().iterator();
+			for (int over = entries.size() - maxSize; over > 0; over--) {
+				iterator.next();
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Removes value of key.
+	 * 
+	 * @param key
+	 *            key of value
+	 * @since SNC 1.0.2
+	 */
+	public void invalidate(K key) {
+		synchronized (entries) {
+			entries.remove(key);
+		}
+	}
+
+	/**
+	 * Removes all values.
+	 * 
+	 * @since SNC 1.0.2
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Gets number of values, including expired ones not yet replaced.
+	 * 
+	 * @return size
+	 * @since SNC 1.0.2
+	 */
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Sets maximum number of values. Takes effect on next put.
+	 * 
+	 * @param maxSize
+	 *            maximum number of values
+	 * @throws IllegalArgumentException
+	 *             if maxSize isn't positive
+	 * @since SNC 1.0.2
+	 */
+	public void setMaxSize(int maxSize) {
+		if (maxSize < 1) throw new IllegalArgumentException(
+				"Max size must be positive");
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Sets time a value is fresh for after it is loaded.
+	 * 
+	 * @param ttl
+	 *            time to live
+	 * @param unit
+	 *            unit of ttl
+	 * @throws IllegalArgumentException
+	 *             if ttl is negative
+	 * @since SNC 1.0.2
+	 */
+	public void setTtl(long ttl, TimeUnit unit) {
+		this.ttl = nanos(ttl, unit);
+	}
+
+	/**
+	 * Sets time an expired value is still served while it is reloaded in the
+	 * background. Only one reload of a key runs at a time.
+	 * 
+	 * @param time
+	 *            time after value expires, or 0 to always load in caller
+	 * @param unit
+	 *            unit of time
+	 * @param executor
+	 *            runs background loads, or null to always load in caller
+	 * @throws IllegalArgumentException
+	 *             if time is negative
+	 * @since SNC 1.0.2
+	 */
+	public void setStaleWhileRevalidate(long time, TimeUnit unit,
+			Executor executor) {
+		staleWhileRevalidate = nanos(time, unit);
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets time an expired value is served instead of a failed load.
+	 * 
+	 * @param time
+	 *            time after value expires, or 0 to always throw
+	 * @param unit
+	 *            unit of time
+	 * @throws IllegalArgumentException
+	 *             if time is negative
+	 * @since SNC 1.0.2
+	 */
+	public void setStaleIfError(long time, TimeUnit unit) {
+		staleIfError = nanos(time, unit);
+	}
+
+	/**
+	 * Sets whether values are serialized into direct buffers instead of kept
+	 * on the heap. Only affects values put afterwards.
+	 * 
+	 * @param offHeap
+	 *            true, to keep values off heap
+	 * @since SNC 1.0.2
+	 */
+	public void setOffHeap(boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+
+	private void refresh(final K key,
+			final Loader<? super K, ? extends V> loader, Executor exec) {
+		if (refreshing.putIfAbsent(key, Boolean.TRUE) != null) return;
+		try {
+			exec.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						put(key, loader.load(key));
+					} catch (Exception e) {
+						// stale value stays until it can't be served
+						log.debug("Refresh of [{}] failed: {}", key,
+								e.toString());
+					} finally {
+						refreshing.remove(key);
+					}
+				}
+
+			});
+		} catch (RejectedExecutionException e) {
+			refreshing.remove(key);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private V value(Entry entry) {
+		if (!entry.serialized) return (V) entry.value;
+		ByteBuffer buffer = ((ByteBuffer) entry.value).duplicate();
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		ObjectInputStream in = null;
+		try {
+			in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+			return (V) in.readObject();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cached value can't be read", e);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException("Cached value can't be read", e);
+		} finally {
+			CommonUtils.closeQuietly(in);
+		}
+	}
+
+	private static ByteBuffer serialize(Object value) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = null;
+		try {
+			out = new ObjectOutputStream(bytes);
+			out.writeObject(value);
+			out.flush();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Value isn't serializable", e);
+		} finally {
+			CommonUtils.closeQuietly(out);
+		}
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.size());
+		buffer.put(bytes.toByteArray()).flip();
+		return buffer;
+	}
+
+	private static long nanos(long time, TimeUnit unit) {
+		if (time < 0) throw new IllegalArgumentException(
+				"Time may not be negative");
+		return unit.toNanos(time);
+	}
+
+	private static final class Entry {
+		final Object value;
+		final boolean serialized;
+		final long loaded = System.nanoTime();
+
+		Entry(Object value, boolean serialized) {
+			this.value = value;
+			this.serialized = serialized;
+		}
+
+	}
+
+}
@@ -0,0 +1,216 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Matches several strings at once in a single pass over characters, using an
+ * Aho-Corasick automaton. Unlike restarting a counter on each mismatch,
+ * overlapping and partially repeated prefixes are matched correctly. Matchers
+ * are immutable, so they may be kept as constants and shared by threads.
+ * 
+ * <pre>
+ * StringMatcher matcher = new StringMatcher(&quot;Incorrect&quot;, &quot;maintenance&quot;);
+ * int state = StringMatcher.START;
+ * for (char c : text) {
+ * 	state = matcher.next(state, c);
+ * 	if (matcher.getMatch(state) != -1) break;
+ * }
+ * </pre>
+ * 
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ * @see CommonUtils#streamingContains(java.io.InputStream, String,
+ *      StringMatcher)
+ */
+public final class StringMatcher {
+
+	/**
+	 * State before any character is read.
+	 * 
+	 * @since SNC 1.0.2
+	 */
+	public static final int START = 0;
+
+	private final String[] patterns;
+	// sorted distinct characters of patterns, index is the column in delta
+	private final char[] alphabet;
+	private final int[] asciiColumn;
+	private final int[][] delta;
+	private final int[] match;
+
+	/**
+	 * Creates matcher for patterns.
+	 * 
+	 * @param patterns
+	 *            strings to find. Index of each is returned on a match.
+	 * @throws IllegalArgumentException
+	 *             if no patterns are given or one is empty
+	 * @since SNC 1.0.2
+	 */
+	public StringMatcher(String... patterns) {
+		if (patterns.length == 0) throw new IllegalArgumentException(
+				"At least one pattern is required");
+		this.patterns = patterns.clone();
+
+		StringBuilder chars = new StringBuilder();
+		int states = 1;
+		for (String pattern : patterns) {
+			if (pattern.length() == 0) throw new IllegalArgumentException(
+					"Pattern is empty");
+			chars.append(pattern);
+			states += pattern.length();
+		}
+		char[] sorted = chars.toString().toCharArray();
+		Arrays.sort(sorted);
+		int count = 0;
+		for (int i = 0; i < sorted.length; i++)
+			if (i == 0 || sorted[i] != sorted[i - 1]) sorted[count++] = sorted[i];
+		alphabet = Arrays.copyOf(sorted, count);
+		asciiColumn = new int[128];
+		Arrays.fill(asciiColumn, -1);
+		for (int i = 0; i < count; i++)
+			if (alphabet[i] < 128) asciiColumn[alphabet[i]] = i;
+
+		// trie, -1 is a missing edge
+		int[][] trie = new int[states][count];
+		int[] own = new int[states];
+		Arrays.fill(own, -1);
+		for (int[] row : trie)
+			Arrays.fill(row, -1);
+		int size = 1;
+		for (int p = 0; p < patterns.length; p++) {
+			int state = START;
+			for (int i = 0; i < patterns[p].length(); i++) {
+				int column = column(patterns[p].charAt(i));
+				if (trie[state][column] == -1) trie[state][column] = size++;
+				state = trie[state][column];
+			}
+			if (own[state] == -1) own[state] = p;
+		}
+
+		// breadth first, so failure state of each state is already complete
+		delta = new int[size][];
+		match = new int[size];
+		int[] fail = new int[size];
+		ArrayList<Integer> queue = new ArrayList<Integer>(size);
+		delta[START] = new int[count];
+		match[START] = -1;
+		for (int c = 0; c < count; c++) {
+			int child = trie[START][c];
+			if (child == -1) continue;
+			delta[START][c] = child;
+			fail[child] = START;
+			queue.add(child);
+		}
+		for (int q = 0; q < queue.size(); q++) {
+			int state = queue.get(q);
+			int failure = fail[state];
+			delta[state] = new int[count];
+			match[state] = lowest(own[state], match[failure]);
+			for (int c = 0; c < count; c++) {
+				int child = trie[state][c];
+				if (child == -1) {
+					delta[state][c] = delta[failure][c];
+				} else {
+					delta[state][c] = child;
+					fail[child] = delta[failure][c];
+					queue.add(child);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets state after reading character.
+	 * 
+	 * @param state
+	 *            current state, {@link #START} for first character
+	 * @param c
+	 *            character read
+	 * @return next state
+	 * @since SNC 1.0.2
+	 */
+	public int next(int state, char c) {
+		int column = column(c);
+		return column == -1 ? START : delta[state][column];
+	}
+
+	/**
+	 * Gets pattern ending at state. If more than one ends there, the lowest
+	 * index is returned.
+	 * 
+	 * @param state
+	 * @return index of pattern, or -1 if none
+	 * @since SNC 1.0.2
+	 */
+	public int getMatch(int state) {
+		return match[state];
+	}
+
+	/**
+	 * Gets pattern of index.
+	 * 
+	 * @param index
+	 * @return pattern
+	 * @since SNC 1.0.2
+	 */
+	public String getPattern(int index) {
+		return patterns[index];
+	}
+
+	/**
+	 * Reads until first pattern is found. Reading stops at the match, so rest
+	 * of reader isn't consumed past the buffer holding it.
+	 * 
+	 * @param reader
+	 *            characters to search
+	 * @return index of first pattern found, or -1 if none
+	 * @throws IOException
+	 * @since SNC 1.0.2
+	 */
+	public int find(Reader reader) throws IOException {
+		char[] buffer = new char[2048];
+		int state = START;
+		int read;
+		while ((read = reader.read(buffer)) != -1) {
+			for (int i = 0; i < read; i++) {
+				state = next(state, buffer[i]);
+				if (match[state] != -1) return match[state];
+			}
+		}
+		return -1;
+	}
+
+	private int column(char c) {
+		if (c < 128) return asciiColumn[c];
+		int column = Arrays.binarySearch(alphabet, c);
+		return column < 0 ? -1 : column;
+	}
+
+	private static int lowest(int a, int b) {
+		if (a == -1) return b;
+		if (b == -1) return a;
+		return Math.min(a, b);
+	}
+
+}
@@ -0,0 +1,138 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.commons.util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded pool for deduplicating strings which repeat across many parsed
+ * objects, such as ids. Unlike {@link String#intern()}, the pool never grows
+ * past its capacity and pooled strings may be collected once replaced.
+ * 
+ * <p>
+ * Pool is a direct mapped table. Each string hashes to one slot, and a new
+ * string replaces whatever was in its slot, so a miss only costs the caller
+ * its own copy. Lookups don't lock, so a pool may be shared by threads.
+ * </p>
+ * 
+ * <pre>
+ * builder.setGameId(pool.intern(attributes.getValue(&quot;npcommid&quot;)));
+ * </pre>
+ * 
+ * @author Kyle Kroboth
+ * @since SNC 1.0.2
+ */
+public final class StringPool {
+	private final AtomicReferenceArray<String> table;
+	private final int mask;
+
+	/**
+	 * Creates new pool.
+	 * 
+	 * @param capacity
+	 *            maximum number of strings, rounded up to a power of two
+	 * @throws IllegalArgumentException
+	 *             if capacity isn't positive or is over 2^30
+	 * @since SNC 1.0.2
+	 */
+	public StringPool(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30) throw new IllegalArgumentException(
+				"Invalid capacity: " + capacity);
+		int size = 1;
+		while (size < capacity)
+			size <<= 1;
+		table = new AtomicReferenceArray<String>(size);
+		mask = size - 1;
+	}
+
+	/**
+	 * Gets pooled string equal to string, adding it if not found.
+	 * 
+	 * @param str
+	 *            string, may be null
+	 * @return pooled string, or null if string is null
+	 * @since SNC 1.0.2
+	 */
+	public String intern(String str) {
+		if (str == null) return null;
+		int slot = spread(str.hashCode()) & mask;
+		String pooled = table.get(slot);
+		if (pooled != null && pooled.equals(str)) return pooled;
+		table.lazySet(slot, str);
+		return str;
+	}
+
+	/**
+	 * Gets pooled string with characters, only creating a string if not
+	 * found.
+	 * 
+	 * @param ch
+	 *            characters
+	 * @param start
+	 *            start offset
+	 * @param length
+	 *            number of characters
+	 * @return pooled string
+	 * @since SNC 1.0.2
+	 */
+	public String intern(char[] ch, int start, int length) {
+		int h = 0;
+		for (int i = start, end = start + length; i < end; i++)
+			h = 31 * h + ch[i];
+		int slot = spread(h) & mask;
+		String pooled = table.get(slot);
+		if (pooled != null && matches(pooled, ch, start, length)) return pooled;
+		String str = new String(ch, start, length);
+		table.lazySet(slot, str);
+		return str;
+	}
+
+	/**
+	 * Gets maximum number of strings pool holds.
+	 * 
+	 * @return capacity
+	 * @since SNC 1.0.2
+	 */
+	public int capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Removes all strings from pool.
+	 * 
+	 * @since SNC 1.0.2
+	 */
+	public void clear() {
+		for (int i = 0; i <= mask; i++)
+			table.lazySet(i, null);
+	}
+
+	private static boolean matches(String str, char[] ch, int start,
+			int length) {
+		if (str.length() != length) return false;
+		for (int i = 0; i < length; i++)
+			if (str.charAt(i) != ch[start + i]) return false;
+		return true;
+	}
+
+	// mix high bits in, since only the low bits pick a slot
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+
+}
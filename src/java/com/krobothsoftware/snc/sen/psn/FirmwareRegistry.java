@@ -0,0 +1,386 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.snc.sen.psn;
+
+import static com.krobothsoftware.commons.network.Method.GET;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Properties;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.krobothsoftware.commons.network.NetworkHelper;
+import com.krobothsoftware.commons.network.RequestBuilder;
+import com.krobothsoftware.commons.network.Response;
+import com.krobothsoftware.commons.util.CommonUtils;
+import com.krobothsoftware.snc.sen.Platform;
+
+/**
+ * Current firmware version of each platform, as sent in <i>Official</i>
+ * payloads. Versions are read without locking, so payload builders may call
+ * {@link #get(Platform)} for every request.
+ * 
+ * <p>
+ * Versions are refreshed from Sony's update lists, either on demand with
+ * {@link #refresh(Platform)} or on a schedule with
+ * {@link #start(ScheduledExecutorService, long, TimeUnit)}. Requests are
+ * conditional. The ETag and Last-Modified of the last list read are sent
+ * back, so an unchanged list isn't downloaded again.
+ * </p>
+ * 
+ * <p>
+ * Versions and validators may be saved with {@link #store(File)} and seeded
+ * with {@link #load(File)}, so startup doesn't need a request.
+ * </p>
+ * 
+ * <pre>
+ * FirmwareRegistry firmware = psn.getFirmwareRegistry();
+ * firmware.load(file);
+ * firmware.start(scheduler, 12, TimeUnit.HOURS);
+ * </pre>
+ * 
+ * @author Kyle Kroboth
+ * @since SEN-PSN 1.0.1
+ * @see PlaystationNetwork#setFirmwareRegistry(FirmwareRegistry)
+ */
+public class FirmwareRegistry {
+
+	/**
+	 * Default PS3 firmware version of new registries.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final String DEFAULT_PS3_VERSION = "4.41";
+
+	private static final Pattern VITA_VERSION = Pattern
+			.compile("label=\"(\\S+)\">");
+
+	private final Logger log = LoggerFactory.getLogger(FirmwareRegistry.class);
+	private final int count = Platform.values().length;
+	private final AtomicReferenceArray<String> versions = new AtomicReferenceArray<String>(
+			count);
+	private final AtomicReferenceArray<String> etags = new AtomicReferenceArray<String>(
+			count);
+	private final AtomicReferenceArray<String> lastModified = new AtomicReferenceArray<String>(
+			count);
+	private final NetworkHelper networkHelper;
+	private ScheduledFuture<?> schedule;
+
+	/**
+	 * Creates new registry with its own network helper.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public FirmwareRegistry() {
+		this(new NetworkHelper());
+	}
+
+	/**
+	 * Creates new registry. PS3 version is seeded from
+	 * {@link PlaystationNetwork#PS3_FIRMWARE_VERSION}.
+	 * 
+	 * @param networkHelper
+	 *            network helper for update list requests
+	 * @since SEN-PSN 1.0.1
+	 */
+	@SuppressWarnings("deprecation")
+	public FirmwareRegistry(NetworkHelper networkHelper) {
+		this.networkHelper = networkHelper;
+		String ps3 = PlaystationNetwork.PS3_FIRMWARE_VERSION;
+		versions.set(Platform.PS3.ordinal(), ps3 != null ? ps3
+				: DEFAULT_PS3_VERSION);
+	}
+
+	/**
+	 * Gets firmware version of platform.
+	 * 
+	 * @param platform
+	 *            platform
+	 * @return version, or null if not known
+	 * @since SEN-PSN 1.0.1
+	 */
+	public String get(Platform platform) {
+		return versions.get(platform.ordinal());
+	}
+
+	/**
+	 * Sets firmware version of platform.
+	 * 
+	 * @param platform
+	 *            platform
+	 * @param version
+	 *            version, such as <code>"4.41"</code>
+	 * @throws IllegalArgumentException
+	 *             if version is null
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void set(Platform platform, String version) {
+		if (version == null) throw new IllegalArgumentException(
+				"Version may not be null");
+		versions.set(platform.ordinal(), version);
+	}
+
+	/**
+	 * Requests update list of platform if it changed since last read, and
+	 * updates version.
+	 * 
+	 * <p>
+	 * Connections made
+	 * 
+	 * <pre>
+	 * (PS3) http://fus01.ps3.update.playstation.net/update/ps3/list/us/ps3-updatelist.txt
+	 * (VITA) http://fus01.psp2.update.playstation.net/update/psp2/list/us/psp2-updatelist.xml
+	 * (PSP) http://fu01.psp.update.playstation.org/update/psp/list2/us/psp-updatelist.txt
+	 * </pre>
+	 * 
+	 * </p>
+	 * 
+	 * @param platform
+	 *            platform to refresh
+	 * @return true, if list was read. False if it didn't change
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred, or version
+	 *             wasn't found in list.
+	 * @throws IllegalArgumentException
+	 *             if platform is invalid, UNKNOWN
+	 * @throws UnsupportedOperationException
+	 *             if platform is PS4
+	 * @since SEN-PSN 1.0.1
+	 */
+	@SuppressWarnings("resource")
+	public boolean refresh(Platform platform) throws IOException {
+		int i = platform.ordinal();
+		Response response = null;
+		log.debug("refresh [{}] - Entering", platform);
+		try {
+			RequestBuilder builder = new RequestBuilder(GET,
+					getUpdateListUrl(platform))
+					.header("User-Agent", getUserAgent(platform))
+					.header("Accept-Encoding", "identity");
+			// validators only count once a version was read with them
+			if (versions.get(i) != null) {
+				if (etags.get(i) != null) builder.header("If-None-Match",
+						etags.get(i));
+				if (lastModified.get(i) != null) builder.header(
+						"If-Modified-Since", lastModified.get(i));
+			}
+			response = builder.execute(networkHelper);
+			if (response.getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) return false;
+			if (!response.isSuccessful()) throw new IOException(
+					"Update list returned " + response.getStatusCode());
+
+			String version = parseVersion(platform, Response.toString(response));
+			versions.set(i, version);
+			etags.set(i, response.getHeader("ETag"));
+			lastModified.set(i, response.getHeader("Last-Modified"));
+			log.debug("Firmware of [{}] is {}", platform, version);
+			return true;
+		} finally {
+			CommonUtils.closeQuietly(response);
+			log.debug("refresh - Exiting");
+		}
+	}
+
+	/**
+	 * Refreshes PS3, VITA and PSP versions every period on executor, starting
+	 * now. Failed refreshes are logged and tried again next period. Replaces
+	 * any previous schedule.
+	 * 
+	 * @param executor
+	 *            executor to schedule refreshes on
+	 * @param period
+	 *            time between refreshes
+	 * @param unit
+	 *            unit of period
+	 * @since SEN-PSN 1.0.1
+	 */
+	public synchronized void start(ScheduledExecutorService executor,
+			long period, TimeUnit unit) {
+		stop();
+		schedule = executor.scheduleWithFixedDelay(new Runnable() {
+
+			@Override
+			public void run() {
+				for (Platform platform : Platform.validValues()) {
+					try {
+						refresh(platform);
+					} catch (Exception e) {
+						// thrown exceptions would cancel schedule
+						log.warn("Couldn't refresh firmware of [{}]: {}",
+								platform, e.toString());
+					}
+				}
+			}
+
+		}, 0, period, unit);
+	}
+
+	/**
+	 * Stops scheduled refreshes, if started.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public synchronized void stop() {
+		if (schedule == null) return;
+		schedule.cancel(false);
+		schedule = null;
+	}
+
+	/**
+	 * Seeds versions and validators from file written by
+	 * {@link #store(File)}.
+	 * 
+	 * @param file
+	 *            properties file
+	 * @return true, if file was read. False if it doesn't exist
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @since SEN-PSN 1.0.1
+	 */
+	public boolean load(File file) throws IOException {
+		if (!file.isFile()) return false;
+		Properties properties = new Properties();
+		InputStream in = new FileInputStream(file);
+		try {
+			properties.load(in);
+		} finally {
+			CommonUtils.closeQuietly(in);
+		}
+
+		for (Platform platform : Platform.values()) {
+			String key = platform.getTypeString();
+			String version = properties.getProperty(key);
+			if (version == null) continue;
+			int i = platform.ordinal();
+			versions.set(i, version);
+			etags.set(i, properties.getProperty(key + ".etag"));
+			lastModified.set(i, properties.getProperty(key + ".lastModified"));
+		}
+		return true;
+	}
+
+	/**
+	 * Saves known versions and validators to file.
+	 * 
+	 * @param file
+	 *            properties file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void store(File file) throws IOException {
+		Properties properties = new Properties();
+		for (Platform platform : Platform.values()) {
+			int i = platform.ordinal();
+			String version = versions.get(i);
+			if (version == null) continue;
+			String key = platform.getTypeString();
+			properties.setProperty(key, version);
+			if (etags.get(i) != null) properties.setProperty(key + ".etag",
+					etags.get(i));
+			if (lastModified.get(i) != null) properties.setProperty(key
+					+ ".lastModified", lastModified.get(i));
+		}
+
+		OutputStream out = new FileOutputStream(file);
+		try {
+			properties.store(out, "Firmware versions");
+		} finally {
+			CommonUtils.closeQuietly(out);
+		}
+	}
+
+	static URL getUpdateListUrl(Platform platform) throws IOException {
+		checkPlatform(platform);
+		return new URL(String.format(
+				"http://%s.%s.update.playstation.%s/update/%s/%s/us/%s-updatelist.%s",
+				platform == Platform.PSP ? "fu01" : "fus01",
+				platform.getTypeString(),
+				platform == Platform.PSP ? "org" : "net",
+				platform.getTypeString(),
+				platform == Platform.PSP ? "list2" : "list",
+				platform.getTypeString(),
+				platform == Platform.VITA ? "xml" : "txt"));
+	}
+
+	static String getUserAgent(Platform platform) {
+		checkPlatform(platform);
+		switch (platform) {
+			case VITA:
+				return PlaystationNetwork.AGENT_VITA_LIBHTTP;
+			case PSP:
+				return PlaystationNetwork.AGENT_PSP_UPDATE;
+			default:
+				return PlaystationNetwork.AGENT_PS3_UPDATE;
+		}
+	}
+
+	static String parseVersion(Platform platform, String data)
+			throws IOException {
+		checkPlatform(platform);
+		switch (platform) {
+			case PS3:
+				for (String part : data.split(";")) {
+					int equals = part.indexOf('=');
+					if (equals != -1
+							&& part.substring(0, equals).equalsIgnoreCase(
+									"SystemSoftwareVersion")) return part
+							.substring(equals + 1, part.length() - 2);
+				}
+				break;
+			case VITA:
+				Matcher matcher = VITA_VERSION.matcher(data);
+				if (matcher.find()) return matcher.group(1);
+				break;
+			default:
+				int start = data.indexOf("#SystemSoftwareVersion=");
+				if (start != -1) return data.substring(start + 23,
+						data.indexOf(";", start + 23));
+				break;
+		}
+		throw new IOException("Firmware version of " + platform
+				+ " not found in update list");
+	}
+
+	private static void checkPlatform(Platform platform) {
+		switch (platform) {
+			case PS4:
+				throw new UnsupportedOperationException("PS4 not supported");
+			case UNKNOWN:
+				throw new IllegalArgumentException(
+						"Platform may not be UNKNOWN");
+			default:
+				break;
+		}
+	}
+
+}
@@ -0,0 +1,363 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.snc.sen.psn;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches jids of psnIds, which rarely change. Found jids are kept for a long
+ * time and psnIds which don't exist for a short time, so a new account isn't
+ * missed for long. A psnId is only cached as not existing when the service
+ * answered with a search result without a jid. Failed requests, maintenance
+ * pages and truncated responses throw an <code>IOException</code> and
+ * nothing is cached. Set on a client with
+ * {@link PlaystationNetwork#setJidResolver(JidResolver)} so
+ * {@link PlaystationNetwork#getOfficialJid(String)} and login use it.
+ * 
+ * <p>
+ * PsnIds are compared ignoring case. Only one request is made for a psnId
+ * at a time; other threads asking for it wait for its result.
+ * {@link #resolveJids(Collection)} requests all misses at once on the
+ * executor.
+ * </p>
+ * 
+ * <pre>
+ * JidResolver resolver = new JidResolver(psn, executor);
+ * psn.setJidResolver(resolver);
+ * Map&lt;String, String&gt; jids = resolver.resolveJids(psnIds);
+ * </pre>
+ * 
+ * <p>
+ * Resolver is thread safe. Once over capacity, expired entries are removed
+ * first, then any entries until a quarter of capacity is free.
+ * </p>
+ * 
+ * @author Kyle Kroboth
+ * @since SEN-PSN 1.0.1
+ */
+public class JidResolver {
+
+	/**
+	 * Default maximum number of cached psnIds.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+
+	/**
+	 * Default time to live of found jids, in minutes.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final long DEFAULT_TTL = 7 * 24 * 60;
+
+	/**
+	 * Default time to live of psnIds which weren't found, in minutes.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final long DEFAULT_NEGATIVE_TTL = 10;
+
+	private final Logger log = LoggerFactory.getLogger(JidResolver.class);
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private final ConcurrentMap<String, FutureTask<String>> pending = new ConcurrentHashMap<String, FutureTask<String>>();
+	private final PlaystationNetwork psn;
+	private final Executor executor;
+	private volatile int capacity = DEFAULT_CAPACITY;
+	private volatile long ttl = TimeUnit.MINUTES.toNanos(DEFAULT_TTL);
+	private volatile long negativeTtl = TimeUnit.MINUTES
+			.toNanos(DEFAULT_NEGATIVE_TTL);
+
+	/**
+	 * Creates new resolver.
+	 * 
+	 * @param psn
+	 *            network to request jids with
+	 * @param executor
+	 *            runs requests of {@link #resolveJids(Collection)}, or null
+	 *            to make them one at a time in caller
+	 * @since SEN-PSN 1.0.1
+	 */
+	public JidResolver(PlaystationNetwork psn, Executor executor) {
+		this.psn = psn;
+		this.executor = executor;
+	}
+
+	/**
+	 * Gets jid of psnId, requesting it if not cached.
+	 * 
+	 * @param psnId
+	 *            psn id
+	 * @return jid or null if not found
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @since SEN-PSN 1.0.1
+	 */
+	public String resolve(String psnId) throws IOException {
+		String key = key(psnId);
+		Entry entry = entries.get(key);
+		if (entry != null && !entry.isExpired()) return entry.jid;
+
+		FutureTask<String> task = newTask(key, psnId);
+		FutureTask<String> existing = pending.putIfAbsent(key, task);
+		if (existing == null) task.run();
+		else
+			task = existing;
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted resolving "
+					+ psnId);
+		} catch (ExecutionException e) {
+			throw unwrap(e);
+		}
+	}
+
+	/**
+	 * Gets jids of psnIds. PsnIds not cached are requested concurrently on
+	 * executor.
+	 * 
+	 * @param psnIds
+	 *            psn ids
+	 * @return jid of each psnId in given order, null if not found. PsnIds
+	 *         which failed to resolve aren't included.
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for requests
+	 * @since SEN-PSN 1.0.1
+	 */
+	public Map<String, String> resolveJids(Collection<String> psnIds)
+			throws InterruptedException {
+		Map<String, String> jids = new LinkedHashMap<String, String>(
+				psnIds.size() * 2);
+		List<String> misses = new ArrayList<String>();
+		List<FutureTask<String>> tasks = new ArrayList<FutureTask<String>>();
+		for (String psnId : psnIds) {
+			if (jids.containsKey(psnId)) continue;
+			String key = key(psnId);
+			Entry entry = entries.get(key);
+			// put keeps given order for misses too
+			jids.put(psnId, entry == null ? null : entry.jid);
+			if (entry != null && !entry.isExpired()) continue;
+
+			FutureTask<String> task = newTask(key, psnId);
+			FutureTask<String> existing = pending.putIfAbsent(key, task);
+			if (existing == null) start(task);
+			else
+				task = existing;
+			misses.add(psnId);
+			tasks.add(task);
+		}
+
+		for (int i = 0; i < tasks.size(); i++) {
+			String psnId = misses.get(i);
+			try {
+				jids.put(psnId, tasks.get(i).get());
+			} catch (ExecutionException e) {
+				log.warn("Couldn't resolve jid of [{}]: {}", psnId, e
+						.getCause().toString());
+				jids.remove(psnId);
+			}
+		}
+		return jids;
+	}
+
+	/**
+	 * Caches jid of psnId, such as one found at login.
+	 * 
+	 * @param psnId
+	 *            psn id
+	 * @param jid
+	 *            jid, or null if psnId doesn't exist
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void put(String psnId, String jid) {
+		cache(key(psnId), jid);
+	}
+
+	/**
+	 * Removes cached jid of psnId.
+	 * 
+	 * @param psnId
+	 *            psn id
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void invalidate(String psnId) {
+		entries.remove(key(psnId));
+	}
+
+	/**
+	 * Removes all cached jids.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Gets number of cached psnIds, including expired ones.
+	 * 
+	 * @return size
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Sets maximum number of cached psnIds.
+	 * 
+	 * @param capacity
+	 *            maximum number of psnIds
+	 * @throws IllegalArgumentException
+	 *             if capacity isn't positive
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void setCapacity(int capacity) {
+		if (capacity < 1) throw new IllegalArgumentException(
+				"Capacity must be positive");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Sets time to live of found jids. Only affects jids cached afterwards.
+	 * 
+	 * @param ttl
+	 *            time to live
+	 * @param unit
+	 *            unit of ttl
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void setTtl(long ttl, TimeUnit unit) {
+		this.ttl = unit.toNanos(ttl);
+	}
+
+	/**
+	 * Sets time to live of psnIds which weren't found. Only affects psnIds
+	 * cached afterwards.
+	 * 
+	 * @param ttl
+	 *            time to live
+	 * @param unit
+	 *            unit of ttl
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void setNegativeTtl(long ttl, TimeUnit unit) {
+		negativeTtl = unit.toNanos(ttl);
+	}
+
+	private FutureTask<String> newTask(final String key, final String psnId) {
+		return new FutureTask<String>(new Callable<String>() {
+
+			@Override
+			public String call() throws IOException {
+				String jid = psn.searchJid(psnId);
+				cache(key, jid);
+				return jid;
+			}
+
+		}) {
+
+			@Override
+			protected void done() {
+				pending.remove(key, this);
+			}
+
+		};
+	}
+
+	private void start(FutureTask<String> task) {
+		if (executor == null) {
+			task.run();
+			return;
+		}
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			task.run();
+		}
+	}
+
+	private void cache(String key, String jid) {
+		entries.put(key, new Entry(jid, jid == null ? negativeTtl : ttl));
+		if (entries.size() > capacity) evict();
+	}
+
+	private synchronized void evict() {
+		int max = capacity;
+		if (entries.size() <= max) return;
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (iterator.hasNext())
+			if (iterator.next().isExpired()) iterator.remove();
+		// still full of live entries, drop some
+		iterator = entries.values().iterator();
+		int target = max - (max >> 2);
+		while (entries.size() > target && iterator.hasNext()) {
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
+	private static String key(String psnId) {
+		return psnId.toLowerCase(Locale.ENGLISH);
+	}
+
+	private static IOException unwrap(ExecutionException e) {
+		Throwable cause = e.getCause();
+		if (cause instanceof IOException) return (IOException) cause;
+		if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+		if (cause instanceof Error) throw (Error) cause;
+		return new IOException(cause);
+	}
+
+	private static final class Entry {
+		final String jid;
+		final long expires;
+
+		Entry(String jid, long ttl) {
+			this.jid = jid;
+			expires = System.nanoTime() + ttl;
+		}
+
+		boolean isExpired() {
+			return System.nanoTime() - expires >= 0;
+		}
+
+	}
+
+}
@@ -4,12 +4,23 @@ import static com.krobothsoftware.commons.network.Method.GET;
 import static com.krobothsoftware.commons.network.Method.POST;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.krobothsoftware.commons.network.NetworkHelper;
 import com.krobothsoftware.commons.network.RequestBuilder;
@@ -25,9 +36,12 @@ import com.krobothsoftware.commons.network.value.CookieList;
 import com.krobothsoftware.commons.network.value.CookieMap;
 import com.krobothsoftware.commons.network.value.NameValuePair;
 import com.krobothsoftware.commons.parse.ParseException;
+import com.krobothsoftware.commons.parse.ResultCallback;
+import com.krobothsoftware.commons.progress.ConcurrentProgressMonitor;
 import com.krobothsoftware.commons.progress.ProgressListener;
 import com.krobothsoftware.commons.progress.ProgressMonitor;
 import com.krobothsoftware.commons.util.CommonUtils;
+import com.krobothsoftware.commons.util.StringMatcher;
 import com.krobothsoftware.snc.ClientException;
 import com.krobothsoftware.snc.ClientLoginException;
 import com.krobothsoftware.snc.TokenException;
@@ -43,6 +57,7 @@ import com.krobothsoftware.snc.sen.psn.internal.HandlerXmlFriend;
 import com.krobothsoftware.snc.sen.psn.internal.HandlerXmlGame;
 import com.krobothsoftware.snc.sen.psn.internal.HandlerXmlProfile;
 import com.krobothsoftware.snc.sen.psn.internal.HandlerXmlTrophy;
+import com.krobothsoftware.snc.sen.psn.internal.NpTrophyScanner;
 import com.krobothsoftware.snc.sen.psn.model.PsnFriend;
 import com.krobothsoftware.snc.sen.psn.model.PsnGame;
 import com.krobothsoftware.snc.sen.psn.model.PsnGameOfficial;
@@ -144,14 +159,24 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 * change.
 	 * 
 	 * @since SEN-PSN 1.0
+	 * @deprecated only seeds the PS3 version of new {@link FirmwareRegistry}
+	 *             instances. Use {@link FirmwareRegistry#set(Platform, String)}
+	 *             instead.
 	 */
-	public static String PS3_FIRMWARE_VERSION = "4.41";
+	@Deprecated
+	public static String PS3_FIRMWARE_VERSION = FirmwareRegistry.DEFAULT_PS3_VERSION;
 
 	/**
 	 * Ticket Id for US cookies.
 	 */
 	private static String PSN_TICKET_ID = "*";
 
+	/**
+	 * Keywords of a failed login page.
+	 */
+	private static final StringMatcher LOGIN_ERRORS = new StringMatcher(
+			"Incorrect", "maintenance");
+
 	/**
 	 * Sets PsnId for TICKET and PSNTICKET cookies. Will only take effect once
 	 * new client is initiated. Default value is <code>"*"</code>.
@@ -164,6 +189,9 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 		PSN_TICKET_ID = id;
 	}
 
+	private volatile JidResolver jidResolver;
+	private volatile FirmwareRegistry firmware;
+
 	/**
 	 * Creates new PlayStationNetwork client.
 	 * 
@@ -178,6 +206,7 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 */
 	public PlaystationNetwork() {
 		super(PlaystationNetwork.class.getName());
+		firmware = new FirmwareRegistry(networkHelper);
 		networkHelper.getCookieManager().putCookie(
 				PsnUtils.createCookieTicket(PSN_TICKET_ID), true);
 		networkHelper.getCookieManager().putCookie(
@@ -197,6 +226,55 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 
 	}
 
+	/**
+	 * Sets resolver used by {@link #getOfficialJid(String)}, including during
+	 * login. Resolvers may be shared by clients.
+	 * 
+	 * @param resolver
+	 *            resolver, or null to always request jids
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void setJidResolver(JidResolver resolver) {
+		jidResolver = resolver;
+	}
+
+	/**
+	 * Gets resolver used by {@link #getOfficialJid(String)}.
+	 * 
+	 * @return resolver, or null if not set
+	 * @since SEN-PSN 1.0.1
+	 */
+	public JidResolver getJidResolver() {
+		return jidResolver;
+	}
+
+	/**
+	 * Sets registry firmware versions of <i>Official</i> payloads are read
+	 * from. Registries may be shared by clients.
+	 * 
+	 * @param registry
+	 *            firmware registry
+	 * @throws IllegalArgumentException
+	 *             if registry is null
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void setFirmwareRegistry(FirmwareRegistry registry) {
+		if (registry == null) throw new IllegalArgumentException(
+				"Registry may not be null");
+		firmware = registry;
+	}
+
+	/**
+	 * Gets registry firmware versions of <i>Official</i> payloads are read
+	 * from. Each client has its own unless set.
+	 * 
+	 * @return firmware registry
+	 * @since SEN-PSN 1.0.1
+	 */
+	public FirmwareRegistry getFirmwareRegistry() {
+		return firmware;
+	}
+
 	/**
 	 * Performs a full login to UK account and quietly into US site.
 	 * 
@@ -632,10 +710,43 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 *             if friend psnId is invalid or psn is not available
 	 * @since SEN-PSN 1.0
 	 */
-	@SuppressWarnings("resource")
 	public List<PsnGame> getFriendGameList(PsnToken token, String friendPsnId)
 			throws IOException, TokenException, ClientException,
 			PlaystationNetworkException {
+		return loadFriendGameList(token, friendPsnId, null);
+	}
+
+	/**
+	 * Same as {@link #getFriendGameList(PsnToken, String)}, but gives each of
+	 * the games to callback as soon as it is parsed instead of returning a
+	 * list. Response isn't read any further while callback runs.
+	 * 
+	 * @param token
+	 *            psn login token
+	 * @param friendPsnId
+	 *            friend psn id
+	 * @param callback
+	 *            receives games in order. Return false to stop parsing
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws TokenException
+	 *             if token has expired or invalid
+	 * @throws ClientException
+	 *             if parser encountered an error
+	 * @throws PlaystationNetworkException
+	 *             if friend psnId is invalid or psn is not available
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void getFriendGameList(PsnToken token, String friendPsnId,
+			ResultCallback<? super PsnGame> callback) throws IOException,
+			TokenException, ClientException, PlaystationNetworkException {
+		loadFriendGameList(token, friendPsnId, callback);
+	}
+
+	@SuppressWarnings("resource")
+	private List<PsnGame> loadFriendGameList(PsnToken token, String friendPsnId,
+			ResultCallback<? super PsnGame> callback) throws IOException,
+			TokenException, ClientException, PlaystationNetworkException {
 		log.debug("getFriendGameList [{}] - Entering", friendPsnId);
 		Response response = null;
 		HandlerHtmlFriendGame handler;
@@ -653,7 +764,7 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 				throw new PlaystationNetworkException("Invalid friend PsnId");
 			}
 
-			handler = new HandlerHtmlFriendGame(friendPsnId);
+			handler = new HandlerHtmlFriendGame(friendPsnId, callback);
 			parser.parse(response.getStream(), handler, response.getCharset());
 		} catch (ParseException e) {
 			throw new ClientException(e);
@@ -697,10 +808,48 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 *             available
 	 * @since SEN-PSN 1.0
 	 */
-	@SuppressWarnings("resource")
 	public List<PsnTrophy> getFriendTrophyList(PsnToken token,
 			String friendPsnId, String titleLinkId) throws IOException,
 			TokenException, ClientException, PlaystationNetworkException {
+		return loadFriendTrophyList(token, friendPsnId, titleLinkId, null);
+	}
+
+	/**
+	 * Same as {@link #getFriendTrophyList(PsnToken, String, String)}, but gives
+	 * each of the trophies to callback as soon as it is parsed instead of
+	 * returning a list. Response isn't read any further while callback runs.
+	 * 
+	 * @param token
+	 *            psn login token
+	 * @param friendPsnId
+	 *            friend psn id
+	 * @param titleLinkId
+	 *            UK title link id
+	 * @param callback
+	 *            receives trophies in order. Return false to stop parsing
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws TokenException
+	 *             if token has expired or invalid
+	 * @throws ClientException
+	 *             if parser encountered an error
+	 * @throws PlaystationNetworkException
+	 *             if friend psnId or trophy link Id is invalid, or psn is not
+	 *             available
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void getFriendTrophyList(PsnToken token, String friendPsnId,
+			String titleLinkId, ResultCallback<? super PsnTrophy> callback)
+			throws IOException, TokenException, ClientException,
+			PlaystationNetworkException {
+		loadFriendTrophyList(token, friendPsnId, titleLinkId, callback);
+	}
+
+	@SuppressWarnings("resource")
+	private List<PsnTrophy> loadFriendTrophyList(PsnToken token,
+			String friendPsnId, String titleLinkId,
+			ResultCallback<? super PsnTrophy> callback) throws IOException,
+			TokenException, ClientException, PlaystationNetworkException {
 		log.debug("getFriendTrophyList [{}, {}] - Entering", friendPsnId,
 				titleLinkId);
 		Response response = null;
@@ -719,7 +868,7 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 						"Invalid friend PsnId or trophy link Id");
 			}
 
-			handler = new HandlerHtmlFriendTrophy(friendPsnId);
+			handler = new HandlerHtmlFriendTrophy(friendPsnId, callback);
 			parser.parse(response.getStream(), handler, response.getCharset());
 		} catch (ParseException e) {
 			throw new ClientException(e);
@@ -757,9 +906,71 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 *             if psn is not available
 	 * @since SEN-PSN 1.0
 	 */
-	@SuppressWarnings("resource")
 	public List<PsnGame> getGameList(PsnToken token) throws IOException,
 			TokenException, ClientException, PlaystationNetworkException {
+		return loadGameList(token, null, null, null);
+	}
+
+	/**
+	 * Same as {@link #getGameList(PsnToken)}, but gives each of the games to
+	 * callback as soon as it is parsed instead of returning a list. Response
+	 * isn't read any further while callback runs.
+	 * 
+	 * @param token
+	 *            psn login token
+	 * @param callback
+	 *            receives games in order. Return false to stop parsing
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws TokenException
+	 *             if token has expired or invalid
+	 * @throws ClientException
+	 *             if parser encountered an error
+	 * @throws PlaystationNetworkException
+	 *             if psn is not available
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void getGameList(PsnToken token,
+			ResultCallback<? super PsnGame> callback) throws IOException,
+			TokenException, ClientException, PlaystationNetworkException {
+		loadGameList(token, callback, null, null);
+	}
+
+	/**
+	 * Same as {@link #getGameList(PsnToken)}, but only builds games accepted
+	 * by filter and only reads requested fields.
+	 * 
+	 * @param token
+	 *            psn login token
+	 * @param filter
+	 *            selects games to keep, or null to keep all
+	 * @param fields
+	 *            text fields to read, or null for all. Fields not read are
+	 *            <code>null</code>
+	 * @return list of accepted games
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws TokenException
+	 *             if token has expired or invalid
+	 * @throws ClientException
+	 *             if parser encountered an error
+	 * @throws PlaystationNetworkException
+	 *             if psn is not available
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<PsnGame> getGameList(PsnToken token,
+			ResultFilter<? super PsnGame.Builder> filter, Set<PsnField> fields)
+			throws IOException, TokenException, ClientException,
+			PlaystationNetworkException {
+		return loadGameList(token, null, filter, fields);
+	}
+
+	@SuppressWarnings("resource")
+	private List<PsnGame> loadGameList(PsnToken token,
+			ResultCallback<? super PsnGame> callback,
+			ResultFilter<? super PsnGame.Builder> filter, Set<PsnField> fields)
+			throws IOException, TokenException, ClientException,
+			PlaystationNetworkException {
 		log.debug("getGameList - Entering");
 		Response response = null;
 		HandlerHtmlUKGame handler;
@@ -769,7 +980,8 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 					"http://uk.playstation.com/psn/mypsn/trophies/", null,
 					token.getCookies());
 
-			handler = new HandlerHtmlUKGame(token.getOnlineId());
+			handler = new HandlerHtmlUKGame(token.getOnlineId(), callback,
+					filter, fields);
 			parser.parse(response.getStream(), handler, response.getCharset());
 		} catch (ParseException e) {
 			throw new ClientException(e);
@@ -807,10 +1019,76 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 * @throws PlaystationNetworkException
 	 *             if trophy link id is invalid or psn is not available
 	 */
-	@SuppressWarnings("resource")
 	public List<PsnTrophy> getTrophyList(PsnToken token, String titleLinkId)
 			throws ClientException, IOException, TokenException,
 			PlaystationNetworkException {
+		return loadTrophyList(token, titleLinkId, null, null, null);
+	}
+
+	/**
+	 * Same as {@link #getTrophyList(PsnToken, String)}, but gives each of the
+	 * trophies to callback as soon as it is parsed instead of returning a list.
+	 * Response isn't read any further while callback runs.
+	 * 
+	 * @param token
+	 *            psn login token
+	 * @param titleLinkId
+	 *            UK title link Id
+	 * @param callback
+	 *            receives trophies in order. Return false to stop parsing
+	 * @throws ClientException
+	 *             if parser encountered an error
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws TokenException
+	 *             if token has expired or invalid
+	 * @throws PlaystationNetworkException
+	 *             if trophy link id is invalid or psn is not available
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void getTrophyList(PsnToken token, String titleLinkId,
+			ResultCallback<? super PsnTrophy> callback) throws ClientException,
+			IOException, TokenException, PlaystationNetworkException {
+		loadTrophyList(token, titleLinkId, callback, null, null);
+	}
+
+	/**
+	 * Same as {@link #getTrophyList(PsnToken, String)}, but only builds
+	 * trophies accepted by filter and only reads requested fields.
+	 * 
+	 * @param token
+	 *            psn login token
+	 * @param titleLinkId
+	 *            UK title link Id
+	 * @param filter
+	 *            selects trophies to keep, or null to keep all
+	 * @param fields
+	 *            text fields to read, or null for all. Fields not read are
+	 *            <code>null</code>
+	 * @return list of accepted trophies
+	 * @throws ClientException
+	 *             if parser encountered an error
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws TokenException
+	 *             if token has expired or invalid
+	 * @throws PlaystationNetworkException
+	 *             if trophy link id is invalid or psn is not available
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<PsnTrophy> getTrophyList(PsnToken token, String titleLinkId,
+			ResultFilter<? super PsnTrophy.Builder> filter,
+			Set<PsnField> fields) throws ClientException, IOException,
+			TokenException, PlaystationNetworkException {
+		return loadTrophyList(token, titleLinkId, null, filter, fields);
+	}
+
+	@SuppressWarnings("resource")
+	private List<PsnTrophy> loadTrophyList(PsnToken token, String titleLinkId,
+			ResultCallback<? super PsnTrophy> callback,
+			ResultFilter<? super PsnTrophy.Builder> filter,
+			Set<PsnField> fields) throws ClientException, IOException,
+			TokenException, PlaystationNetworkException {
 		log.debug("getTrophyList [{}] - Entering", titleLinkId);
 		Response response = null;
 		HandlerHtmlUKTrophy handler;
@@ -827,7 +1105,8 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 				throw new PlaystationNetworkException("Invalid trophy link id");
 			}
 
-			handler = new HandlerHtmlUKTrophy(token.getOnlineId());
+			handler = new HandlerHtmlUKTrophy(token.getOnlineId(), callback,
+					filter, fields);
 			parser.parse(response.getStream(), handler, response.getCharset());
 		} catch (ParseException e) {
 			throw new ClientException(e);
@@ -848,7 +1127,7 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 		if (response instanceof ResponseRedirect) return true;
 
 		switch (CommonUtils.streamingContains(response.getStream(),
-				response.getCharset(), "Incorrect", "maintenance")) {
+				response.getCharset(), LOGIN_ERRORS)) {
 			case 0:
 				throw new ClientLoginException("Incorrect username or password");
 			case 1:
@@ -912,9 +1191,36 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 *             if parser encountered an error
 	 * @since SEN-PSN 1.0
 	 */
-	@SuppressWarnings("resource")
 	public List<PsnGame> getPublicGameList(String psnId) throws IOException,
 			ClientException {
+		return loadPublicGameList(psnId, null);
+	}
+
+	/**
+	 * Same as {@link #getPublicGameList(String)}, but gives each of the games
+	 * to callback as soon as it is parsed instead of returning a list. Response
+	 * isn't read any further while callback runs.
+	 * 
+	 * @param psnId
+	 *            psn id
+	 * @param callback
+	 *            receives games in order. Return false to stop parsing
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClientException
+	 *             if parser encountered an error
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void getPublicGameList(String psnId,
+			ResultCallback<? super PsnGame> callback) throws IOException,
+			ClientException {
+		loadPublicGameList(psnId, callback);
+	}
+
+	@SuppressWarnings("resource")
+	private List<PsnGame> loadPublicGameList(String psnId,
+			ResultCallback<? super PsnGame> callback) throws IOException,
+			ClientException {
 		log.debug("getPublicGameList [{}] - Entering", psnId);
 		Response response = null;
 		HandlerHtmlUSGame handler;
@@ -938,7 +1244,7 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 					.header("X-Requested-With", "XMLHttpRequest")
 					.put(cookieList).execute(networkHelper);
 
-			handler = new HandlerHtmlUSGame(psnId);
+			handler = new HandlerHtmlUSGame(psnId, callback);
 			parser.parse(response.getStream(), handler, response.getCharset());
 		} catch (ParseException e) {
 			throw new ClientException(e);
@@ -986,9 +1292,41 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 *             if parser encountered an error or US login cookies invalid
 	 * @since SEN-PSN 1.0
 	 */
+	public List<PsnTrophy> getPublicTrophyList(String psnId, String titleLinkId,
+			String gameId) throws IOException, ClientException {
+		return loadPublicTrophyList(psnId, titleLinkId, gameId, null);
+	}
+
+	/**
+	 * Same as {@link #getPublicTrophyList(String, String, String)}, but gives
+	 * each of the trophies to callback as soon as it is parsed instead of
+	 * returning a list. Response isn't read any further while callback runs.
+	 * 
+	 * @param psnId
+	 *            psn id
+	 * @param titleLinkId
+	 *            US trophy link id
+	 * @param gameId
+	 *            Optional <i>Official</i> game Id. </b>Will not affect
+	 *            request.</b>
+	 * @param callback
+	 *            receives trophies in order. Return false to stop parsing
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClientException
+	 *             if parser encountered an error or US login cookies invalid
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void getPublicTrophyList(String psnId, String titleLinkId,
+			String gameId, ResultCallback<? super PsnTrophy> callback)
+			throws IOException, ClientException {
+		loadPublicTrophyList(psnId, titleLinkId, gameId, callback);
+	}
+
 	@SuppressWarnings("resource")
-	public List<PsnTrophy> getPublicTrophyList(String psnId,
-			String titleLinkId, String gameId) throws IOException,
+	private List<PsnTrophy> loadPublicTrophyList(String psnId,
+			String titleLinkId, String gameId,
+			ResultCallback<? super PsnTrophy> callback) throws IOException,
 			ClientException {
 		log.debug("getPublicTrophyList [{}, {}] - Entering", psnId, gameId);
 		Response response = null;
@@ -1013,7 +1351,7 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 					.header("Accept", "text/html").payload(params, "UTF-8")
 					.execute(networkHelper);
 
-			handler = new HandlerHtmlUSTrophy(psnId, gameId);
+			handler = new HandlerHtmlUSTrophy(psnId, gameId, callback);
 			parser.parse(response.getStream(), handler, response.getCharset());
 		} catch (ParseException e) {
 			throw new ClientException(e);
@@ -1039,22 +1377,37 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 * 
 	 * </p>
 	 * 
+	 * <p>
+	 * If a {@link JidResolver} is set, jids are looked up in it first.
+	 * </p>
+	 * 
 	 * @param psnId
 	 *            psn id
 	 * @return jid or null if not found
 	 * @throws IOException
-	 *             Signals that an I/O exception has occurred.
+	 *             Signals that an I/O exception has occurred, or response
+	 *             isn't a search result, such as a maintenance page
+	 * @see #setJidResolver(JidResolver)
 	 * @since SEN-PSN 1.0
 	 */
-	@SuppressWarnings("resource")
 	public String getOfficialJid(String psnId) throws IOException {
+		JidResolver resolver = jidResolver;
+		if (resolver != null) return resolver.resolve(psnId);
+		return searchJid(psnId);
+	}
+
+	/**
+	 * Requests jid of psnId without going through resolver.
+	 */
+	@SuppressWarnings("resource")
+	String searchJid(String psnId) throws IOException {
 		Response response = null;
 		String jid = null;
 		log.debug("getJid [{}] - Entering", psnId);
 
 		String xmlPost = String
 				.format("<?xml version='1.0' encoding='utf-8'?><searchjid platform='ps3' sv='%s'><online-id>%s</online-id></searchjid>",
-						PS3_FIRMWARE_VERSION, psnId);
+						ps3Firmware(), psnId);
 
 		try {
 
@@ -1073,11 +1426,9 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 						((ResponseAuthenticate) response).getAuthentication());
 				throw new IOException("Authentication required");
 			}
-			String data = Response.toString(response);
-
-			int start = data.indexOf("<jid>");
-			if (start != -1) jid = data.substring(start + 5,
-					data.indexOf("</jid>"));
+			if (response.getStatusCode() != HttpURLConnection.HTTP_OK) throw new IOException(
+					"Search jid failed: " + response.getStatusCode());
+			jid = parseSearchJid(Response.toString(response));
 
 		} finally {
 			CommonUtils.closeQuietly(response);
@@ -1087,6 +1438,27 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 		return jid;
 	}
 
+	/**
+	 * Reads jid from search result. Only a whole search result may say psnId
+	 * doesn't exist, since resolvers cache that.
+	 * 
+	 * @return jid, or null if result has none
+	 * @throws IOException
+	 *             if data isn't a whole search result, such as a
+	 *             maintenance page or a truncated response
+	 */
+	static String parseSearchJid(String data) throws IOException {
+		String trimmed = data.trim();
+		if (!trimmed.contains("<searchjid")
+				|| !(trimmed.endsWith("</searchjid>") || trimmed.endsWith("/>"))) throw new IOException(
+				"Unexpected search jid response");
+		int start = data.indexOf("<jid>");
+		if (start == -1) return null;
+		int end = data.indexOf("</jid>", start);
+		if (end == -1) throw new IOException("Unexpected search jid response");
+		return data.substring(start + 5, end);
+	}
+
 	/**
 	 * Retrieves official firmware version of platform type.
 	 * 
@@ -1101,6 +1473,11 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 * 
 	 * </p>
 	 * 
+	 * <p>
+	 * Version is also stored in client's {@link FirmwareRegistry}. Update list
+	 * is only downloaded if it changed since registry last read it.
+	 * </p>
+	 * 
 	 * @param platform
 	 *            platform to check firmware
 	 * @return firmware version of platform
@@ -1110,84 +1487,11 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 *             if platform is invalid, UNKNOWN
 	 * @since SEN-PSN 1.0
 	 */
-	@SuppressWarnings("resource")
 	public String getOfficialFirmwareVersion(Platform platform)
 			throws IOException {
-		Response response = null;
-		String version = null;
-		log.debug("getOfficialFirmwareVersion [{}] - Entering", platform);
-		try {
-			String userAgent = null;
-			switch (platform) {
-				case PS4:
-					throw new UnsupportedOperationException("PS4 not supported");
-				case PS3:
-					userAgent = AGENT_PS3_UPDATE;
-					break;
-				case VITA:
-					userAgent = AGENT_VITA_LIBHTTP;
-					break;
-				case PSP:
-					userAgent = AGENT_PSP_UPDATE;
-					break;
-				case UNKNOWN:
-					throw new IllegalArgumentException(
-							"Platform may not be UNKNOWN");
-			}
-			// not using getOfficialResponse because of different headers
-			response = new RequestBuilder(
-					GET,
-					new URL(
-							String.format(
-									"http://%s.%s.update.playstation.%s/update/%s/%s/us/%s-updatelist.%s",
-									platform == Platform.PSP ? "fu01" : "fus01",
-									platform.getTypeString(),
-									platform == Platform.PSP ? "org" : "net",
-									platform.getTypeString(),
-									platform == Platform.PSP ? "list2" : "list",
-									platform.getTypeString(),
-									platform == Platform.VITA ? "xml" : "txt")))
-					.header("User-Agent", userAgent)
-					.header("Accept-Encoding", "identity")
-					.execute(networkHelper);
-
-			String data = Response.toString(response);
-
-			switch (platform) {
-				case PS3:
-					String[] dataArray = data.split(";");
-
-					for (String part : dataArray)
-						if (part.subSequence(0, part.indexOf("=")).toString()
-								.equalsIgnoreCase("SystemSoftwareVersion")) {
-							version = PS3_FIRMWARE_VERSION = part.substring(
-									part.indexOf("=") + 1, part.length() - 2);
-							break;
-						}
-
-					break;
-				case VITA:
-					Matcher matcher = Pattern.compile("label=\"\\S+\">")
-							.matcher(data);
-					matcher.find();
-					String find = matcher.group();
-					version = find.substring(find.indexOf("label=\"") + 7,
-							find.lastIndexOf("\">"));
-					break;
-				case PSP:
-					int start = data.indexOf("#SystemSoftwareVersion=");
-					version = data.substring(start + 23,
-							data.indexOf(";", start + 23));
-					break;
-				default:
-					throw new UnsupportedOperationException();
-			}
-		} finally {
-			CommonUtils.closeQuietly(response);
-			log.debug("getOfficialFirmwareVersion - Exiting");
-		}
-
-		return version;
+		FirmwareRegistry registry = firmware;
+		registry.refresh(platform);
+		return registry.get(platform);
 	}
 
 	/**
@@ -1223,7 +1527,7 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 
 			String payload = String.format(
 					"<profile platform='ps3' sv='%s'><jid>%s</jid></profile>",
-					PS3_FIRMWARE_VERSION, jid);
+					ps3Firmware(), jid);
 
 			response = getOfficialResponse(
 					"http://getprof.us.np.community.playstation.net/basic_view/func/get_profile",
@@ -1235,7 +1539,7 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 
 			payload = String
 					.format("<nptrophy platform='ps3' sv='%s'><jid>%s</jid></nptrophy>",
-							PS3_FIRMWARE_VERSION, jid);
+							ps3Firmware(), jid);
 
 			response = getOfficialResponse(
 					"http://trophy.ww.np.community.playstation.net/trophy/func/get_user_info",
@@ -1284,9 +1588,296 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 *             if jid is invalid
 	 * @since SEN-PSN 1.0
 	 */
-	@SuppressWarnings("resource")
 	public List<PsnGameOfficial> getOfficialGameList(String jid, int start,
-			int max, Platform... platforms) throws IOException,
+			int max, Platform... platforms) throws IOException, ClientException,
+			PlaystationNetworkException {
+		return loadOfficialGameList(jid, start, max, null, null, null,
+				platforms);
+	}
+
+	/**
+	 * Same as {@link #getOfficialGameList(String, int, int, Platform...)}, but
+	 * gives each of the games to callback as soon as it is parsed instead of
+	 * returning a list. Whole response is read into memory before the first
+	 * callback, so a slow callback doesn't hold back the connection and
+	 * returning false only skips building the rest of the games.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @param start
+	 *            start index. Must be one or greater.
+	 * @param max
+	 *            max games
+	 * @param callback
+	 *            receives games in order. Return false to stop parsing
+	 * @param platforms
+	 *            platforms for games
+	 * @throws IllegalArgumentException
+	 *             thrown if start index is zero or less
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClientException
+	 *             if parser encountered an error or US login cookies invalid
+	 * @throws PlaystationNetworkException
+	 *             if jid is invalid
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void getOfficialGameList(String jid, int start, int max,
+			ResultCallback<? super PsnGameOfficial> callback,
+			Platform... platforms) throws IOException, ClientException,
+			PlaystationNetworkException {
+		loadOfficialGameList(jid, start, max, callback, null, null,
+				platforms);
+	}
+
+	/**
+	 * Same as {@link #getOfficialGameList(String, int, int, Platform...)}, but
+	 * only builds games accepted by filter and only reads requested fields.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @param start
+	 *            start index. Must be one or greater.
+	 * @param max
+	 *            max games
+	 * @param filter
+	 *            selects games to keep, or null to keep all
+	 * @param fields
+	 *            text fields to read, or null for all. Fields not read are
+	 *            <code>null</code>
+	 * @param platforms
+	 *            platforms for games
+	 * @return list of accepted games
+	 * @throws IllegalArgumentException
+	 *             thrown if start index is zero or less
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClientException
+	 *             if parser encountered an error or US login cookies invalid
+	 * @throws PlaystationNetworkException
+	 *             if jid is invalid
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<PsnGameOfficial> getOfficialGameList(String jid, int start,
+			int max, ResultFilter<? super PsnGameOfficial.Builder> filter,
+			Set<PsnField> fields, Platform... platforms) throws IOException,
+			ClientException, PlaystationNetworkException {
+		return loadOfficialGameList(jid, start, max, null, filter, fields,
+				platforms);
+	}
+
+	/**
+	 * Retrieves all games of Jid. First page tells how many games there are,
+	 * then the remaining pages are requested concurrently on executor, at most
+	 * <code>maxConcurrent</code> at once, and merged in order. A library of
+	 * hundreds of games takes a few round trips instead of one per page.
+	 * 
+	 * <p>
+	 * If the library grows while paging, pages after the last known one are
+	 * requested until a short page. Games repeated because of a shift between
+	 * pages are only kept once. If no executor is given, pages are requested
+	 * one at a time.
+	 * </p>
+	 * 
+	 * <p>
+	 * Connections made
+	 * 
+	 * <pre>
+	 * http://trophy.ww.np.community.playstation.net/trophy/func/get_title_list
+	 * </pre>
+	 * 
+	 * </p>
+	 * 
+	 * @param jid
+	 *            jid
+	 * @param pageSize
+	 *            games per request. 64 is a good size.
+	 * @param executor
+	 *            executor to request pages on, or null
+	 * @param maxConcurrent
+	 *            maximum number of pages requested at once
+	 * @param platforms
+	 *            platforms for games
+	 * @return official game list, empty if account has none
+	 * @throws IllegalArgumentException
+	 *             if pageSize or maxConcurrent isn't positive
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred, or interrupted
+	 *             while waiting for pages.
+	 * @throws ClientException
+	 *             if parser encountered an error or US login cookies invalid
+	 * @throws PlaystationNetworkException
+	 *             if jid is invalid
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<PsnGameOfficial> getOfficialGameListAll(String jid,
+			int pageSize, ExecutorService executor, int maxConcurrent,
+			Platform... platforms) throws IOException, ClientException,
+			PlaystationNetworkException {
+		return getOfficialGameListAll(jid, pageSize, executor, maxConcurrent,
+				null, platforms);
+	}
+
+	/**
+	 * Same as
+	 * {@link #getOfficialGameListAll(String, int, ExecutorService, int, Platform...)}
+	 * , but reports each page to monitor and may be canceled. Monitor is
+	 * worked one tick per page. Canceling it, with
+	 * {@link ConcurrentProgressMonitor#cancel()} from any thread or by its
+	 * listener, closes the responses still being read and no further pages
+	 * are requested.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @param pageSize
+	 *            games per request. 64 is a good size.
+	 * @param executor
+	 *            executor to request pages on, or null
+	 * @param maxConcurrent
+	 *            maximum number of pages requested at once
+	 * @param monitor
+	 *            monitor to report to and cancel with, or null
+	 * @param platforms
+	 *            platforms for games
+	 * @return official game list, empty if account has none
+	 * @throws IllegalArgumentException
+	 *             if pageSize or maxConcurrent isn't positive
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred, or interrupted
+	 *             while waiting for pages. An
+	 *             <code>InterruptedIOException</code> if monitor was canceled.
+	 * @throws ClientException
+	 *             if parser encountered an error or US login cookies invalid
+	 * @throws PlaystationNetworkException
+	 *             if jid is invalid
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<PsnGameOfficial> getOfficialGameListAll(String jid,
+			int pageSize, ExecutorService executor, int maxConcurrent,
+			ConcurrentProgressMonitor monitor, Platform... platforms)
+			throws IOException, ClientException, PlaystationNetworkException {
+		if (pageSize <= 0 || maxConcurrent <= 0) throw new IllegalArgumentException(
+				"Page size and max concurrent must be positive");
+		log.debug("getOfficialGameListAll [{}, {}] - Entering", jid,
+				String.valueOf(pageSize));
+
+		if (monitor != null) monitor.beginTask("Retrieving games", 1);
+		HandlerXmlGame first = requestOfficialGameList(jid, 1, pageSize, null,
+				null, null, platforms, monitor);
+		List<PsnGameOfficial> games = new ArrayList<PsnGameOfficial>(
+				Math.max(first.getTotal(), 0));
+		games.addAll(first.getGames());
+		int lastSize = games.size();
+		int pages = 1;
+
+		if (executor != null && lastSize == pageSize
+				&& first.getTotal() > pageSize) {
+			pages = (first.getTotal() + pageSize - 1) / pageSize;
+			if (monitor != null) {
+				monitor.beginTask("Retrieving games", pages);
+				monitor.worked(1);
+			}
+			for (List<PsnGameOfficial> page : requestOfficialGamePages(jid,
+					pageSize, pages, executor, maxConcurrent, platforms,
+					monitor)) {
+				games.addAll(page);
+				lastSize = page.size();
+			}
+		}
+
+		// total unknown, grew while paging, or no executor
+		for (int start = pages * pageSize + 1; lastSize == pageSize; start += pageSize) {
+			List<PsnGameOfficial> page = requestOfficialGameList(jid, start,
+					pageSize, null, null, null, platforms, monitor).getGames();
+			games.addAll(page);
+			lastSize = page.size();
+		}
+		if (monitor != null) monitor.done();
+
+		Set<String> gameIds = new HashSet<String>(games.size() * 2);
+		for (Iterator<PsnGameOfficial> iterator = games.iterator(); iterator
+				.hasNext();)
+			if (!gameIds.add(iterator.next().getGameId())) iterator.remove();
+
+		log.debug("getOfficialGameListAll - Exiting");
+		return games;
+	}
+
+	/**
+	 * Requests pages 2 to pages, keeping at most maxConcurrent running.
+	 */
+	private List<List<PsnGameOfficial>> requestOfficialGamePages(
+			final String jid, final int pageSize, int pages,
+			ExecutorService executor, int maxConcurrent,
+			final Platform[] platforms, final ConcurrentProgressMonitor monitor)
+			throws IOException, ClientException, PlaystationNetworkException {
+		CompletionService<List<PsnGameOfficial>> service = new ExecutorCompletionService<List<PsnGameOfficial>>(
+				executor);
+		Map<Future<List<PsnGameOfficial>>, Integer> running = new HashMap<Future<List<PsnGameOfficial>>, Integer>();
+		List<List<PsnGameOfficial>> results = new ArrayList<List<PsnGameOfficial>>(
+				Collections.<List<PsnGameOfficial>> nCopies(pages - 1, null));
+		int next = 1;
+
+		try {
+			while (next < pages || !running.isEmpty()) {
+				for (; next < pages && running.size() < maxConcurrent; next++) {
+					final int start = next * pageSize + 1;
+					running.put(service
+							.submit(new Callable<List<PsnGameOfficial>>() {
+
+								@Override
+								public List<PsnGameOfficial> call()
+										throws Exception {
+									return requestOfficialGameList(jid, start,
+											pageSize, null, null, null,
+											platforms, monitor).getGames();
+								}
+
+							}), Integer.valueOf(next - 1));
+				}
+				Future<List<PsnGameOfficial>> done = service.take();
+				int page = running.remove(done).intValue();
+				results.set(page, done.get());
+				if (monitor != null) monitor.worked(1);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"Interrupted waiting for game pages");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			if (cause instanceof ClientException) throw (ClientException) cause;
+			if (cause instanceof PlaystationNetworkException) throw (PlaystationNetworkException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw (RuntimeException) cause;
+		} finally {
+			// only left if failed
+			for (Future<List<PsnGameOfficial>> future : running.keySet())
+				future.cancel(true);
+		}
+		return results;
+	}
+
+	private List<PsnGameOfficial> loadOfficialGameList(String jid, int start,
+			int max, ResultCallback<? super PsnGameOfficial> callback,
+			ResultFilter<? super PsnGameOfficial.Builder> filter,
+			Set<PsnField> fields, Platform[] platforms) throws IOException,
+			ClientException, PlaystationNetworkException {
+		return requestOfficialGameList(jid, start, max, callback, filter,
+				fields, platforms, null).getGames();
+	}
+
+	/**
+	 * Requests page of games. Response is read through monitor, so canceling
+	 * it stops reading and closes the response.
+	 */
+	@SuppressWarnings("resource")
+	private HandlerXmlGame requestOfficialGameList(String jid, int start, int max,
+			ResultCallback<? super PsnGameOfficial> callback,
+			ResultFilter<? super PsnGameOfficial.Builder> filter,
+			Set<PsnField> fields, Platform[] platforms,
+			ConcurrentProgressMonitor monitor) throws IOException,
 			ClientException, PlaystationNetworkException {
 		Response response = null;
 		HandlerXmlGame handler;
@@ -1298,28 +1889,36 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 					"start index must be greater than 0");
 
 			// if (max > 64) log.warn("max index is greater than 64");
+			checkCanceled(monitor);
 
 			String payload = String
 					.format("<nptrophy platform='ps3' sv='%s'><jid>%s</jid><start>%s</start><max>%s</max>%s</nptrophy>",
-							PS3_FIRMWARE_VERSION, jid, String.valueOf(start),
+							ps3Firmware(), jid, String.valueOf(start),
 							String.valueOf(max), getPlatformString(platforms));
 
 			response = getOfficialResponse(
 					"http://trophy.ww.np.community.playstation.net/trophy/func/get_title_list",
 					AGENT_PS3_APPLICATION, payload);
 
-			handler = new HandlerXmlGame(jid);
-			parser.parse(response.getStream(), handler, response.getCharset());
+			handler = new HandlerXmlGame(jid, callback, filter, fields);
+			NpTrophyScanner.parse(parser, monitor != null ? monitor
+					.wrap(response.getStream()) : response.getStream(),
+					handler, response.getCharset());
 			if (handler.getResult().equals("05")) throw new PlaystationNetworkException(
 					"Jid invalid");
 		} catch (ParseException e) {
+			checkCanceled(monitor);
 			throw new ClientException(e);
+		} catch (IOException e) {
+			// closed by cancel
+			checkCanceled(monitor);
+			throw e;
 		} finally {
 			CommonUtils.closeQuietly(response);
 			log.debug("getOfficialGameList - Exiting");
 		}
 
-		return handler.getGames();
+		return handler;
 
 	}
 
@@ -1350,10 +1949,79 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 *             if jid is invalid
 	 * @since SEN-PSN 1.0
 	 */
-	@SuppressWarnings("resource")
 	public List<PsnTrophyOfficial> getOfficialTrophyList(String jid,
 			String gameId) throws IOException, PlaystationNetworkException,
 			ClientException {
+		return loadOfficialTrophyList(jid, gameId, null, null, null);
+	}
+
+	/**
+	 * Same as {@link #getOfficialTrophyList(String, String)}, but gives each of
+	 * the trophies to callback as soon as it is parsed instead of returning a
+	 * list. Whole response is read into memory before the first callback, so
+	 * a slow callback doesn't hold back the connection and returning false
+	 * only skips building the rest of the trophies.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @param callback
+	 *            receives trophies in order. Return false to stop parsing
+	 * @throws IllegalArgumentException
+	 *             thrown if game id isn't in <i>Official</i> format
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClientException
+	 *             if parser encountered an error or US login cookies invalid
+	 * @throws PlaystationNetworkException
+	 *             if jid is invalid
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void getOfficialTrophyList(String jid, String gameId,
+			ResultCallback<? super PsnTrophyOfficial> callback)
+			throws IOException, PlaystationNetworkException, ClientException {
+		loadOfficialTrophyList(jid, gameId, callback, null, null);
+	}
+
+	/**
+	 * Same as {@link #getOfficialTrophyList(String, String)}, but only builds
+	 * trophies accepted by filter and only reads requested fields.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @param filter
+	 *            selects trophies to keep, or null to keep all
+	 * @param fields
+	 *            text fields to read, or null for all. Fields not read are
+	 *            <code>null</code>
+	 * @return list of accepted trophies
+	 * @throws IllegalArgumentException
+	 *             thrown if game id isn't in <i>Official</i> format
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClientException
+	 *             if parser encountered an error or US login cookies invalid
+	 * @throws PlaystationNetworkException
+	 *             if jid is invalid
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<PsnTrophyOfficial> getOfficialTrophyList(String jid,
+			String gameId,
+			ResultFilter<? super PsnTrophyOfficial.Builder> filter,
+			Set<PsnField> fields) throws IOException,
+			PlaystationNetworkException, ClientException {
+		return loadOfficialTrophyList(jid, gameId, null, filter, fields);
+	}
+
+	@SuppressWarnings("resource")
+	private List<PsnTrophyOfficial> loadOfficialTrophyList(String jid,
+			String gameId, ResultCallback<? super PsnTrophyOfficial> callback,
+			ResultFilter<? super PsnTrophyOfficial.Builder> filter,
+			Set<PsnField> fields) throws IOException,
+			PlaystationNetworkException, ClientException {
 		Response response = null;
 		HandlerXmlTrophy handler;
 		log.debug("getOfficialTrophyList [{}, {}] - Entering", jid, gameId);
@@ -1364,14 +2032,15 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 		try {
 			String payload = String
 					.format("<nptrophy platform='ps3' sv='%s'><jid>%s</jid><list><info npcommid='%s'><target>FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF</target></info></list></nptrophy>",
-							PS3_FIRMWARE_VERSION, jid, gameId);
+							ps3Firmware(), jid, gameId);
 
 			response = getOfficialResponse(
 					"http://trophy.ww.np.community.playstation.net/trophy/func/get_trophies",
 					AGENT_PS3_APPLICATION, payload);
 
-			handler = new HandlerXmlTrophy(jid);
-			parser.parse(response.getStream(), handler, response.getCharset());
+			handler = new HandlerXmlTrophy(jid, callback, filter, fields);
+			NpTrophyScanner.parse(parser, response.getStream(), handler,
+					response.getCharset());
 			if (handler.getResult().equals("05")) throw new PlaystationNetworkException(
 					"Jid invalid");
 		} catch (ParseException e) {
@@ -1428,7 +2097,7 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 		try {
 			String payload = String
 					.format("<nptrophy platform='ps3' sv='%s'><jid>%s</jid><max>%s</max>%s</nptrophy>",
-							PS3_FIRMWARE_VERSION, jid, String.valueOf(max),
+							ps3Firmware(), jid, String.valueOf(max),
 							getPlatformString(platforms));
 
 			response = getOfficialResponse(
@@ -1436,7 +2105,8 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 					AGENT_PS3_APPLICATION, payload);
 
 			handler = new HandlerXmlTrophy(jid);
-			parser.parse(response.getStream(), handler, response.getCharset());
+			NpTrophyScanner.parse(parser, response.getStream(), handler,
+					response.getCharset());
 			if (handler.getResult().equals("05")) throw new PlaystationNetworkException(
 					"Jid invalid");
 		} catch (ParseException e) {
@@ -1478,7 +2148,7 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 	 *             if jid is invalid
 	 * @throws ClientException
 	 *             if parser encountered an error
-	 * @see PsnUtils#getOfficialDateFormat(java.util.Date)
+	 * @see PsnUtils#formatOfficialDate(long)
 	 * @since SEN-PSN 1.0
 	 */
 	@SuppressWarnings("resource")
@@ -1495,7 +2165,7 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 		try {
 			String payload = String
 					.format("<nptrophy platform='ps3' sv='%s'><jid>%s</jid><max>%s</max><since>%s</since>%s</nptrophy>",
-							PS3_FIRMWARE_VERSION, jid, String.valueOf(max),
+							ps3Firmware(), jid, String.valueOf(max),
 							since, getPlatformString(platforms));
 
 			response = getOfficialResponse(
@@ -1503,7 +2173,8 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 					AGENT_PS3_APPLICATION, payload);
 
 			handler = new HandlerXmlTrophy(jid);
-			parser.parse(response.getStream(), handler, response.getCharset());
+			NpTrophyScanner.parse(parser, response.getStream(), handler,
+					response.getCharset());
 			if (handler.getResult().equals("05")) throw new PlaystationNetworkException(
 					"jid invalid");
 		} catch (ParseException e) {
@@ -1516,6 +2187,10 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 		return handler.getTrophyList();
 	}
 
+	private String ps3Firmware() {
+		return firmware.get(Platform.PS3);
+	}
+
 	private Response getOfficialResponse(String url, String userAgent,
 			String payload) throws IOException {
 		Response response = new RequestBuilderAuthenticate(POST, new URL(url))
@@ -1533,6 +2208,12 @@ public class PlaystationNetwork extends SonyEntertainmentNetwork {
 		return response;
 	}
 
+	private static void checkCanceled(ConcurrentProgressMonitor monitor)
+			throws InterruptedIOException {
+		if (monitor != null && monitor.isCanceled()) throw new InterruptedIOException(
+				"Canceled");
+	}
+
 	private String getPlatformString(Platform[] platforms) {
 		if (platforms == null) return "";
 		String platformString = "";
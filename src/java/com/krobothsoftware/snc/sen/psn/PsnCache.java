@@ -0,0 +1,308 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.snc.sen.psn;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.krobothsoftware.commons.util.ModelCache;
+import com.krobothsoftware.snc.ClientException;
+import com.krobothsoftware.snc.sen.Platform;
+import com.krobothsoftware.snc.sen.psn.model.PsnGame;
+import com.krobothsoftware.snc.sen.psn.model.PsnGameOfficial;
+import com.krobothsoftware.snc.sen.psn.model.PsnProfile;
+
+/**
+ * Caches parsed results of {@link PlaystationNetwork} methods which are
+ * often asked for again within minutes. Each method has its own
+ * {@link ModelCache}, so time to live, size and off heap storage may be set
+ * per method through its getter.
+ * 
+ * <p>
+ * Values expire after their time to live, but are served for
+ * {@link #DEFAULT_STALE_WHILE_REVALIDATE} longer while one background request
+ * reloads them, if an executor is given. Expired values are also served for
+ * {@link #DEFAULT_STALE_IF_ERROR} if a request fails, such as while PSN is
+ * under maintenance. Lists are read only since they are shared by callers.
+ * </p>
+ * 
+ * <pre>
+ * PsnCache cache = new PsnCache(psn, executor);
+ * cache.getOfficialGameListCache().setTtl(1, TimeUnit.MINUTES);
+ * PsnProfile profile = cache.getOfficialProfile(jid);
+ * </pre>
+ * 
+ * @author Kyle Kroboth
+ * @since SEN-PSN 1.0.1
+ */
+public class PsnCache {
+
+	/**
+	 * Default maximum number of values in each cache.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final int DEFAULT_SIZE = 1024;
+
+	/**
+	 * Default time to live of profiles, in minutes.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final long DEFAULT_PROFILE_TTL = 10;
+
+	/**
+	 * Default time to live of game lists, in minutes.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final long DEFAULT_GAME_LIST_TTL = 5;
+
+	/**
+	 * Default time expired values are served while reloading, in minutes.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final long DEFAULT_STALE_WHILE_REVALIDATE = 5;
+
+	/**
+	 * Default time expired values are served if a request fails, in minutes.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final long DEFAULT_STALE_IF_ERROR = 60;
+
+	private final PlaystationNetwork psn;
+	private final ModelCache<String, PsnProfile> profiles;
+	private final ModelCache<String, List<PsnGameOfficial>> officialGameLists;
+	private final ModelCache<String, List<PsnGame>> publicGameLists;
+
+	/**
+	 * Creates new cache.
+	 * 
+	 * @param psn
+	 *            network to request values with
+	 * @param executor
+	 *            runs background reloads, or null to reload in caller once
+	 *            expired
+	 * @since SEN-PSN 1.0.1
+	 */
+	public PsnCache(PlaystationNetwork psn, Executor executor) {
+		this.psn = psn;
+		profiles = newCache(DEFAULT_PROFILE_TTL, executor);
+		officialGameLists = newCache(DEFAULT_GAME_LIST_TTL, executor);
+		publicGameLists = newCache(DEFAULT_GAME_LIST_TTL, executor);
+	}
+
+	/**
+	 * Creates cache with default size, stale while revalidate and stale if
+	 * error times.
+	 * 
+	 * @param ttl
+	 *            time to live in minutes
+	 * @param executor
+	 *            runs background reloads, may be null
+	 * @return new cache
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static <K, V> ModelCache<K, V> newCache(long ttl, Executor executor) {
+		ModelCache<K, V> cache = new ModelCache<K, V>(DEFAULT_SIZE, ttl,
+				TimeUnit.MINUTES);
+		cache.setStaleWhileRevalidate(DEFAULT_STALE_WHILE_REVALIDATE,
+				TimeUnit.MINUTES, executor);
+		cache.setStaleIfError(DEFAULT_STALE_IF_ERROR, TimeUnit.MINUTES);
+		return cache;
+	}
+
+	/**
+	 * Same as {@link PlaystationNetwork#getOfficialProfile(String)}, but
+	 * cached by jid.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @return profile, null if not found
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClientException
+	 *             if parser encountered an error or US login cookies invalid
+	 * @since SEN-PSN 1.0.1
+	 */
+	public PsnProfile getOfficialProfile(String jid) throws IOException,
+			ClientException {
+		try {
+			return profiles.get(jid,
+					new ModelCache.Loader<String, PsnProfile>() {
+
+						@Override
+						public PsnProfile load(String key) throws IOException,
+								ClientException {
+							return psn.getOfficialProfile(key);
+						}
+
+					});
+		} catch (Exception e) {
+			throw rethrow(e);
+		}
+	}
+
+	/**
+	 * Same as {@link PlaystationNetwork#getOfficialGameList(String, int, int,
+	 * Platform...)}, but cached by all arguments.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @param start
+	 *            start index. Must be one or greater.
+	 * @param max
+	 *            max games
+	 * @param platforms
+	 *            platforms for games
+	 * @return read only game list, empty if account has none
+	 * @throws IllegalArgumentException
+	 *             thrown if start index is zero or less
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClientException
+	 *             if parser encountered an error or US login cookies invalid
+	 * @throws PlaystationNetworkException
+	 *             if jid is invalid
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<PsnGameOfficial> getOfficialGameList(final String jid,
+			final int start, final int max, final Platform... platforms)
+			throws IOException, ClientException, PlaystationNetworkException {
+		String key = jid + '|' + start + '|' + max + '|'
+				+ Arrays.toString(platforms);
+		try {
+			return officialGameLists.get(key,
+					new ModelCache.Loader<String, List<PsnGameOfficial>>() {
+
+						@Override
+						public List<PsnGameOfficial> load(String key)
+								throws IOException, ClientException,
+								PlaystationNetworkException {
+							return Collections.unmodifiableList(psn
+									.getOfficialGameList(jid, start, max,
+											platforms));
+						}
+
+					});
+		} catch (PlaystationNetworkException e) {
+			throw e;
+		} catch (Exception e) {
+			throw rethrow(e);
+		}
+	}
+
+	/**
+	 * Same as {@link PlaystationNetwork#getPublicGameList(String)}, but cached
+	 * by psnId.
+	 * 
+	 * @param psnId
+	 *            psn id
+	 * @return read only list of games or empty if account has none
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClientException
+	 *             if parser encountered an error
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<PsnGame> getPublicGameList(String psnId) throws IOException,
+			ClientException {
+		try {
+			return publicGameLists.get(psnId,
+					new ModelCache.Loader<String, List<PsnGame>>() {
+
+						@Override
+						public List<PsnGame> load(String key)
+								throws IOException, ClientException {
+							return Collections.unmodifiableList(psn
+									.getPublicGameList(key));
+						}
+
+					});
+		} catch (Exception e) {
+			throw rethrow(e);
+		}
+	}
+
+	/**
+	 * Gets cache of {@link #getOfficialProfile(String)}.
+	 * 
+	 * @return profile cache
+	 * @since SEN-PSN 1.0.1
+	 */
+	public ModelCache<String, PsnProfile> getOfficialProfileCache() {
+		return profiles;
+	}
+
+	/**
+	 * Gets cache of {@link #getOfficialGameList(String, int, int, Platform...)}.
+	 * 
+	 * @return game list cache
+	 * @since SEN-PSN 1.0.1
+	 */
+	public ModelCache<String, List<PsnGameOfficial>> getOfficialGameListCache() {
+		return officialGameLists;
+	}
+
+	/**
+	 * Gets cache of {@link #getPublicGameList(String)}.
+	 * 
+	 * @return game list cache
+	 * @since SEN-PSN 1.0.1
+	 */
+	public ModelCache<String, List<PsnGame>> getPublicGameListCache() {
+		return publicGameLists;
+	}
+
+	/**
+	 * Removes all cached values.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void clear() {
+		profiles.clear();
+		officialGameLists.clear();
+		publicGameLists.clear();
+	}
+
+	/**
+	 * Rethrows exception of a loader which throws {@link IOException} or
+	 * {@link ClientException}.
+	 * 
+	 * @param e
+	 *            exception from cache
+	 * @return never returns, declared so callers may <code>throw</code> it
+	 * @throws IOException
+	 * @throws ClientException
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static RuntimeException rethrow(Exception e) throws IOException,
+			ClientException {
+		if (e instanceof IOException) throw (IOException) e;
+		if (e instanceof ClientException) throw (ClientException) e;
+		if (e instanceof RuntimeException) throw (RuntimeException) e;
+		throw new IllegalStateException("Unexpected loader exception", e);
+	}
+
+}
@@ -0,0 +1,73 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+package com.krobothsoftware.snc.sen.psn;
+
+/**
+ * Text fields of games and trophies which may be left out when parsing. Used
+ * to read only the fields a caller needs, so strings for the rest aren't
+ * created. Fields which aren't read are <code>null</code> in the model.
+ * 
+ * @author Kyle Kroboth
+ * @since SEN-PSN 1.0.1
+ * @see PlaystationNetwork#getTrophyList(PsnToken, String, ResultFilter,
+ *      java.util.Set)
+ */
+public enum PsnField {
+
+	/**
+	 * Name of game or trophy.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	NAME,
+
+	/**
+	 * Image url of game or trophy.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	IMAGE,
+
+	/**
+	 * Description of trophy.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	DESCRIPTION,
+
+	/**
+	 * Date trophy was earned.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	DATE_EARNED,
+
+	/**
+	 * Date an <i>Official</i> game was last updated.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	LAST_UPDATED,
+
+	/**
+	 * UK or US title link id of game.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	TITLE_LINK_ID;
+
+}
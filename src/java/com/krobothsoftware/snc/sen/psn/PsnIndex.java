@@ -0,0 +1,1029 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.snc.sen.psn;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.krobothsoftware.snc.sen.Platform;
+import com.krobothsoftware.snc.sen.psn.model.PsnGameOfficial;
+import com.krobothsoftware.snc.sen.psn.model.PsnProfile;
+import com.krobothsoftware.snc.sen.psn.model.PsnTrophyOfficial;
+
+/**
+ * Embedded on-disk index of <i>Official</i> profiles, games and trophies, so
+ * they may be queried without the network and kept across restarts.
+ * 
+ * <p>
+ * Records are appended to memory mapped segment files in the index
+ * directory. Each record is indexed by its key, its jid, its game id and,
+ * for trophies, its date earned. Index entries are kept in memory until
+ * {@link #checkpoint()}, which writes them as a new sorted run file. Run
+ * files are never changed. Once a run is at least half the size of the run
+ * before it, both are merged into a new one, so each entry is only rewritten
+ * a logarithmic number of times and there are few runs to search. Runs are
+ * memory mapped and binary searched. Opening an index maps the runs and only
+ * reads records appended after the last checkpoint, so it doesn't depend on
+ * the number of records.
+ * </p>
+ * 
+ * <p>
+ * Putting a record with the key of an existing one makes it the new
+ * version. Lookups only return the newest version of each record. A record
+ * equal to its newest version isn't written again, so deltas may be put
+ * more than once.
+ * </p>
+ * 
+ * <pre>
+ * PsnIndex index = new PsnIndex(new File(&quot;psn-index&quot;));
+ * index.putTrophies(sync.sync(jid));
+ * List&lt;PsnTrophyOfficial&gt; week = index.getTrophiesEarned(from, to);
+ * index.close();
+ * </pre>
+ * 
+ * <p>
+ * Writes go to the OS through the mapped segments and are only forced to
+ * disk by {@link #checkpoint()} and {@link #close()}. Index is thread safe,
+ * but only one instance may use a directory at a time.
+ * </p>
+ * 
+ * @author Kyle Kroboth
+ * @since SEN-PSN 1.0.1
+ */
+public final class PsnIndex implements Closeable {
+
+	/**
+	 * Default size of segment files.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	private static final int SEGMENT_MAGIC = 0x50534E53;
+	private static final int INDEX_MAGIC = 0x50534E49;
+	private static final int VERSION = 1;
+	// magic, version, end of records, reserved
+	private static final int SEGMENT_HEADER = 16;
+	// magic, version, segment and offset covered, count of each kind
+	private static final int INDEX_HEADER = 32;
+	// index entries kept in memory before a checkpoint is forced
+	private static final int MAX_PENDING = 64 * 1024;
+
+	private static final byte PROFILE = 1;
+	private static final byte GAME = 2;
+	private static final byte TROPHY = 3;
+
+	// kinds of index entries
+	private static final int KEY = 0;
+	private static final int JID = 1;
+	private static final int GAME_ID = 2;
+	private static final int EARNED = 3;
+	private static final int KINDS = 4;
+
+	private static final Platform[] PLATFORMS = Platform.values();
+	private static final Trophy[] TYPES = Trophy.values();
+
+	private final File dir;
+	private final int segmentSize;
+	private final List<MappedByteBuffer> segments = new ArrayList<MappedByteBuffer>();
+	private int position;
+
+	// oldest run first
+	private final List<Run> runs = new ArrayList<Run>();
+	private final List<TreeMap<Long, Postings>> pending = new ArrayList<TreeMap<Long, Postings>>(
+			KINDS);
+	private final int[] pendingCounts = new int[KINDS];
+	private int pendingTotal;
+	// of next run
+	private int generation;
+	private boolean closed;
+
+	private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+	private final DataOutputStream out = new DataOutputStream(bytes);
+
+	/**
+	 * Opens index in directory with {@link #DEFAULT_SEGMENT_SIZE}, creating
+	 * it if needed.
+	 * 
+	 * @param dir
+	 *            index directory
+	 * @throws IOException
+	 *             if files can't be read or created
+	 * @since SEN-PSN 1.0.1
+	 */
+	public PsnIndex(File dir) throws IOException {
+		this(dir, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Opens index in directory, creating it if needed.
+	 * 
+	 * @param dir
+	 *            index directory
+	 * @param segmentSize
+	 *            size of new segment files. Existing segments keep their
+	 *            size.
+	 * @throws IOException
+	 *             if files can't be read or created
+	 * @since SEN-PSN 1.0.1
+	 */
+	public PsnIndex(File dir, int segmentSize) throws IOException {
+		if (segmentSize < 4096) throw new IllegalArgumentException(
+				"Segment size must be at least 4096");
+		if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException(
+				"Couldn't create index directory " + dir);
+		this.dir = dir;
+		this.segmentSize = segmentSize;
+		for (int i = 0; i < KINDS; i++)
+			pending.add(new TreeMap<Long, Postings>());
+
+		File file;
+		while ((file = segmentFile(segments.size())).exists())
+			segments.add(mapSegment(file));
+		if (segments.isEmpty()) segments.add(createSegment(0));
+		position = segments.get(segments.size() - 1).getInt(8);
+
+		int[] covered = loadIndex();
+		if (covered == null) covered = new int[] { 0, SEGMENT_HEADER };
+		scan(covered[0], covered[1]);
+	}
+
+	/**
+	 * Puts profile.
+	 * 
+	 * @param profile
+	 *            profile to add
+	 * @return true, if written. False if same as newest version.
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	public synchronized boolean putProfile(PsnProfile profile)
+			throws IOException {
+		header(PROFILE, profile.getJid(), null, 0);
+		Locale country = profile.getCountryCulture();
+		writeString(country == null ? null : country.getLanguage());
+		writeString(country == null ? null : country.getCountry());
+		writeString(profile.getAvatar());
+		writeString(profile.getAboutMe());
+		out.writeBoolean(profile.isPlayStationPlus());
+		out.writeInt(profile.getBackgroundColor());
+		writeString(profile.getPanel());
+		out.writeInt(profile.getPanelBackgroundColor());
+		out.writeInt(profile.getPoints());
+		out.writeInt(profile.getLevel());
+		out.writeInt(profile.getLevelFloor());
+		out.writeInt(profile.getLevelCeiling());
+		out.writeInt(profile.getProgress());
+		out.writeInt(profile.getPlatinum());
+		out.writeInt(profile.getGold());
+		out.writeInt(profile.getSilver());
+		out.writeInt(profile.getBronze());
+		return put(PROFILE, profile.getJid(), null, 0, PsnUtils.NO_DATE);
+	}
+
+	/**
+	 * Puts game.
+	 * 
+	 * @param game
+	 *            game to add
+	 * @return true, if written. False if same as newest version.
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	public synchronized boolean putGame(PsnGameOfficial game)
+			throws IOException {
+		header(GAME, game.getJid(), game.getGameId(), 0);
+		out.writeByte(ordinal(game.getPlatform()));
+		out.writeInt(game.getPlatinum());
+		out.writeInt(game.getGold());
+		out.writeInt(game.getSilver());
+		out.writeInt(game.getBronze());
+		writeString(game.getLastUpdated());
+		out.writeLong(game.getLastUpdatedMillis());
+		return put(GAME, game.getJid(), game.getGameId(), 0, PsnUtils.NO_DATE);
+	}
+
+	/**
+	 * Puts trophy.
+	 * 
+	 * @param trophy
+	 *            trophy to add
+	 * @return true, if written. False if same as newest version.
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	public synchronized boolean putTrophy(PsnTrophyOfficial trophy)
+			throws IOException {
+		header(TROPHY, trophy.getJid(), trophy.getGameId(), trophy.getIndex());
+		out.writeByte(ordinal(trophy.getType()));
+		out.writeByte(ordinal(trophy.getPlatform()));
+		writeString(trophy.getDateEarned());
+		out.writeLong(trophy.getDateEarnedMillis());
+		out.writeBoolean(trophy.isReceived());
+		return put(TROPHY, trophy.getJid(), trophy.getGameId(),
+				trophy.getIndex(), trophy.getDateEarnedMillis());
+	}
+
+	/**
+	 * Puts all trophies.
+	 * 
+	 * @param trophies
+	 *            trophies to add
+	 * @return number of trophies written
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	public synchronized int putTrophies(
+			Collection<? extends PsnTrophyOfficial> trophies)
+			throws IOException {
+		int written = 0;
+		for (PsnTrophyOfficial trophy : trophies)
+			if (putTrophy(trophy)) written++;
+		return written;
+	}
+
+	/**
+	 * Gets profile of jid.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @return newest profile, or null if not found
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	public synchronized PsnProfile getProfile(String jid) throws IOException {
+		return (PsnProfile) first(find(KEY, key(PROFILE, jid, null, 0),
+				PROFILE, jid, null));
+	}
+
+	/**
+	 * Gets game of jid.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @return newest game, or null if not found
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	public synchronized PsnGameOfficial getGame(String jid, String gameId)
+			throws IOException {
+		return (PsnGameOfficial) first(find(KEY, key(GAME, jid, gameId, 0),
+				GAME, jid, gameId));
+	}
+
+	/**
+	 * Gets games of jid.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @return games in order first put, empty if none
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized List<PsnGameOfficial> getGames(String jid)
+			throws IOException {
+		return (List<PsnGameOfficial>) (List<?>) find(JID, hash(jid), GAME,
+				jid, null);
+	}
+
+	/**
+	 * Gets trophies of jid.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @return trophies in order first put, empty if none
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized List<PsnTrophyOfficial> getTrophies(String jid)
+			throws IOException {
+		return (List<PsnTrophyOfficial>) (List<?>) find(JID, hash(jid),
+				TROPHY, jid, null);
+	}
+
+	/**
+	 * Gets trophies of jid in game.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @return trophies in order first put, empty if none
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized List<PsnTrophyOfficial> getTrophies(String jid,
+			String gameId) throws IOException {
+		return (List<PsnTrophyOfficial>) (List<?>) find(JID, hash(jid),
+				TROPHY, jid, gameId);
+	}
+
+	/**
+	 * Gets trophies of game for all jids.
+	 * 
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @return trophies in order first put, empty if none
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized List<PsnTrophyOfficial> getGameTrophies(String gameId)
+			throws IOException {
+		return (List<PsnTrophyOfficial>) (List<?>) find(GAME_ID,
+				hash(gameId), TROPHY, null, gameId);
+	}
+
+	/**
+	 * Gets trophies of all jids earned in range of time.
+	 * 
+	 * @param from
+	 *            milliseconds since epoch, inclusive
+	 * @param to
+	 *            milliseconds since epoch, exclusive
+	 * @return trophies in order of date earned, empty if none
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	public synchronized List<PsnTrophyOfficial> getTrophiesEarned(long from,
+			long to) throws IOException {
+		checkOpen();
+		List<PsnTrophyOfficial> trophies = new ArrayList<PsnTrophyOfficial>();
+		if (from >= to) return trophies;
+
+		// runs and pending are each sorted by date
+		long[] addresses = range(EARNED, from, to);
+		for (long address : addresses) {
+			byte[] record = read(address);
+			DataInputStream in = input(record);
+			in.readByte();
+			String jid = readString(in);
+			String gameId = readString(in);
+			int index = in.readInt();
+			// an older version of a trophy may have a different date
+			if (newest(key(TROPHY, jid, gameId, index), TROPHY, jid, gameId,
+					index) != address) continue;
+			trophies.add((PsnTrophyOfficial) decode(record));
+		}
+		Collections.sort(trophies, new Comparator<PsnTrophyOfficial>() {
+
+			@Override
+			public int compare(PsnTrophyOfficial a, PsnTrophyOfficial b) {
+				long x = a.getDateEarnedMillis();
+				long y = b.getDateEarnedMillis();
+				return x < y ? -1 : (x == y ? 0 : 1);
+			}
+
+		});
+		return trophies;
+	}
+
+	/**
+	 * Forces records to disk and writes index entries kept in memory as a new
+	 * run file, so next open doesn't read them again. Runs of similar size
+	 * are then merged. Called automatically once enough entries are pending.
+	 * 
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	public synchronized void checkpoint() throws IOException {
+		checkOpen();
+		segments.get(segments.size() - 1).force();
+		if (pendingTotal == 0) return;
+
+		runs.add(writeRun(generation, generation, null, null));
+		generation++;
+		for (int kind = 0; kind < KINDS; kind++) {
+			pending.get(kind).clear();
+			pendingCounts[kind] = 0;
+		}
+		pendingTotal = 0;
+
+		// each run is kept over twice the size of the next newer one
+		int n;
+		while ((n = runs.size()) > 1
+				&& runs.get(n - 2).size <= runs.get(n - 1).size * 2) {
+			Run older = runs.get(n - 2);
+			Run newer = runs.get(n - 1);
+			runs.set(n - 2, writeRun(older.first, newer.last, older, newer));
+			runs.remove(n - 1);
+			// may still be mapped on some platforms, removed on open
+			older.file.delete();
+			newer.file.delete();
+		}
+	}
+
+	/**
+	 * Checkpoints and closes index. Mapped files are released once
+	 * collected.
+	 * 
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) return;
+		checkpoint();
+		closed = true;
+	}
+
+	private boolean put(byte type, String jid, String gameId, int index,
+			long earned) throws IOException {
+		checkOpen();
+		out.flush();
+		byte[] record = bytes.toByteArray();
+		long key = key(type, jid, gameId, index);
+		long newest = newest(key, type, jid, gameId, index);
+		if (newest != -1 && Arrays.equals(read(newest), record)) return false;
+
+		long address = append(record);
+		add(KEY, key, address);
+		add(JID, hash(jid), address);
+		if (gameId != null) add(GAME_ID, hash(gameId), address);
+		if (earned != PsnUtils.NO_DATE) add(EARNED, earned, address);
+		if (pendingTotal >= MAX_PENDING) checkpoint();
+		return true;
+	}
+
+	private long append(byte[] record) throws IOException {
+		int size = 4 + record.length;
+		if (SEGMENT_HEADER + size > segmentSize) throw new IOException(
+				"Record larger than segment");
+		MappedByteBuffer segment = segments.get(segments.size() - 1);
+		if (position + size > segment.capacity()) {
+			segment.force();
+			segment = createSegment(segments.size());
+			segments.add(segment);
+			position = SEGMENT_HEADER;
+		}
+
+		long address = address(segments.size() - 1, position);
+		ByteBuffer buffer = segment.duplicate();
+		buffer.position(position);
+		buffer.putInt(record.length);
+		buffer.put(record);
+		position += size;
+		// end is only moved once record is written
+		segment.putInt(8, position);
+		return address;
+	}
+
+	private void add(int kind, long key, long address) {
+		Long boxed = Long.valueOf(key);
+		TreeMap<Long, Postings> map = pending.get(kind);
+		Postings postings = map.get(boxed);
+		if (postings == null) map.put(boxed, postings = new Postings());
+		postings.add(address);
+		pendingCounts[kind]++;
+		pendingTotal++;
+	}
+
+	/**
+	 * Gets newest versions of records with key, filtered by type, jid and game
+	 * id. Each record is only returned once, in order first put.
+	 */
+	private List<Object> find(int kind, long key, byte type, String jid,
+			String gameId) throws IOException {
+		checkOpen();
+		// addresses are in order put, so later versions replace earlier ones
+		Map<String, Long> newest = new LinkedHashMap<String, Long>();
+		for (long address : lookup(kind, key)) {
+			DataInputStream in = input(read(address));
+			if (in.readByte() != type) continue;
+			String recordJid = readString(in);
+			String recordGameId = readString(in);
+			int index = in.readInt();
+			if (jid != null && !jid.equals(recordJid)) continue;
+			if (gameId != null && !gameId.equals(recordGameId)) continue;
+			newest.put(recordJid + '\u0000' + recordGameId + '\u0000' + index,
+					Long.valueOf(address));
+		}
+
+		List<Object> records = new ArrayList<Object>(newest.size());
+		for (Long address : newest.values())
+			records.add(decode(read(address.longValue())));
+		return records;
+	}
+
+	private static Object first(List<Object> records) {
+		return records.isEmpty() ? null : records.get(0);
+	}
+
+	// address of newest version of record, or -1
+	private long newest(long key, byte type, String jid, String gameId,
+			int index) throws IOException {
+		long newest = -1;
+		for (long address : lookup(KEY, key)) {
+			DataInputStream in = input(read(address));
+			if (in.readByte() == type && equal(jid, readString(in))
+					&& equal(gameId, readString(in)) && in.readInt() == index) newest = address;
+		}
+		return newest;
+	}
+
+	private long[] lookup(int kind, long key) {
+		Postings addresses = new Postings();
+		// runs oldest first, then pending, so addresses are in order put
+		for (Run run : runs) {
+			LongBuffer entries = run.entries[kind];
+			int size = entries.limit() / 2;
+			for (int i = lowerBound(entries, key); i < size
+					&& entries.get(i * 2) == key; i++)
+				addresses.add(entries.get(i * 2 + 1));
+		}
+		Postings postings = pending.get(kind).get(Long.valueOf(key));
+		if (postings != null) for (int i = 0; i < postings.size; i++)
+			addresses.add(postings.addresses[i]);
+		return Arrays.copyOf(addresses.addresses, addresses.size);
+	}
+
+	private long[] range(int kind, long from, long to) {
+		Postings addresses = new Postings();
+		for (Run run : runs) {
+			LongBuffer entries = run.entries[kind];
+			int end = lowerBound(entries, to);
+			for (int i = lowerBound(entries, from); i < end; i++)
+				addresses.add(entries.get(i * 2 + 1));
+		}
+		SortedMap<Long, Postings> map = pending.get(kind).subMap(
+				Long.valueOf(from), Long.valueOf(to));
+		for (Postings postings : map.values())
+			for (int i = 0; i < postings.size; i++)
+				addresses.add(postings.addresses[i]);
+		return Arrays.copyOf(addresses.addresses, addresses.size);
+	}
+
+	// first entry with key greater or equal
+	private static int lowerBound(LongBuffer run, long key) {
+		int low = 0;
+		int high = run.limit() / 2;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (run.get(mid * 2) < key) low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * Writes pending entries, or entries of older and newer run merged, as
+	 * run file of generations.
+	 */
+	private Run writeRun(int first, int last, Run older, Run newer)
+			throws IOException {
+		File tmp = new File(dir, "run.tmp");
+		FileOutputStream stream = new FileOutputStream(tmp);
+		try {
+			DataOutputStream index = new DataOutputStream(
+					new BufferedOutputStream(stream, 64 * 1024));
+			index.writeInt(INDEX_MAGIC);
+			index.writeInt(VERSION);
+			if (newer == null) {
+				index.writeInt(segments.size() - 1);
+				index.writeInt(position);
+				for (int kind = 0; kind < KINDS; kind++)
+					index.writeInt(pendingCounts[kind]);
+				for (int kind = 0; kind < KINDS; kind++)
+					writePending(index, kind);
+			} else {
+				index.writeInt(newer.segment);
+				index.writeInt(newer.offset);
+				for (int kind = 0; kind < KINDS; kind++)
+					index.writeInt(older.count(kind) + newer.count(kind));
+				for (int kind = 0; kind < KINDS; kind++)
+					merge(index, older.entries[kind], newer.entries[kind]);
+			}
+			index.flush();
+			stream.getFD().sync();
+		} finally {
+			stream.close();
+		}
+
+		File file = runFile(first, last);
+		if (!tmp.renameTo(file)) throw new IOException("Couldn't rename "
+				+ tmp + " to " + file);
+		int[] header = readHeader(file);
+		if (header == null) throw new IOException("Couldn't read " + file);
+		return mapRun(file, first, last, header);
+	}
+
+	// writes pending entries of kind in key order
+	private void writePending(DataOutputStream index, int kind)
+			throws IOException {
+		for (Map.Entry<Long, Postings> entry : pending.get(kind).entrySet()) {
+			long key = entry.getKey().longValue();
+			Postings postings = entry.getValue();
+			for (int n = 0; n < postings.size; n++) {
+				index.writeLong(key);
+				index.writeLong(postings.addresses[n]);
+			}
+		}
+	}
+
+	// writes entries of both runs in key order
+	private static void merge(DataOutputStream index, LongBuffer older,
+			LongBuffer newer) throws IOException {
+		int olderSize = older.limit() / 2;
+		int newerSize = newer.limit() / 2;
+		int i = 0;
+		int n = 0;
+		while (i < olderSize || n < newerSize) {
+			LongBuffer run;
+			int entry;
+			// equal keys from older run first
+			if (n == newerSize
+					|| (i < olderSize && older.get(i * 2) <= newer.get(n * 2))) {
+				run = older;
+				entry = i++;
+			} else {
+				run = newer;
+				entry = n++;
+			}
+			index.writeLong(run.get(entry * 2));
+			index.writeLong(run.get(entry * 2 + 1));
+		}
+	}
+
+	/**
+	 * Maps chain of runs from oldest to newest generation. Runs which were
+	 * already merged into a larger one are removed.
+	 * 
+	 * @return segment and offset covered by runs, or null if none
+	 */
+	private int[] loadIndex() throws IOException {
+		File[] files = dir.listFiles();
+		if (files == null) files = new File[0];
+		int[][] generations = new int[files.length][];
+		int start = Integer.MAX_VALUE;
+		for (int i = 0; i < files.length; i++) {
+			generations[i] = parseRunFile(files[i].getName());
+			if (generations[i] == null) continue;
+			start = Math.min(start, generations[i][0]);
+			generation = Math.max(generation, generations[i][1] + 1);
+		}
+
+		// largest run starting at each generation, a crash while merging
+		// leaves the runs it merged
+		List<Integer> chain = new ArrayList<Integer>();
+		boolean[] used = new boolean[files.length];
+		for (int next = start;;) {
+			int best = -1;
+			for (int i = 0; i < files.length; i++)
+				if (generations[i] != null && generations[i][0] == next
+						&& (best == -1 || generations[i][1] > generations[best][1])) best = i;
+			if (best == -1) break;
+			used[best] = true;
+			chain.add(Integer.valueOf(best));
+			next = generations[best][1] + 1;
+		}
+		for (int i = 0; i < files.length; i++)
+			if (generations[i] != null && !used[i]) files[i].delete();
+		if (chain.isEmpty()) return null;
+
+		// headers are checked before mapping, so a bad chain can be removed
+		int[][] headers = new int[chain.size()][];
+		boolean valid = true;
+		for (int i = 0; i < headers.length && valid; i++)
+			valid = (headers[i] = readHeader(files[chain.get(i).intValue()])) != null;
+		int[] covered = valid ? new int[] { headers[headers.length - 1][2],
+				headers[headers.length - 1][3] } : null;
+		if (covered == null || covered[0] >= segments.size()
+				|| covered[1] > segments.get(covered[0]).getInt(8)) {
+			// index is ahead of records, rebuild it
+			for (Integer i : chain)
+				files[i.intValue()].delete();
+			return null;
+		}
+
+		for (int i = 0; i < headers.length; i++) {
+			int file = chain.get(i).intValue();
+			runs.add(mapRun(files[file], generations[file][0],
+					generations[file][1], headers[i]));
+		}
+		return covered;
+	}
+
+	// header of run file, or null if not a complete run
+	private static int[] readHeader(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			long length = raf.length();
+			if (length < INDEX_HEADER) return null;
+			int[] header = new int[INDEX_HEADER / 4];
+			for (int i = 0; i < header.length; i++)
+				header[i] = raf.readInt();
+			if (header[0] != INDEX_MAGIC || header[1] != VERSION) return null;
+			long end = INDEX_HEADER;
+			for (int kind = 0; kind < KINDS; kind++)
+				end += header[4 + kind] * 16L;
+			return end == length ? header : null;
+		} finally {
+			raf.close();
+		}
+	}
+
+	private static Run mapRun(File file, int first, int last, int[] header)
+			throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			MappedByteBuffer buffer = raf.getChannel().map(MapMode.READ_ONLY,
+					0, raf.length());
+			Run run = new Run(file, first, last, header[2], header[3]);
+			int start = INDEX_HEADER;
+			for (int kind = 0; kind < KINDS; kind++) {
+				int count = header[4 + kind];
+				buffer.position(start);
+				ByteBuffer slice = buffer.slice();
+				slice.limit(count * 16);
+				run.entries[kind] = slice.asLongBuffer();
+				run.size += count;
+				start += count * 16;
+			}
+			return run;
+		} finally {
+			raf.close();
+		}
+	}
+
+	// adds index entries of records after index file
+	private void scan(int segment, int offset) throws IOException {
+		for (; segment < segments.size(); segment++) {
+			MappedByteBuffer buffer = segments.get(segment);
+			int end = buffer.getInt(8);
+			while (offset < end) {
+				long address = address(segment, offset);
+				byte[] record = read(address);
+				DataInputStream in = input(record);
+				byte type = in.readByte();
+				String jid = readString(in);
+				String gameId = readString(in);
+				int index = in.readInt();
+				add(KEY, key(type, jid, gameId, index), address);
+				add(JID, hash(jid), address);
+				if (gameId != null) add(GAME_ID, hash(gameId), address);
+				if (type == TROPHY) {
+					long earned = ((PsnTrophyOfficial) decode(record))
+							.getDateEarnedMillis();
+					if (earned != PsnUtils.NO_DATE) add(EARNED, earned, address);
+				}
+				offset += 4 + record.length;
+			}
+			offset = SEGMENT_HEADER;
+		}
+	}
+
+	private MappedByteBuffer mapSegment(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			long length = raf.length();
+			MappedByteBuffer buffer = raf.getChannel().map(MapMode.READ_WRITE,
+					0, length);
+			if (length < SEGMENT_HEADER || buffer.getInt(0) != SEGMENT_MAGIC
+					|| buffer.getInt(4) != VERSION) throw new IOException(
+					"Not a segment file: " + file);
+			return buffer;
+		} finally {
+			raf.close();
+		}
+	}
+
+	private MappedByteBuffer createSegment(int segment) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(segmentFile(segment), "rw");
+		try {
+			raf.setLength(segmentSize);
+			MappedByteBuffer buffer = raf.getChannel().map(MapMode.READ_WRITE,
+					0, segmentSize);
+			buffer.putInt(0, SEGMENT_MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putInt(8, SEGMENT_HEADER);
+			return buffer;
+		} finally {
+			raf.close();
+		}
+	}
+
+	private byte[] read(long address) {
+		ByteBuffer buffer = segments.get((int) (address >>> 32)).duplicate();
+		buffer.position((int) address);
+		byte[] record = new byte[buffer.getInt()];
+		buffer.get(record);
+		return record;
+	}
+
+	private Object decode(byte[] record) throws IOException {
+		DataInputStream in = input(record);
+		byte type = in.readByte();
+		String jid = PsnUtils.STRING_POOL.intern(readString(in));
+		String gameId = PsnUtils.STRING_POOL.intern(readString(in));
+		int index = in.readInt();
+
+		if (type == PROFILE) {
+			PsnProfile.Builder builder = new PsnProfile.Builder().setJid(jid);
+			String language = readString(in);
+			String country = readString(in);
+			if (country != null) builder.setCountry(new Locale(language,
+					country));
+			return builder.setAvatar(readString(in))
+					.setAboutMe(readString(in)).setPP(in.readBoolean())
+					.setBackgroundColor(in.readInt())
+					.setPanel(readString(in))
+					.setPanelBackgroundColor(in.readInt())
+					.setPoints(in.readInt()).setLevel(in.readInt())
+					.setLevelFloor(in.readInt())
+					.setLevelCeiling(in.readInt())
+					.setProgress(in.readInt()).setPlatinum(in.readInt())
+					.setGold(in.readInt()).setSilver(in.readInt())
+					.setBronze(in.readInt()).build();
+		} else if (type == GAME) {
+			PsnGameOfficial.Builder builder = new PsnGameOfficial.Builder(jid);
+			builder.setGameId(gameId);
+			builder.setPlatform(platform(in.readByte()));
+			builder.setPlatinum(in.readInt());
+			builder.setGold(in.readInt());
+			builder.setSilver(in.readInt());
+			builder.setBronze(in.readInt());
+			builder.setLastUpdated(readString(in), in.readLong());
+			return builder.build();
+		} else if (type == TROPHY) {
+			PsnTrophyOfficial.Builder builder = new PsnTrophyOfficial.Builder(
+					jid);
+			builder.setGameId(gameId).setIndex(index);
+			byte trophy = in.readByte();
+			builder.setType(trophy < 0 ? null : TYPES[trophy]);
+			builder.setPlatform(platform(in.readByte()));
+			builder.setDateEarned(readString(in), in.readLong());
+			builder.setReceieved(in.readBoolean());
+			return builder.build();
+		}
+		throw new IOException("Unknown record type " + type);
+	}
+
+	private void header(byte type, String jid, String gameId, int index)
+			throws IOException {
+		bytes.reset();
+		out.writeByte(type);
+		writeString(jid);
+		writeString(gameId);
+		out.writeInt(index);
+	}
+
+	private void writeString(String str) throws IOException {
+		out.writeBoolean(str != null);
+		if (str != null) out.writeUTF(str);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static DataInputStream input(byte[] record) {
+		return new DataInputStream(new ByteArrayInputStream(record));
+	}
+
+	private static Platform platform(byte ordinal) {
+		return ordinal < 0 ? null : PLATFORMS[ordinal];
+	}
+
+	private static byte ordinal(Enum<?> value) {
+		return (byte) (value == null ? -1 : value.ordinal());
+	}
+
+	private static boolean equal(String a, String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	private static long address(int segment, int offset) {
+		return ((long) segment << 32) | offset;
+	}
+
+	// 64 bit FNV-1a of record key
+	private static long key(byte type, String jid, String gameId, int index) {
+		long h = hash(hash(0xcbf29ce484222325L ^ type, jid), gameId);
+		return (h ^ index) * 0x100000001b3L;
+	}
+
+	private static long hash(String str) {
+		return hash(0xcbf29ce484222325L, str);
+	}
+
+	private static long hash(long h, String str) {
+		if (str != null) for (int i = 0; i < str.length(); i++)
+			h = (h ^ str.charAt(i)) * 0x100000001b3L;
+		// separator, so "ab" + "c" differs from "a" + "bc"
+		return (h ^ 0xFFFF) * 0x100000001b3L;
+	}
+
+	private File segmentFile(int segment) {
+		return new File(dir, String.format("segment-%05d.log",
+				Integer.valueOf(segment)));
+	}
+
+	private File runFile(int first, int last) {
+		return new File(dir, "run-" + first + "-" + last + ".dat");
+	}
+
+	// first and last generation of run file, or null if not a run
+	private static int[] parseRunFile(String name) {
+		if (!name.startsWith("run-") || !name.endsWith(".dat")) return null;
+		int dash = name.indexOf('-', 4);
+		if (dash == -1) return null;
+		try {
+			return new int[] { Integer.parseInt(name.substring(4, dash)),
+					Integer.parseInt(name.substring(dash + 1,
+							name.length() - 4)) };
+		} catch (NumberFormatException e) {
+			// not ours
+			return null;
+		}
+	}
+
+	private void checkOpen() throws IOException {
+		if (closed) throw new IOException("Index is closed");
+	}
+
+	/**
+	 * Run file mapped into memory. Holds sorted key and address pairs of each
+	 * kind of index entry.
+	 */
+	private static final class Run {
+		final File file;
+		final int first;
+		final int last;
+		// segment and offset covered
+		final int segment;
+		final int offset;
+		final LongBuffer[] entries = new LongBuffer[KINDS];
+		long size;
+
+		Run(File file, int first, int last, int segment, int offset) {
+			this.file = file;
+			this.first = first;
+			this.last = last;
+			this.segment = segment;
+			this.offset = offset;
+		}
+
+		int count(int kind) {
+			return entries[kind].limit() / 2;
+		}
+	}
+
+	/**
+	 * Growable list of addresses.
+	 */
+	private static final class Postings {
+		long[] addresses = new long[2];
+		int size;
+
+		void add(long address) {
+			if (size == addresses.length) addresses = Arrays.copyOf(addresses,
+					size << 1);
+			addresses[size++] = address;
+		}
+	}
+
+}
@@ -0,0 +1,381 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.snc.sen.psn;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.krobothsoftware.snc.ClientException;
+import com.krobothsoftware.snc.sen.Platform;
+import com.krobothsoftware.snc.sen.psn.model.PsnGameOfficial;
+import com.krobothsoftware.snc.sen.psn.model.PsnTrophyOfficial;
+
+/**
+ * Keeps <i>Official</i> trophies of jids in sync without reading every game
+ * each time. Each jid has a {@link Snapshot} with a high water mark, the
+ * newest date earned seen so far. {@link #sync(String)} only asks for
+ * trophies earned since that mark with
+ * {@link PlaystationNetwork#getOfficialTrophyListSince(String, int, String, Platform...)}
+ * and pages until caught up, so requests grow with new trophies instead of
+ * with the size of the library.
+ * 
+ * <p>
+ * A full sync is only done for a jid without a snapshot, or when a gap is
+ * found in the deltas: a full page which can't be paged past because it
+ * isn't in date order or doesn't move the mark forward, or an earned trophy
+ * whose date couldn't be read. A full sync only reads trophies of games
+ * updated after the mark.
+ * </p>
+ * 
+ * <p>
+ * A trophy is earned when {@link PsnTrophyOfficial#isReceived()}, which the
+ * <i>Official</i> handlers set for every trophy with a date earned. A trophy
+ * whose received flag or date earned differs from the kept one is returned
+ * as changed.
+ * </p>
+ * 
+ * <pre>
+ * PsnTrophySync sync = new PsnTrophySync(psn);
+ * sync.putSnapshot(savedSnapshot);
+ * List&lt;PsnTrophyOfficial&gt; changed = sync.sync(jid);
+ * save(sync.getSnapshot(jid));
+ * </pre>
+ * 
+ * <p>
+ * Sync is thread safe. Requests are made without holding a lock and results
+ * are merged into the snapshot at the end, so snapshots may be read while a
+ * sync is running. Two syncs of the same jid at once are safe but repeat
+ * each other's requests.
+ * </p>
+ * 
+ * @author Kyle Kroboth
+ * @since SEN-PSN 1.0.1
+ */
+public class PsnTrophySync {
+
+	/**
+	 * Number of trophies asked for in each delta request.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 64;
+
+	// since is asked with a second of overlap, so it works whether service
+	// treats it as inclusive or exclusive. Repeated trophies are merged.
+	private static final long OVERLAP = 1000L;
+
+	private final Logger log = LoggerFactory.getLogger(PsnTrophySync.class);
+	private final ConcurrentMap<String, Snapshot> snapshots = new ConcurrentHashMap<String, Snapshot>();
+	private final PlaystationNetwork psn;
+	private final int pageSize;
+	private final Platform[] platforms;
+
+	/**
+	 * Creates new sync with {@link #DEFAULT_PAGE_SIZE}.
+	 * 
+	 * @param psn
+	 *            network to read trophies with
+	 * @param platforms
+	 *            platforms of trophies. PS3 if none given.
+	 * @since SEN-PSN 1.0.1
+	 */
+	public PsnTrophySync(PlaystationNetwork psn, Platform... platforms) {
+		this(psn, DEFAULT_PAGE_SIZE, platforms);
+	}
+
+	/**
+	 * Creates new sync.
+	 * 
+	 * @param psn
+	 *            network to read trophies with
+	 * @param pageSize
+	 *            trophies and games asked for in each request
+	 * @param platforms
+	 *            platforms of trophies. PS3 if none given.
+	 * @throws IllegalArgumentException
+	 *             if page size isn't positive
+	 * @since SEN-PSN 1.0.1
+	 */
+	public PsnTrophySync(PlaystationNetwork psn, int pageSize,
+			Platform... platforms) {
+		if (pageSize < 1) throw new IllegalArgumentException(
+				"Page size must be one or greater");
+		this.psn = psn;
+		this.pageSize = pageSize;
+		this.platforms = platforms;
+	}
+
+	/**
+	 * Brings snapshot of jid up to date. Only trophies earned since the last
+	 * sync are read, unless jid has no snapshot or a gap is found.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @return trophies which are new or changed, in order read
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws PlaystationNetworkException
+	 *             if jid is invalid
+	 * @throws ClientException
+	 *             if parser encountered an error
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<PsnTrophyOfficial> sync(String jid) throws IOException,
+			PlaystationNetworkException, ClientException {
+		Snapshot snapshot = snapshots.get(jid);
+		if (snapshot == null) {
+			snapshot = new Snapshot(jid);
+			Snapshot existing = snapshots.putIfAbsent(jid, snapshot);
+			if (existing != null) snapshot = existing;
+		}
+
+		// without a mark there is nothing to page from
+		if (snapshot.isSynced()
+				&& snapshot.getHighWaterMark() != PsnUtils.NO_DATE) {
+			List<PsnTrophyOfficial> changed = syncSince(snapshot);
+			if (changed != null) return changed;
+			log.info("Gap in trophies of [{}], doing full sync", jid);
+		}
+		return syncFull(snapshot);
+	}
+
+	/**
+	 * Gets snapshot of jid. Snapshot is serializable, so it may be saved and
+	 * given back with {@link #putSnapshot(Snapshot)} later.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @return snapshot, or null if jid was never synced
+	 * @since SEN-PSN 1.0.1
+	 */
+	public Snapshot getSnapshot(String jid) {
+		return snapshots.get(jid);
+	}
+
+	/**
+	 * Adds saved snapshot, so next sync of its jid only reads new trophies.
+	 * 
+	 * @param snapshot
+	 *            snapshot from {@link #getSnapshot(String)}
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void putSnapshot(Snapshot snapshot) {
+		snapshots.put(snapshot.jid, snapshot);
+	}
+
+	/**
+	 * Removes snapshot of jid. Next sync of jid is a full sync.
+	 * 
+	 * @param jid
+	 *            jid
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void removeSnapshot(String jid) {
+		snapshots.remove(jid);
+	}
+
+	/**
+	 * Pages through trophies since high water mark.
+	 * 
+	 * @return changed trophies, or null if a gap was found
+	 */
+	private List<PsnTrophyOfficial> syncSince(Snapshot snapshot)
+			throws IOException, PlaystationNetworkException, ClientException {
+		List<PsnTrophyOfficial> delta = new ArrayList<PsnTrophyOfficial>();
+		long since = snapshot.getHighWaterMark();
+		long mark = since;
+
+		while (true) {
+			List<PsnTrophyOfficial> page = psn.getOfficialTrophyListSince(
+					snapshot.jid, pageSize,
+					PsnUtils.formatOfficialDate(overlap(since)), platforms);
+			long previous = Long.MIN_VALUE;
+			boolean ordered = true;
+			for (PsnTrophyOfficial trophy : page) {
+				long date = trophy.getDateEarnedMillis();
+				if (date == PsnUtils.NO_DATE) {
+					if (trophy.isReceived()) return null;
+					continue;
+				}
+				if (date < previous) ordered = false;
+				previous = date;
+				if (date > mark) mark = date;
+			}
+			delta.addAll(page);
+			if (page.size() < pageSize) break;
+			// can't tell what is between pages
+			if (!ordered || mark <= since) return null;
+			since = mark;
+		}
+
+		List<PsnTrophyOfficial> changed = snapshot.merge(delta, mark, false);
+		log.debug("Synced [{}] since mark, {} changed", snapshot.jid,
+				String.valueOf(changed.size()));
+		return changed;
+	}
+
+	private static long overlap(long since) {
+		return since < Long.MIN_VALUE + OVERLAP ? Long.MIN_VALUE : since
+				- OVERLAP;
+	}
+
+	private List<PsnTrophyOfficial> syncFull(Snapshot snapshot)
+			throws IOException, PlaystationNetworkException, ClientException {
+		// games not updated since mark already have all of their trophies
+		long since = snapshot.isSynced() ? snapshot.getHighWaterMark()
+				: PsnUtils.NO_DATE;
+		long mark = since;
+		List<PsnTrophyOfficial> trophies = new ArrayList<PsnTrophyOfficial>();
+
+		for (int start = 1;; start += pageSize) {
+			List<PsnGameOfficial> games = psn.getOfficialGameList(snapshot.jid,
+					start, pageSize, platforms);
+			for (PsnGameOfficial game : games) {
+				long updated = game.getLastUpdatedMillis();
+				if (updated != PsnUtils.NO_DATE && updated <= since) continue;
+				for (PsnTrophyOfficial trophy : psn.getOfficialTrophyList(
+						snapshot.jid, game.getGameId())) {
+					long date = trophy.getDateEarnedMillis();
+					if (date > mark) mark = date;
+					trophies.add(trophy);
+				}
+			}
+			if (games.size() < pageSize) break;
+		}
+
+		List<PsnTrophyOfficial> changed = snapshot.merge(trophies, mark, true);
+		log.debug("Full sync of [{}], {} changed", snapshot.jid,
+				String.valueOf(changed.size()));
+		return changed;
+	}
+
+	/**
+	 * Trophies of a jid and the newest date earned among them. Trophies are
+	 * kept by game id and index, so a trophy read again replaces the old one.
+	 * 
+	 * @author Kyle Kroboth
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final class Snapshot implements Jid, Serializable {
+		private static final long serialVersionUID = -2186542397713934717L;
+		private final String jid;
+		private final Map<String, PsnTrophyOfficial> trophies = new LinkedHashMap<String, PsnTrophyOfficial>();
+		private long highWaterMark = PsnUtils.NO_DATE;
+		private boolean synced;
+
+		/**
+		 * Creates empty snapshot. First sync of jid is a full sync.
+		 * 
+		 * @param jid
+		 *            jid
+		 * @since SEN-PSN 1.0.1
+		 */
+		public Snapshot(String jid) {
+			this.jid = jid;
+		}
+
+		/**
+		 * @since SEN-PSN 1.0.1
+		 */
+		@Override
+		public String getJid() {
+			return jid;
+		}
+
+		/**
+		 * Checks if snapshot had a full sync, so deltas may be read.
+		 * 
+		 * @return true, if synced
+		 * @since SEN-PSN 1.0.1
+		 */
+		public synchronized boolean isSynced() {
+			return synced;
+		}
+
+		/**
+		 * Gets newest date earned in snapshot.
+		 * 
+		 * @return milliseconds since epoch, or {@link PsnUtils#NO_DATE} if
+		 *         none
+		 * @since SEN-PSN 1.0.1
+		 */
+		public synchronized long getHighWaterMark() {
+			return highWaterMark;
+		}
+
+		/**
+		 * Gets copy of trophies in snapshot.
+		 * 
+		 * @return trophies
+		 * @since SEN-PSN 1.0.1
+		 */
+		public synchronized List<PsnTrophyOfficial> getTrophies() {
+			return Collections.unmodifiableList(new ArrayList<PsnTrophyOfficial>(
+					trophies.values()));
+		}
+
+		/**
+		 * Gets number of trophies in snapshot.
+		 * 
+		 * @return size
+		 * @since SEN-PSN 1.0.1
+		 */
+		public synchronized int size() {
+			return trophies.size();
+		}
+
+		/**
+		 * Merges trophies and moves mark forward.
+		 * 
+		 * @return trophies which are new or differ from the ones kept
+		 */
+		synchronized List<PsnTrophyOfficial> merge(
+				List<PsnTrophyOfficial> read, long mark, boolean full) {
+			List<PsnTrophyOfficial> changed = new ArrayList<PsnTrophyOfficial>();
+			for (PsnTrophyOfficial trophy : read) {
+				String key = trophy.getGameId() + '/' + trophy.getIndex();
+				PsnTrophyOfficial old = trophies.put(key, trophy);
+				if (old == null
+						|| old.isReceived() != trophy.isReceived()
+						|| old.getDateEarnedMillis() != trophy
+								.getDateEarnedMillis()) changed.add(trophy);
+			}
+			if (mark > highWaterMark) highWaterMark = mark;
+			if (full) synced = true;
+			return changed;
+		}
+
+		private synchronized void writeObject(ObjectOutputStream out)
+				throws IOException {
+			out.defaultWriteObject();
+		}
+
+	}
+
+}
@@ -25,7 +25,9 @@ import java.util.regex.Pattern;
 
 import com.krobothsoftware.commons.network.value.Cookie;
 import com.krobothsoftware.commons.network.value.Cookie.Builder;
+import com.krobothsoftware.commons.parse.CharSlice;
 import com.krobothsoftware.commons.util.Base64;
+import com.krobothsoftware.commons.util.StringPool;
 
 /**
  * Utils for creating cookies, checking Ids, and other psn realated methods.
@@ -47,6 +49,31 @@ public final class PsnUtils {
 	 */
 	public static final String OFFICIAL_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss'Z'";
 
+	/**
+	 * Milliseconds since epoch of a missing date.
+	 * 
+	 * @see #parseDate(String)
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final long NO_DATE = Long.MIN_VALUE;
+
+	/**
+	 * Prefix of game and trophy images on the trophy server. Models keep image
+	 * urls as this shared prefix plus the rest of the url.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final String TROPHY_IMAGE_PREFIX = "http://trophy01.np.community.playstation.net/trophy/np/";
+
+	/**
+	 * Pool handlers use for ids and image names which repeat across games and
+	 * trophies. Pool is bounded, so it may be left in place during long
+	 * crawls.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final StringPool STRING_POOL = new StringPool(8192);
+
 	private PsnUtils() {
 
 	}
@@ -146,14 +173,116 @@ public final class PsnUtils {
 		return trophyImageLink.substring(index, index + 12);
 	}
 
+	/**
+	 * Parses date of trophies and games into milliseconds since epoch.
+	 * Accepts {@link #OFFICIAL_DATE_FORMAT} and the day first dates of the
+	 * country sites. Nothing is allocated unless the date is invalid.
+	 * 
+	 * @param ch
+	 *            characters
+	 * @param start
+	 *            start offset
+	 * @param length
+	 *            number of characters
+	 * @return milliseconds since epoch, or {@link #NO_DATE} if blank or not a
+	 *         known format
+	 * @see CharSlice#parseDate(char[], int, int)
+	 * @see CharSlice#parseDayMonthYear(char[], int, int)
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static long parseDate(char[] ch, int start, int length) {
+		int i = start;
+		int end = start + length;
+		while (i < end && ch[i] <= ' ')
+			i++;
+		if (i == end) return NO_DATE;
+		int digits = i;
+		while (digits < end && ch[digits] >= '0' && ch[digits] <= '9')
+			digits++;
+
+		try {
+			if (digits - i == 4) return CharSlice.parseDate(ch, start, length);
+			return CharSlice.parseDayMonthYear(ch, start, length);
+		} catch (IllegalArgumentException e) {
+			return NO_DATE;
+		}
+	}
+
+	/**
+	 * Parses date of trophies and games into milliseconds since epoch.
+	 * 
+	 * @param date
+	 *            date string, may be null
+	 * @return milliseconds since epoch, or {@link #NO_DATE}
+	 * @see #parseDate(char[], int, int)
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static long parseDate(String date) {
+		if (date == null) return NO_DATE;
+		return parseDate(date.toCharArray(), 0, date.length());
+	}
+
+	/**
+	 * Formats milliseconds since epoch in {@link #OFFICIAL_DATE_FORMAT} using
+	 * UTC. Fractions of a second are dropped.
+	 * 
+	 * @param millis
+	 *            milliseconds since epoch
+	 * @return official date
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static String formatOfficialDate(long millis) {
+		long days = floorDiv(millis, 86400000L);
+		int secs = (int) ((millis - days * 86400000L) / 1000);
+
+		// civil from days, era based
+		long z = days + 719468;
+		long era = floorDiv(z, 146097);
+		int doe = (int) (z - era * 146097);
+		int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		int mp = (5 * doy + 2) / 153;
+		int day = doy - (153 * mp + 2) / 5 + 1;
+		int month = mp < 10 ? mp + 3 : mp - 9;
+		long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+		char[] ch = new char[20];
+		pad(ch, 0, (int) year, 4);
+		ch[4] = '-';
+		pad(ch, 5, month, 2);
+		ch[7] = '-';
+		pad(ch, 8, day, 2);
+		ch[10] = 'T';
+		pad(ch, 11, secs / 3600, 2);
+		ch[13] = ':';
+		pad(ch, 14, secs / 60 % 60, 2);
+		ch[16] = ':';
+		pad(ch, 17, secs % 60, 2);
+		ch[19] = 'Z';
+		return new String(ch);
+	}
+
+	/**
+	 * Gets path of game or trophy image after <code>/trophy/np/</code>, which
+	 * is relative to {@link #TROPHY_IMAGE_PREFIX}.
+	 * 
+	 * @param trophyImageLink
+	 *            image link on any trophy server
+	 * @return image path
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static String getImagePathOf(String trophyImageLink) {
+		return trophyImageLink
+				.substring(trophyImageLink.indexOf("/trophy/np/") + 11);
+	}
+
 	/**
 	 * Gets the official date format used by <i>Official</i> methods.
 	 * 
 	 * @param date
 	 * @return official date format
 	 * @see #OFFICIAL_DATE_FORMAT
-	 * @deprecated Use {@link #OFFICIAL_DATE_FORMAT} to create a DateFormat
-	 *             instead.
+	 * @deprecated Use {@link #formatOfficialDate(long)} instead.
 	 * @since SEN-PSN 1.0
 	 */
 	@Deprecated
@@ -172,8 +301,8 @@ public final class PsnUtils {
 	 * @throws ParseException
 	 *             if the beginning of the specified string cannot be parsed.
 	 * @see #OFFICIAL_DATE_FORMAT
-	 * @deprecated Use {@link #OFFICIAL_DATE_FORMAT} to create a DateFormat
-	 *             instead.
+	 * @deprecated Use {@link #parseDate(String)}, or the parsed date of
+	 *             models, instead.
 	 * @since SEN-PSN 1.0
 	 */
 	@Deprecated
@@ -182,6 +311,19 @@ public final class PsnUtils {
 		return new SimpleDateFormat(OFFICIAL_DATE_FORMAT, locale).parse(date);
 	}
 
+	private static void pad(char[] ch, int offset, int value, int digits) {
+		for (int i = offset + digits - 1; i >= offset; i--) {
+			ch[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+	}
+
+	private static long floorDiv(long x, long y) {
+		long q = x / y;
+		if ((x % y != 0) && ((x ^ y) < 0)) q--;
+		return q;
+	}
+
 	private static String rightPad(String str, int size, char padChar) {
 		int pads = size - str.length();
 		StringBuilder builder = new StringBuilder(str);
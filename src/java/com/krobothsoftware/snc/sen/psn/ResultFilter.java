@@ -0,0 +1,59 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+package com.krobothsoftware.snc.sen.psn;
+
+/**
+ * Selects which games or trophies are kept while a list is parsed. Called
+ * with the model's builder once all requested fields are read and before the
+ * model is built, so rejected entries are never created.
+ * 
+ * <pre>
+ * psn.getOfficialTrophyList(jid, gameId,
+ * 		new ResultFilter&lt;PsnTrophyOfficial.Builder&gt;() {
+ * 
+ * 			&#064;Override
+ * 			public boolean accept(PsnTrophyOfficial.Builder builder) {
+ * 				return builder.type == Trophy.GOLD;
+ * 			}
+ * 		}, EnumSet.noneOf(PsnField.class));
+ * </pre>
+ * 
+ * <p>
+ * Builders are reused for every entry, so don't keep a reference to one.
+ * Fields which aren't public, such as image urls, are read with the builder's
+ * getters, i.e. <code>PsnGame.Builder.getImage()</code>.
+ * </p>
+ * 
+ * @param <B>
+ *            type of builder
+ * @author Kyle Kroboth
+ * @since SEN-PSN 1.0.1
+ * @see PsnField
+ */
+public interface ResultFilter<B> {
+
+	/**
+	 * Checks if entry should be kept.
+	 * 
+	 * @param builder
+	 *            builder holding fields of entry
+	 * @return true to build and keep entry, false to skip it
+	 * @since SEN-PSN 1.0.1
+	 */
+	boolean accept(B builder);
+
+}
@@ -17,9 +17,24 @@
 
 package com.krobothsoftware.snc.sen.psn;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 /**
  * Used for calculating psn trophy progress, points, and levels.
  * 
+ * <p>
+ * Bulk methods take arrays of counts or points, such as the rows of a
+ * leaderboard, and fill an output array. Levels are found with a binary
+ * search over a table of level points, and large batches may be split over
+ * an executor.
+ * </p>
+ * 
  * Special Thanks for morphingryno's guide <a href=
  * "http://www.ps3trophies.org/forum/games/18347-trophy-points-guide.html"
  * >Trophy Guide</a>
@@ -49,6 +64,16 @@ public final class TrophyCalculator {
 
 	private static final double PROGRESS = 100D;
 
+	// points level 1 to 27 start at, every level after is INCR_43 wide
+	private static final int[] LEVEL_TABLE = new int[27];
+	// smallest batch worth giving its own task
+	private static final int MIN_BATCH = 8192;
+
+	static {
+		for (int i = 0; i < LEVEL_TABLE.length; i++)
+			LEVEL_TABLE[i] = getLevelPoints(i + 1);
+	}
+
 	private TrophyCalculator() {
 
 	}
@@ -66,48 +91,36 @@ public final class TrophyCalculator {
 	 * @since SEN-PSN 1.0
 	 */
 	public static int getLevel(int points) {
-		if (points < LVL_2) return 1;
-		if (points < LVL_3) return 2;
-		if (points < LVL_4) return 3;
-		if (points < LVL_5) return 4;
-		if (points < LVL_6) return 5;
-
-		// level 12
-		if (points < LVL_12) return (int) (Math
-				.ceil(correctLevel((points - LVL_6) / INCR_12)) + 5D);
-
-		// level 27
-		if (points < LVL_27) return (int) (Math
-				.ceil(correctLevel((points - LVL_13) / INCR_27)) + 12D);
-
-		// level 43+
-		return (int) (Math.ceil(correctLevel((points - LVL_27) / INCR_43)) + 26D);
-
+		if (points >= LVL_27) return 27 + (points - (int) LVL_27)
+				/ (int) INCR_43;
+		int i = Arrays.binarySearch(LEVEL_TABLE, points);
+		// insertion point is index of next level, which is the level itself
+		int level = i >= 0 ? i + 1 : -i - 1;
+		return level == 0 ? 1 : level;
 	}
 
 	/**
 	 * Gets the progress from giving <code>points</code> of current level.
+	 * Progress is measured over the full width of the level, from
+	 * {@link #getLevelPoints(int)} of the level to that of the next one.
+	 * 
+	 * <p>
+	 * Since SEN-PSN 1.0.1 level 26, which is 10000 points wide (128000 to
+	 * 137999), is no longer measured as if it were {@link #INCR_27} wide, so
+	 * progress in that range is lower than before. i.e., 128001 points gave
+	 * <code>0.0125</code> and now gives <code>0.01</code>, and the level no
+	 * longer passes 100 percent before reaching level 27.
+	 * </p>
 	 * 
 	 * @param points
 	 * @return progress in percentage
 	 * @since SEN-PSN 1.0
 	 */
 	public static double getProgress(int points) {
-		double dpoints = points;
-		if (points < LVL_2) return dpoints / LVL_2 * PROGRESS;
-		if (points < LVL_3) return (dpoints - LVL_2) / (LVL_3 - LVL_2)
-				* PROGRESS;
-		if (points < LVL_4) return (dpoints - LVL_3) / (LVL_4 - LVL_3)
-				* PROGRESS;
-		if (points < LVL_5) return (dpoints - LVL_4) / (LVL_5 - LVL_4)
-				* PROGRESS;
-		if (points < LVL_6) return (dpoints - LVL_5) / (LVL_6 - LVL_5)
+		int level = getLevel(points);
+		long start = levelStart(level);
+		return (points - start) / (double) (levelStart(level + 1) - start)
 				* PROGRESS;
-		if (points < LVL_12) return (dpoints - LVL_6) / INCR_12 % 1D * PROGRESS;
-		if (points < LVL_27) return (dpoints - LVL_13) / INCR_27 % 1D
-				* PROGRESS;
-		return (dpoints - LVL_27) / INCR_43 % 1D * PROGRESS;
-
 	}
 
 	/**
@@ -228,10 +241,157 @@ public final class TrophyCalculator {
 	}
 
 	/**
-	 * Since a new level starts at 0.0, it needs to be incremented. If not it
-	 * stays the same
+	 * Calculates trophy points of each row. Same as
+	 * {@link #getTrophyPoints(int, int, int, int)} for each index.
+	 * 
+	 * @param bronze
+	 *            bronze counts
+	 * @param silver
+	 *            silver counts
+	 * @param gold
+	 *            gold counts
+	 * @param platinum
+	 *            platinum counts
+	 * @param points
+	 *            filled with points, may be one of the count arrays
+	 * @throws IllegalArgumentException
+	 *             if arrays aren't the same length
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static void getTrophyPoints(int[] bronze, int[] silver, int[] gold,
+			int[] platinum, int[] points) {
+		int n = points.length;
+		checkLength(bronze, n);
+		checkLength(silver, n);
+		checkLength(gold, n);
+		checkLength(platinum, n);
+		for (int i = 0; i < n; i++)
+			points[i] = platinum[i] * PLATINUM_POINTS + gold[i] * GOLD_POINTS
+					+ silver[i] * SILVER_POINTS + bronze[i] * BRONZE_POINTS;
+	}
+
+	/**
+	 * Calculates level and progress of each row. Same as
+	 * {@link #getLevel(int)} and {@link #getProgress(int)} for each index.
+	 * 
+	 * @param points
+	 *            trophy points
+	 * @param levels
+	 *            filled with levels, or null if not needed. May be points.
+	 * @param progress
+	 *            filled with progress in percentage, or null if not needed
+	 * @throws IllegalArgumentException
+	 *             if arrays aren't the same length
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static void getLevels(int[] points, int[] levels, double[] progress) {
+		checkLength(levels, points.length);
+		checkLength(progress, points.length);
+		getLevels(points, levels, progress, 0, points.length);
+	}
+
+	/**
+	 * Same as {@link #getLevels(int[], int[], double[])}, but splits large
+	 * batches into tasks on executor. Returns once all rows are done.
+	 * 
+	 * @param points
+	 *            trophy points
+	 * @param levels
+	 *            filled with levels, or null if not needed
+	 * @param progress
+	 *            filled with progress in percentage, or null if not needed
+	 * @param executor
+	 *            executor to run tasks on
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for tasks
+	 * @throws IllegalArgumentException
+	 *             if arrays aren't the same length
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static void getLevels(final int[] points, final int[] levels,
+			final double[] progress, ExecutorService executor)
+			throws InterruptedException {
+		checkLength(levels, points.length);
+		checkLength(progress, points.length);
+		int n = points.length;
+		int tasks = Math.min(n / MIN_BATCH, Runtime.getRuntime()
+				.availableProcessors() * 4);
+		if (tasks < 2) {
+			getLevels(points, levels, progress, 0, n);
+			return;
+		}
+
+		List<Callable<Void>> batches = new ArrayList<Callable<Void>>(tasks);
+		for (int t = 0; t < tasks; t++) {
+			final int from = (int) ((long) n * t / tasks);
+			final int to = (int) ((long) n * (t + 1) / tasks);
+			batches.add(new Callable<Void>() {
+
+				@Override
+				public Void call() {
+					getLevels(points, levels, progress, from, to);
+					return null;
+				}
+
+			});
+		}
+		for (Future<Void> future : executor.invokeAll(batches)) {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				// only unchecked exceptions can be thrown by batches
+				Throwable cause = e.getCause();
+				if (cause instanceof Error) throw (Error) cause;
+				throw (RuntimeException) cause;
+			}
+		}
+	}
+
+	/**
+	 * Gets base points of each level. Same as {@link #getLevelPoints(int)}
+	 * for each index.
+	 * 
+	 * @param levels
+	 *            levels
+	 * @param points
+	 *            filled with points, may be levels
+	 * @throws IllegalArgumentException
+	 *             if arrays aren't the same length
+	 * @since SEN-PSN 1.0.1
 	 */
-	private static double correctLevel(double level) {
-		return level % 1 > 0.0D ? level : ++level;
+	public static void getLevelPoints(int[] levels, int[] points) {
+		checkLength(levels, points.length);
+		for (int i = 0; i < points.length; i++)
+			points[i] = getLevelPoints(levels[i]);
+	}
+
+	private static void getLevels(int[] points, int[] levels,
+			double[] progress, int from, int to) {
+		for (int i = from; i < to; i++) {
+			int p = points[i];
+			int level = getLevel(p);
+			if (progress != null) {
+				long start = levelStart(level);
+				progress[i] = (p - start)
+						/ (double) (levelStart(level + 1) - start) * PROGRESS;
+			}
+			if (levels != null) levels[i] = level;
+		}
+	}
+
+	// same as getLevelPoints, but doesn't overflow past the last level
+	private static long levelStart(int level) {
+		if (level <= LEVEL_TABLE.length) return LEVEL_TABLE[level - 1];
+		return (level - 27) * (long) INCR_43 + (long) LVL_27;
+	}
+
+	private static void checkLength(int[] array, int length) {
+		if (array != null && array.length != length) throw new IllegalArgumentException(
+				"Arrays must be same length");
+	}
+
+	private static void checkLength(double[] array, int length) {
+		if (array != null && array.length != length) throw new IllegalArgumentException(
+				"Arrays must be same length");
 	}
 }
@@ -17,15 +17,16 @@
 
 package com.krobothsoftware.snc.sen.psn.internal;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 
+import com.krobothsoftware.commons.parse.CharSlice;
 import com.krobothsoftware.commons.parse.Expression;
 import com.krobothsoftware.commons.parse.ExpressionFilter;
 import com.krobothsoftware.commons.parse.HandlerHtml;
+import com.krobothsoftware.commons.parse.ResultCallback;
 import com.krobothsoftware.commons.parse.StopException;
 import com.krobothsoftware.snc.sen.psn.PsnUtils;
 import com.krobothsoftware.snc.sen.psn.model.PsnGame;
@@ -39,7 +40,14 @@ public final class HandlerHtmlFriendGame extends HandlerHtml implements
 		ExpressionFilter {
 	private static final Expression expr = Expression
 			.parse("/table[@class='psnTrophyTable']/tbody");
-	private final List<PsnGame> list;
+	private static final String[] SYMBOLS = { "td", "a", "img", "div", "table", "tr" };
+	private static final int TD = 0;
+	private static final int A = 1;
+	private static final int IMG = 2;
+	private static final int DIV = 3;
+	private static final int TABLE = 4;
+	private static final int TR = 5;
+	private final ResultSink<PsnGame> results;
 	private final PsnGame.Builder builder;
 	private int td = -1;
 	private int tr = -1;
@@ -47,12 +55,17 @@ public final class HandlerHtmlFriendGame extends HandlerHtml implements
 	boolean friend = true;
 
 	public HandlerHtmlFriendGame(String psnId) {
-		list = new ArrayList<PsnGame>();
-		builder = new PsnGame.Builder(psnId);
+		this(psnId, null);
+	}
+
+	public HandlerHtmlFriendGame(String psnId,
+			ResultCallback<? super PsnGame> callback) {
+		results = new ResultSink<PsnGame>(callback);
+		builder = new PsnGame.Builder(PsnUtils.STRING_POOL.intern(psnId));
 	}
 
 	public List<PsnGame> getGameList() {
-		return list;
+		return results.getList();
 	}
 
 	@Override
@@ -60,13 +73,18 @@ public final class HandlerHtmlFriendGame extends HandlerHtml implements
 		return expr;
 	}
 
+	@Override
+	protected String[] getSymbols() {
+		return SYMBOLS;
+	}
+
 	@Override
 	public void startElement(int expr, String uri, String localName,
 			String qName, Attributes attributes) throws SAXException {
 
 		String str;
 
-		if (startTag.equals("td")) {
+		if (startId == TD) {
 			td++;
 			if (friend && td == 4 && tr == 1
 					&& attributes.getIndex("class") != -1) {
@@ -74,25 +92,26 @@ public final class HandlerHtmlFriendGame extends HandlerHtml implements
 				friend = false;
 				td -= 6;
 			}
-		} else if (startTag.equals("tr")) tr++;
+		} else if (startId == TR) tr++;
 		switch (td) {
 			case 0:
-				if (startTag.equals("a")) {
+				if (startId == A) {
 					// image
 					builder.setTitleLinkId((str = attributes.getValue("href"))
 							.substring(str.indexOf("?title=") + 7,
 									str.indexOf("&")));
-				} else if (startTag.equals("img")) {
+				} else if (startId == IMG) {
+					str = attributes.getValue("src");
 					builder.setName(attributes.getValue("alt"))
-							.setImage(
-									"http://trophy01.np.community.playstation.net/trophy/np/"
-											+ (str = attributes.getValue("src")).substring(str
-													.indexOf("/trophy/np/") + 11))
-							.setGameId(PsnUtils.getGameIdOf(str));
+							.setImage(PsnUtils.TROPHY_IMAGE_PREFIX,
+									PsnUtils.STRING_POOL.intern(PsnUtils
+											.getImagePathOf(str)))
+							.setGameId(PsnUtils.STRING_POOL.intern(PsnUtils
+									.getGameIdOf(str)));
 				}
 				break;
 			case 1:
-				if (startTag.equals("div")) div++;
+				if (startId == DIV) div++;
 				break;
 		}
 
@@ -101,8 +120,8 @@ public final class HandlerHtmlFriendGame extends HandlerHtml implements
 	@Override
 	public boolean endElement(int expr, String uri, String localName,
 			String qName) throws SAXException {
-		if (!friend && tr == 1 && endTag.equals("tr")) friend = true;
-		else if (td == -1 && endTag.equals("table")) throw new StopException();
+		if (!friend && tr == 1 && endId == TR) friend = true;
+		else if (td == -1 && endId == TABLE) throw new StopException();
 
 		return true;
 	}
@@ -122,27 +141,21 @@ public final class HandlerHtmlFriendGame extends HandlerHtml implements
 					}
 					break;
 				case 7:
-					builder.setBronze(Integer.parseInt(new String(ch, start,
-							length)));
+					builder.setBronze(CharSlice.parseInt(ch, start, length));
 					break;
 				case 8:
-					builder.setSilver(Integer.parseInt(new String(ch, start,
-							length)));
+					builder.setSilver(CharSlice.parseInt(ch, start, length));
 					break;
 				case 9:
-					builder.setGold(Integer.parseInt(new String(ch, start,
-							length)));
+					builder.setGold(CharSlice.parseInt(ch, start, length));
 					break;
 				case 10:
-					builder.setPlatinum(Integer.parseInt(new String(ch, start,
-							length)));
+					builder.setPlatinum(CharSlice.parseInt(ch, start, length));
 					break;
 				case 13:
-					String str = new String(ch, start, length);
-					list.add(builder
-							.setProgress(
-									Integer.parseInt(str.substring(0,
-											str.length() - 1))).build());
+					// cut off percent sign
+					results.add(builder.setProgress(
+							CharSlice.parseInt(ch, start, length - 1)).build());
 					td = -1;
 					tr = -1;
 					break;
@@ -23,7 +23,6 @@ import static com.krobothsoftware.snc.sen.psn.Trophy.HIDDEN;
 import static com.krobothsoftware.snc.sen.psn.Trophy.PLATINUM;
 import static com.krobothsoftware.snc.sen.psn.Trophy.SILVER;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.xml.sax.Attributes;
@@ -32,6 +31,7 @@ import org.xml.sax.SAXException;
 import com.krobothsoftware.commons.parse.Expression;
 import com.krobothsoftware.commons.parse.ExpressionFilter;
 import com.krobothsoftware.commons.parse.HandlerHtml;
+import com.krobothsoftware.commons.parse.ResultCallback;
 import com.krobothsoftware.commons.parse.StopException;
 import com.krobothsoftware.commons.util.CommonUtils;
 import com.krobothsoftware.snc.sen.psn.PsnUtils;
@@ -47,7 +47,7 @@ public final class HandlerHtmlFriendTrophy extends HandlerHtml implements
 		ExpressionFilter {
 	private static final Expression expr = Expression
 			.parse("/div[@class='gameLogoImage']/img/&&/div[@class='gamelevelListingContainer']/div[2]");
-	private final List<PsnTrophy> list;
+	private final ResultSink<PsnTrophy> results;
 	private final PsnTrophy.Builder builder;
 	private boolean cont;
 	private int type;
@@ -55,12 +55,17 @@ public final class HandlerHtmlFriendTrophy extends HandlerHtml implements
 	private int img;
 
 	public HandlerHtmlFriendTrophy(String psnId) {
-		list = new ArrayList<PsnTrophy>();
-		builder = new PsnTrophy.Builder(psnId);
+		this(psnId, null);
+	}
+
+	public HandlerHtmlFriendTrophy(String psnId,
+			ResultCallback<? super PsnTrophy> callback) {
+		results = new ResultSink<PsnTrophy>(callback);
+		builder = new PsnTrophy.Builder(PsnUtils.STRING_POOL.intern(psnId));
 	}
 
 	public List<PsnTrophy> getTrophyList() {
-		return list;
+		return results.getList();
 	}
 
 	@Override
@@ -80,11 +85,13 @@ public final class HandlerHtmlFriendTrophy extends HandlerHtml implements
 					case 0:
 						// image
 						str = attributes.getValue("src");
-						if (str.endsWith("icon_trophy_padlock.gif")) str = "http://webassets.scea.com/playstation/img/trophy_locksmall.png";
+						if (str.endsWith("icon_trophy_padlock.gif")) builder
+								.setImage(null,
+										"http://webassets.scea.com/playstation/img/trophy_locksmall.png");
 						else
-							str = "http://trophy01.np.community.playstation.net/trophy/np/"
-									+ str.substring(str.indexOf("/trophy/np/") + 11);
-						builder.setImage(str);
+							builder.setImage(PsnUtils.TROPHY_IMAGE_PREFIX,
+									PsnUtils.STRING_POOL.intern(PsnUtils
+										.getImagePathOf(str)));
 						type++;
 						break;
 					case 1:
@@ -104,7 +111,7 @@ public final class HandlerHtmlFriendTrophy extends HandlerHtml implements
 						if (!attributes.getValue("alt").equals("Locked")) type = 10;
 						else {
 							builder.setIndex(++trophy);
-							list.add(builder.build());
+							results.add(builder.build());
 							type = 0;
 							img = 0;
 						}
@@ -118,7 +125,8 @@ public final class HandlerHtmlFriendTrophy extends HandlerHtml implements
 
 		else {
 			// game image
-			builder.setGameId(PsnUtils.getGameIdOf(attributes.getValue("src")));
+			builder.setGameId(PsnUtils.STRING_POOL.intern(PsnUtils
+					.getGameIdOf(attributes.getValue("src"))));
 			cont = true;
 		}
 
@@ -153,8 +161,9 @@ public final class HandlerHtmlFriendTrophy extends HandlerHtml implements
 					case 11:
 						// get date
 						str = new String(ch, start, length);
-						list.add(builder.setDateEarned(str.substring(9))
-								.setIndex(++trophy).build());
+						builder.setDateEarned(str.substring(9),
+								PsnUtils.parseDate(ch, start + 9, length - 9));
+						results.add(builder.setIndex(++trophy).build());
 						builder.setDateEarned(null);
 						type = 0;
 						img = 0;
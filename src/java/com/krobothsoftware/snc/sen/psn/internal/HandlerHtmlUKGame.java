@@ -17,18 +17,22 @@
 
 package com.krobothsoftware.snc.sen.psn.internal;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 
+import com.krobothsoftware.commons.parse.CharSlice;
 import com.krobothsoftware.commons.parse.Expression;
 import com.krobothsoftware.commons.parse.ExpressionFilter;
 import com.krobothsoftware.commons.parse.HandlerHtml;
+import com.krobothsoftware.commons.parse.ResultCallback;
 import com.krobothsoftware.commons.parse.StopException;
 import com.krobothsoftware.snc.sen.Platform;
+import com.krobothsoftware.snc.sen.psn.PsnField;
 import com.krobothsoftware.snc.sen.psn.PsnUtils;
+import com.krobothsoftware.snc.sen.psn.ResultFilter;
 import com.krobothsoftware.snc.sen.psn.model.PsnGame;
 
 /**
@@ -40,18 +44,44 @@ public final class HandlerHtmlUKGame extends HandlerHtml implements
 		ExpressionFilter {
 	private static final Expression expr = Expression
 			.parse("/table[@class='psnTrophyTable']/tbody");
-	private final List<PsnGame> list;
+	private static final String[] SYMBOLS = { "td", "a", "img", "div", "table" };
+	private static final int TD = 0;
+	private static final int A = 1;
+	private static final int IMG = 2;
+	private static final int DIV = 3;
+	private static final int TABLE = 4;
+	private final ResultSink<PsnGame> results;
 	private final PsnGame.Builder builder;
+	private final ResultFilter<? super PsnGame.Builder> filter;
+	private final boolean names;
+	private final boolean images;
+	private final boolean titleLinks;
 	private int td = -1;
 	private int div = -1;
 
 	public HandlerHtmlUKGame(String psnId) {
-		list = new ArrayList<PsnGame>();
-		builder = new PsnGame.Builder(psnId);
+		this(psnId, null);
+	}
+
+	public HandlerHtmlUKGame(String psnId,
+			ResultCallback<? super PsnGame> callback) {
+		this(psnId, callback, null, null);
+	}
+
+	public HandlerHtmlUKGame(String psnId,
+			ResultCallback<? super PsnGame> callback,
+			ResultFilter<? super PsnGame.Builder> filter,
+			Set<PsnField> fields) {
+		results = new ResultSink<PsnGame>(callback);
+		builder = new PsnGame.Builder(PsnUtils.STRING_POOL.intern(psnId));
+		this.filter = filter;
+		names = fields == null || fields.contains(PsnField.NAME);
+		images = fields == null || fields.contains(PsnField.IMAGE);
+		titleLinks = fields == null || fields.contains(PsnField.TITLE_LINK_ID);
 	}
 
 	public List<PsnGame> getGameList() {
-		return list;
+		return results.getList();
 	}
 
 	@Override
@@ -59,30 +89,36 @@ public final class HandlerHtmlUKGame extends HandlerHtml implements
 		return expr;
 	}
 
+	@Override
+	protected String[] getSymbols() {
+		return SYMBOLS;
+	}
+
 	@Override
 	public void startElement(int expr, String uri, String localName,
 			String qName, Attributes attributes) throws SAXException {
 
 		String str;
 
-		if (startTag.equals("td")) td++;
+		if (startId == TD) td++;
 		switch (td) {
 			case 0:
-				if (startTag.equals("a")) {
-					builder.setTitleLinkId((str = attributes.getValue("href"))
-							.substring(str.indexOf("/detail/?title=") + 15));
-				} else if (startTag.equals("img")) {
+				if (startId == A) {
+					if (titleLinks) builder.setTitleLinkId((str = attributes
+							.getValue("href")).substring(str
+							.indexOf("/detail/?title=") + 15));
+				} else if (startId == IMG) {
 					str = attributes.getValue("src");
-					builder.setName(attributes.getValue("alt"))
-							.setImage(
-									"http://trophy01.np.community.playstation.net/trophy/np/"
-											+ str.substring(str
-													.indexOf("/trophy/np/") + 11))
-							.setGameId(PsnUtils.getGameIdOf(str));
+					if (names) builder.setName(attributes.getValue("alt"));
+					if (images) builder.setImage(PsnUtils.TROPHY_IMAGE_PREFIX,
+							PsnUtils.STRING_POOL.intern(PsnUtils
+									.getImagePathOf(str)));
+					builder.setGameId(PsnUtils.STRING_POOL.intern(PsnUtils
+							.getGameIdOf(str)));
 				}
 				break;
 			case 1:
-				if (startTag.equals("div")) div++;
+				if (startId == DIV) div++;
 				break;
 
 		}
@@ -105,27 +141,23 @@ public final class HandlerHtmlUKGame extends HandlerHtml implements
 
 					break;
 				case 2:
-					builder.setBronze(Integer.parseInt(new String(ch, start,
-							length)));
+					builder.setBronze(CharSlice.parseInt(ch, start, length));
 					break;
 				case 3:
-					builder.setSilver(Integer.parseInt(new String(ch, start,
-							length)));
+					builder.setSilver(CharSlice.parseInt(ch, start, length));
 					break;
 				case 4:
-					builder.setGold(Integer.parseInt(new String(ch, start,
-							length)));
+					builder.setGold(CharSlice.parseInt(ch, start, length));
 					break;
 				case 5:
-					builder.setPlatinum(Integer.parseInt(new String(ch, start,
-							length)));
+					builder.setPlatinum(CharSlice.parseInt(ch, start, length));
 					break;
 				case 8:
-					String str = new String(ch, start, length);
-					list.add(builder
-							.setProgress(
-									Integer.parseInt(str.substring(0,
-											str.length() - 1))).build());
+					// cut off percent sign
+					builder.setProgress(CharSlice.parseInt(ch, start,
+							length - 1));
+					if (filter == null || filter.accept(builder)) results
+							.add(builder.build());
 					td = -1;
 					break;
 			}
@@ -138,7 +170,7 @@ public final class HandlerHtmlUKGame extends HandlerHtml implements
 	@Override
 	public boolean endElement(int expr, String uri, String localName,
 			String qName) throws SAXException {
-		if (endTag.equals("table")) throw new StopException();
+		if (endId == TABLE) throw new StopException();
 
 		return true;
 	}
@@ -23,8 +23,8 @@ import static com.krobothsoftware.snc.sen.psn.Trophy.HIDDEN;
 import static com.krobothsoftware.snc.sen.psn.Trophy.PLATINUM;
 import static com.krobothsoftware.snc.sen.psn.Trophy.SILVER;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -32,9 +32,12 @@ import org.xml.sax.SAXException;
 import com.krobothsoftware.commons.parse.Expression;
 import com.krobothsoftware.commons.parse.ExpressionFilter;
 import com.krobothsoftware.commons.parse.HandlerHtml;
+import com.krobothsoftware.commons.parse.ResultCallback;
 import com.krobothsoftware.commons.parse.StopException;
 import com.krobothsoftware.commons.util.CommonUtils;
+import com.krobothsoftware.snc.sen.psn.PsnField;
 import com.krobothsoftware.snc.sen.psn.PsnUtils;
+import com.krobothsoftware.snc.sen.psn.ResultFilter;
 import com.krobothsoftware.snc.sen.psn.Trophy;
 import com.krobothsoftware.snc.sen.psn.model.PsnTrophy;
 
@@ -47,19 +50,42 @@ public final class HandlerHtmlUKTrophy extends HandlerHtml implements
 		ExpressionFilter {
 	private static final Expression expr = Expression
 			.parse("/div[@class='gameLogoImage']/img/&&/div[@class='gamelevelListingContainer']/div[2]");
-	private final List<PsnTrophy> list;
+	private final ResultSink<PsnTrophy> results;
 	private final PsnTrophy.Builder builder;
+	private final ResultFilter<? super PsnTrophy.Builder> filter;
+	private final boolean names;
+	private final boolean images;
+	private final boolean descriptions;
+	private final boolean dates;
 	private boolean cont;
 	private int type;
 	private int trophy;
 
 	public HandlerHtmlUKTrophy(final String psnId) {
-		list = new ArrayList<PsnTrophy>();
-		builder = new PsnTrophy.Builder(psnId);
+		this(psnId, null);
+	}
+
+	public HandlerHtmlUKTrophy(final String psnId,
+			ResultCallback<? super PsnTrophy> callback) {
+		this(psnId, callback, null, null);
+	}
+
+	public HandlerHtmlUKTrophy(final String psnId,
+			ResultCallback<? super PsnTrophy> callback,
+			ResultFilter<? super PsnTrophy.Builder> filter,
+			Set<PsnField> fields) {
+		results = new ResultSink<PsnTrophy>(callback);
+		builder = new PsnTrophy.Builder(PsnUtils.STRING_POOL.intern(psnId));
+		this.filter = filter;
+		names = fields == null || fields.contains(PsnField.NAME);
+		images = fields == null || fields.contains(PsnField.IMAGE);
+		descriptions = fields == null
+				|| fields.contains(PsnField.DESCRIPTION);
+		dates = fields == null || fields.contains(PsnField.DATE_EARNED);
 	}
 
 	public List<PsnTrophy> getTrophyList() {
-		return list;
+		return results.getList();
 	}
 
 	@Override
@@ -77,12 +103,15 @@ public final class HandlerHtmlUKTrophy extends HandlerHtml implements
 			if (startTag.equals("img")) {
 				if (type++ == 0) {
 					// image
+					if (!images) return;
 					str = attributes.getValue("src");
-					if (str.endsWith("icon_trophy_padlock.gif")) str = "http://webassets.scea.com/playstation/img/trophy_locksmall.png";
+					if (str.endsWith("icon_trophy_padlock.gif")) builder
+							.setImage(null,
+									"http://webassets.scea.com/playstation/img/trophy_locksmall.png");
 					else
-						str = "http://trophy01.np.community.playstation.net/trophy/np/"
-								+ str.substring(str.indexOf("/trophy/np/") + 11);
-					builder.setImage(str);
+						builder.setImage(PsnUtils.TROPHY_IMAGE_PREFIX,
+								PsnUtils.STRING_POOL.intern(PsnUtils
+									.getImagePathOf(str)));
 				} else {
 					// trophy type
 					str = attributes.getValue("alt");
@@ -104,7 +133,8 @@ public final class HandlerHtmlUKTrophy extends HandlerHtml implements
 
 		} else {
 			// game image
-			builder.setGameId(PsnUtils.getGameIdOf(attributes.getValue("src")));
+			builder.setGameId(PsnUtils.STRING_POOL.intern(PsnUtils
+					.getGameIdOf(attributes.getValue("src"))));
 			cont = true;
 		}
 
@@ -127,21 +157,23 @@ public final class HandlerHtmlUKTrophy extends HandlerHtml implements
 				switch (type) {
 					case 2:
 						// title
-						builder.setName(CommonUtils.trim(new String(ch, start,
-								length)));
+						if (names) builder.setName(CommonUtils.trim(new String(
+								ch, start, length)));
 						break;
 					case 3:
 						// date
+						if (!dates) break;
 						str = new String(ch, start, length);
-						builder.setDateEarned(str.substring(9));
+						builder.setDateEarned(str.substring(9),
+								PsnUtils.parseDate(ch, start + 9, length - 9));
 						break;
 					case 4:
 						// description
-						list.add(builder
-								.setDescription(
-										CommonUtils.trim(new String(ch, start,
-												length))).setIndex(++trophy)
-								.build());
+						if (descriptions) builder.setDescription(CommonUtils
+								.trim(new String(ch, start, length)));
+						builder.setIndex(++trophy);
+						if (filter == null || filter.accept(builder)) results
+								.add(builder.build());
 						builder.setDateEarned(null);
 						type = 0;
 						break;
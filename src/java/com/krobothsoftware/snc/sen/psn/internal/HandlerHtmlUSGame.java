@@ -17,15 +17,16 @@
 
 package com.krobothsoftware.snc.sen.psn.internal;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 
+import com.krobothsoftware.commons.parse.CharSlice;
 import com.krobothsoftware.commons.parse.Expression;
 import com.krobothsoftware.commons.parse.ExpressionFilter;
 import com.krobothsoftware.commons.parse.HandlerHtml;
+import com.krobothsoftware.commons.parse.ResultCallback;
 import com.krobothsoftware.snc.sen.Platform;
 import com.krobothsoftware.snc.sen.psn.PsnUtils;
 import com.krobothsoftware.snc.sen.psn.model.PsnGame;
@@ -39,18 +40,24 @@ public final class HandlerHtmlUSGame extends HandlerHtml implements
 		ExpressionFilter {
 	private static final Expression expr = Expression
 			.parse("/div[@id='mainContentDiv']");
-	private final List<PsnGame> list;
+	private final ResultSink<PsnGame> results;
 	private final PsnGame.Builder builder;
 	private int type = -1;
 	private int column = -1;
 
 	public HandlerHtmlUSGame(String psnId) {
-		list = new ArrayList<PsnGame>();
-		builder = new PsnGame.Builder(psnId).setPlatform(Platform.UNKNOWN);
+		this(psnId, null);
+	}
+
+	public HandlerHtmlUSGame(String psnId,
+			ResultCallback<? super PsnGame> callback) {
+		results = new ResultSink<PsnGame>(callback);
+		builder = new PsnGame.Builder(PsnUtils.STRING_POOL.intern(psnId))
+				.setPlatform(Platform.UNKNOWN);
 	}
 
 	public List<PsnGame> getGames() {
-		return list;
+		return results.getList();
 	}
 
 	@Override
@@ -70,7 +77,8 @@ public final class HandlerHtmlUSGame extends HandlerHtml implements
 			// image, gameId, and title
 			str = attributes.getValue("src");
 			builder.setImage(str).setName(attributes.getValue("title"))
-					.setGameId(PsnUtils.getGameIdOf(str));
+					.setGameId(PsnUtils.STRING_POOL.intern(PsnUtils
+							.getGameIdOf(str)));
 		} else if (column == 0 && type == 4) {
 			// get title link id
 			str = attributes.getValue("onclick");
@@ -101,29 +109,29 @@ public final class HandlerHtmlUSGame extends HandlerHtml implements
 				switch (type) {
 					case 3:
 						// bronze
-						builder.setBronze((Integer.parseInt(new String(ch,
-								start, length))));
+						builder.setBronze(CharSlice.parseInt(ch, start,
+								length));
 						break;
 					case 5:
 						// silver
-						builder.setSilver((Integer.parseInt(new String(ch,
-								start, length))));
+						builder.setSilver(CharSlice.parseInt(ch, start,
+								length));
 						break;
 					case 7:
 						// gold
-						builder.setGold((Integer.parseInt(new String(ch, start,
-								length))));
+						builder.setGold(CharSlice.parseInt(ch, start,
+								length));
 						break;
 					case 9:
 						// platinum
-						builder.setPlatinum((Integer.parseInt(new String(ch,
-								start, length))));
+						builder.setPlatinum(CharSlice.parseInt(ch, start,
+								length));
 						break;
 					case 13:
 						// progress. Cuts off percent sign
-						builder.setProgress(Integer.parseInt(new String(ch,
-								start, length - 1)));
-						list.add(builder.build());
+						builder.setProgress(CharSlice.parseInt(ch, start,
+								length - 1));
+						results.add(builder.build());
 						type = -1;
 						break;
 
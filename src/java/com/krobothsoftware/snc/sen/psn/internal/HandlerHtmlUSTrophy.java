@@ -17,7 +17,6 @@
 
 package com.krobothsoftware.snc.sen.psn.internal;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.xml.sax.Attributes;
@@ -26,6 +25,7 @@ import org.xml.sax.SAXException;
 import com.krobothsoftware.commons.parse.Expression;
 import com.krobothsoftware.commons.parse.ExpressionFilter;
 import com.krobothsoftware.commons.parse.HandlerHtml;
+import com.krobothsoftware.commons.parse.ResultCallback;
 import com.krobothsoftware.commons.util.CommonUtils;
 import com.krobothsoftware.snc.sen.psn.PsnUtils;
 import com.krobothsoftware.snc.sen.psn.Trophy;
@@ -41,18 +41,25 @@ public final class HandlerHtmlUSTrophy extends HandlerHtml implements
 		ExpressionFilter {
 	private static final Expression expr = Expression
 			.parse("/div[@class='content_box']/div[@class='topRow']");
-	private final List<PsnTrophy> list;
+	private final ResultSink<PsnTrophy> results;
 	private final PsnTrophy.Builder builder;
 	private int type = -10;
 	private int trophy;
 
 	public HandlerHtmlUSTrophy(String psnId, String gameId) {
-		list = new ArrayList<PsnTrophy>();
-		builder = (Builder) new PsnTrophy.Builder(psnId).setGameId(gameId);
+		this(psnId, gameId, null);
+	}
+
+	public HandlerHtmlUSTrophy(String psnId, String gameId,
+			ResultCallback<? super PsnTrophy> callback) {
+		results = new ResultSink<PsnTrophy>(callback);
+		builder = (Builder) new PsnTrophy.Builder(
+				PsnUtils.STRING_POOL.intern(psnId))
+				.setGameId(PsnUtils.STRING_POOL.intern(gameId));
 	}
 
 	public List<PsnTrophy> getTrophyList() {
-		return list;
+		return results.getList();
 	}
 
 	@Override
@@ -71,7 +78,8 @@ public final class HandlerHtmlUSTrophy extends HandlerHtml implements
 			builder.setImage(str);
 			if (!str.endsWith("locksmall.png")) {
 				builder.setReceieved(true);
-				builder.setGameId(PsnUtils.getGameIdOf(str));
+				builder.setGameId(PsnUtils.STRING_POOL.intern(PsnUtils
+						.getGameIdOf(str)));
 			} else {
 				builder.setReceieved(false);
 			}
@@ -88,7 +96,7 @@ public final class HandlerHtmlUSTrophy extends HandlerHtml implements
 				builder.setName("???").setDescription(null);
 				// skip switch
 				type = 6;
-				list.add(builder.setIndex(++trophy).build());
+				results.add(builder.setIndex(++trophy).build());
 			}
 			builder.setType(trophyType);
 			type++;
@@ -110,7 +118,7 @@ public final class HandlerHtmlUSTrophy extends HandlerHtml implements
 				case 5:
 					builder.setDescription(CommonUtils.trim(new String(ch,
 							start, length)));
-					list.add(builder.setIndex(++trophy).build());
+					results.add(builder.setIndex(++trophy).build());
 					break;
 			}
 		}
@@ -22,6 +22,7 @@ import java.util.List;
 
 import org.xml.sax.SAXException;
 
+import com.krobothsoftware.commons.parse.CharSlice;
 import com.krobothsoftware.commons.parse.HandlerXml;
 import com.krobothsoftware.snc.sen.psn.model.FriendStatus;
 import com.krobothsoftware.snc.sen.psn.model.PsnFriend;
@@ -32,6 +33,22 @@ import com.krobothsoftware.snc.sen.psn.model.PsnFriend;
  * @since SEN-PSN 1.0
  */
 public final class HandlerXmlFriend extends HandlerXml {
+	private static final String[] SYMBOLS = { "psn_friend", "onlineid",
+			"current_presence", "current_game", "current_avatar", "comment",
+			"playstationplus", "level", "platinum", "gold", "silver", "bronze" };
+	private static final int PSN_FRIEND = 0;
+	private static final int ONLINEID = 1;
+	private static final int CURRENT_PRESENCE = 2;
+	private static final int CURRENT_GAME = 3;
+	private static final int CURRENT_AVATAR = 4;
+	private static final int COMMENT = 5;
+	private static final int PLAYSTATIONPLUS = 6;
+	private static final int LEVEL = 7;
+	private static final int PLATINUM = 8;
+	private static final int GOLD = 9;
+	private static final int SILVER = 10;
+	private static final int BRONZE = 11;
+
 	private final List<PsnFriend> list;
 	private final PsnFriend.Builder builder;
 
@@ -44,12 +61,17 @@ public final class HandlerXmlFriend extends HandlerXml {
 		return list;
 	}
 
+	@Override
+	protected String[] getSymbols() {
+		return SYMBOLS;
+	}
+
 	@Override
 	public void endElement(String uri, String localName, String qName)
 			throws SAXException {
 		super.endElement(uri, localName, qName);
 
-		if (endTag.equalsIgnoreCase("psn_friend")) list.add(builder.build());
+		if (endId == PSN_FRIEND) list.add(builder.build());
 
 	}
 
@@ -60,31 +82,45 @@ public final class HandlerXmlFriend extends HandlerXml {
 		String str;
 
 		if (calledStartElement) {
-			if (startTag.equalsIgnoreCase("onlineid")) builder
-					.setPsnId(new String(ch, start, length));
-			else if (startTag.equalsIgnoreCase("current_presence")) builder
-					.setStatus(getOnlineStatus(new String(ch, start, length)));
-			else if (startTag.equalsIgnoreCase("current_game")) {
-				str = new String(ch, start, length);
-				builder.setGame(str.equals("null") ? null : str);
-			} else if (startTag.equalsIgnoreCase("current_avatar")) builder
-					.setAvatar(new String(ch, start, length));
-			else if (startTag.equalsIgnoreCase("comment")) {
-				str = new String(ch, start, length);
-				builder.setComment(str.equals("null") ? null : str);
-			} else if (startTag.equalsIgnoreCase("playstationplus")) builder
-					.setPP(Boolean.parseBoolean(new String(ch, start, length)));
-			else if (startTag.equalsIgnoreCase("level")) builder
-					.setLevel(Integer.parseInt(new String(ch, start, length)));
-			else if (startTag.equalsIgnoreCase("platinum")) builder
-					.setPlatinum(Integer
-							.parseInt(new String(ch, start, length)));
-			else if (startTag.equalsIgnoreCase("gold")) builder.setGold(Integer
-					.parseInt(new String(ch, start, length)));
-			else if (startTag.equalsIgnoreCase("silver")) builder
-					.setSilver(Integer.parseInt(new String(ch, start, length)));
-			else if (startTag.equalsIgnoreCase("bronze")) builder
-					.setBronze(Integer.parseInt(new String(ch, start, length)));
+			switch (startId) {
+				case ONLINEID:
+					builder.setPsnId(new String(ch, start, length));
+					break;
+				case CURRENT_PRESENCE:
+					builder.setStatus(getOnlineStatus(new String(ch, start,
+							length)));
+					break;
+				case CURRENT_GAME:
+					str = new String(ch, start, length);
+					builder.setGame(str.equals("null") ? null : str);
+					break;
+				case CURRENT_AVATAR:
+					builder.setAvatar(new String(ch, start, length));
+					break;
+				case COMMENT:
+					str = new String(ch, start, length);
+					builder.setComment(str.equals("null") ? null : str);
+					break;
+				case PLAYSTATIONPLUS:
+					builder.setPP(Boolean.parseBoolean(new String(ch, start,
+							length)));
+					break;
+				case LEVEL:
+					builder.setLevel(CharSlice.parseInt(ch, start, length));
+					break;
+				case PLATINUM:
+					builder.setPlatinum(CharSlice.parseInt(ch, start, length));
+					break;
+				case GOLD:
+					builder.setGold(CharSlice.parseInt(ch, start, length));
+					break;
+				case SILVER:
+					builder.setSilver(CharSlice.parseInt(ch, start, length));
+					break;
+				case BRONZE:
+					builder.setBronze(CharSlice.parseInt(ch, start, length));
+					break;
+			}
 		}
 
 		calledStartElement = false;
@@ -17,15 +17,19 @@
 
 package com.krobothsoftware.snc.sen.psn.internal;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 
+import com.krobothsoftware.commons.parse.CharSlice;
 import com.krobothsoftware.commons.parse.HandlerXml;
+import com.krobothsoftware.commons.parse.ResultCallback;
 import com.krobothsoftware.snc.sen.Platform;
+import com.krobothsoftware.snc.sen.psn.PsnField;
+import com.krobothsoftware.snc.sen.psn.PsnUtils;
+import com.krobothsoftware.snc.sen.psn.ResultFilter;
 import com.krobothsoftware.snc.sen.psn.model.PsnGameOfficial;
 
 /**
@@ -33,41 +37,147 @@ import com.krobothsoftware.snc.sen.psn.model.PsnGameOfficial;
  * @author Kyle Kroboth
  * @since SEN-PSN 1.0
  */
-public final class HandlerXmlGame extends HandlerXml {
+public final class HandlerXmlGame extends HandlerXml implements
+		NpTrophyScanner.Target {
+	private static final String[] SYMBOLS = { "nptrophy", "info", "types",
+			"title", "last-updated" };
+	private static final int NPTROPHY = 0;
+	private static final int INFO = 1;
+	private static final int TYPES = 2;
+	private static final int TITLE = 3;
+	private static final int LAST_UPDATED = 4;
+
 	private String result;
-	private int numGames;
+	private int total = -1;
 
-	private List<PsnGameOfficial> list;
+	private final ResultSink<PsnGameOfficial> results;
 	private final PsnGameOfficial.Builder builder;
+	private final ResultFilter<? super PsnGameOfficial.Builder> filter;
+	private final boolean dates;
 
 	public HandlerXmlGame(String jid) {
-		builder = new PsnGameOfficial.Builder(jid);
+		this(jid, null);
+	}
+
+	public HandlerXmlGame(String jid,
+			ResultCallback<? super PsnGameOfficial> callback) {
+		this(jid, callback, null, null);
+	}
+
+	public HandlerXmlGame(String jid,
+			ResultCallback<? super PsnGameOfficial> callback,
+			ResultFilter<? super PsnGameOfficial.Builder> filter,
+			Set<PsnField> fields) {
+		results = new ResultSink<PsnGameOfficial>(callback);
+		builder = new PsnGameOfficial.Builder(PsnUtils.STRING_POOL.intern(jid));
+		this.filter = filter;
+		dates = fields == null || fields.contains(PsnField.LAST_UPDATED);
 	}
 
 	public List<PsnGameOfficial> getGames() {
-		return list != null ? list : Collections.<PsnGameOfficial> emptyList();
+		return results.getList();
 	}
 
 	public String getResult() {
 		return result;
 	}
 
+	/**
+	 * Gets number of titles of jid, from all pages.
+	 * 
+	 * @return total, or -1 if not given
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	@Override
+	protected String[] getSymbols() {
+		return SYMBOLS;
+	}
+
+	@Override
+	public String[] getScanSymbols() {
+		return SYMBOLS;
+	}
+
+	@Override
+	public void scan(NpTrophyScanner scanner) {
+		int event;
+		int current = -1;
+		boolean started = false;
+
+		while ((event = scanner.next()) != NpTrophyScanner.EOF) {
+			switch (event) {
+				case NpTrophyScanner.START:
+					current = scanner.tag();
+					started = true;
+					switch (current) {
+						case NPTROPHY:
+							result = scanner.attribute("result");
+							break;
+						case INFO:
+							builder.setGameId(scanner.attribute("npcommid",
+									PsnUtils.STRING_POOL));
+							builder.setPlatform(Platform.getPlatform(scanner
+									.attribute("pf")));
+							break;
+						case TYPES:
+							builder.setPlatinum(scanner.attributeInt("platinum"));
+							builder.setGold(scanner.attributeInt("gold"));
+							builder.setSilver(scanner.attributeInt("silver"));
+							builder.setBronze(scanner.attributeInt("bronze"));
+							break;
+					}
+					break;
+				case NpTrophyScanner.END:
+					if (scanner.tag() == INFO) addGame();
+					break;
+				case NpTrophyScanner.TEXT:
+					if (started) {
+						if (current == TITLE) results
+								.ensureCapacity(total = scanner.textInt());
+						else if (current == LAST_UPDATED && dates) builder
+								.setLastUpdated(scanner.text(),
+										scanner.textDate());
+					}
+					started = false;
+					break;
+			}
+		}
+	}
+
+	@Override
+	public void reset() {
+		results.reset();
+		result = null;
+		total = -1;
+	}
+
 	@Override
 	public void startElement(String uri, String localName, String qName,
 			Attributes attributes) throws SAXException {
 		super.startElement(uri, localName, qName, attributes);
 
-		if (startTag.equalsIgnoreCase("nptrophy")) {
-			result = attributes.getValue("result");
-		} else if (startTag.equalsIgnoreCase("info")) {
-			builder.setGameId(attributes.getValue("npcommid"));
-			builder.setPlatform(Platform.getPlatform(attributes.getValue("pf")));
-		} else if (startTag.equalsIgnoreCase("types")) {
-			builder.setPlatinum(Integer.parseInt(attributes
-					.getValue("platinum")));
-			builder.setGold(Integer.parseInt(attributes.getValue("gold")));
-			builder.setSilver(Integer.parseInt(attributes.getValue("silver")));
-			builder.setBronze(Integer.parseInt(attributes.getValue("bronze")));
+		switch (startId) {
+			case NPTROPHY:
+				result = attributes.getValue("result");
+				break;
+			case INFO:
+				builder.setGameId(PsnUtils.STRING_POOL.intern(attributes
+						.getValue("npcommid")));
+				builder.setPlatform(Platform.getPlatform(attributes
+						.getValue("pf")));
+				break;
+			case TYPES:
+				builder.setPlatinum(Integer.parseInt(attributes
+						.getValue("platinum")));
+				builder.setGold(Integer.parseInt(attributes.getValue("gold")));
+				builder.setSilver(Integer.parseInt(attributes
+						.getValue("silver")));
+				builder.setBronze(Integer.parseInt(attributes
+						.getValue("bronze")));
+				break;
 		}
 
 	}
@@ -77,11 +187,7 @@ public final class HandlerXmlGame extends HandlerXml {
 			throws SAXException {
 		super.endElement(uri, localName, qName);
 
-		if (endTag.equalsIgnoreCase("info")) {
-
-			if (list == null) list = new ArrayList<PsnGameOfficial>(numGames);
-			list.add(builder.build());
-		}
+		if (endId == INFO) addGame();
 
 	}
 
@@ -90,14 +196,20 @@ public final class HandlerXmlGame extends HandlerXml {
 			throws SAXException {
 
 		if (calledStartElement) {
-			if (startTag.equalsIgnoreCase("title")) numGames = Integer
-					.parseInt(new String(ch, start, length));
-			else if (startTag.equalsIgnoreCase("last-updated")) builder
-					.setLastUpdated(new String(ch, start, length));
+			if (startId == TITLE) results.ensureCapacity(total = CharSlice
+					.parseInt(ch, start, length));
+			else if (startId == LAST_UPDATED && dates) builder
+					.setLastUpdated(new String(ch, start, length),
+							PsnUtils.parseDate(ch, start, length));
 		}
 
 		calledStartElement = false;
 
 	}
 
+	private void addGame() {
+		if (filter == null || filter.accept(builder)) results.add(builder
+				.build());
+	}
+
 }
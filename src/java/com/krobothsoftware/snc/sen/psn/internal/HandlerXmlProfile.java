@@ -20,7 +20,9 @@ package com.krobothsoftware.snc.sen.psn.internal;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 
+import com.krobothsoftware.commons.parse.CharSlice;
 import com.krobothsoftware.commons.parse.HandlerXml;
+import com.krobothsoftware.commons.parse.StopException;
 import com.krobothsoftware.snc.sen.psn.model.PsnProfile;
 
 /**
@@ -30,9 +32,26 @@ import com.krobothsoftware.snc.sen.psn.model.PsnProfile;
  */
 public final class HandlerXmlProfile extends HandlerXml {
 	private static final int DEFAULT_COLOR = 0x989898;
+	private static final String[] SYMBOLS = { "level", "types", "panelurl",
+			"onlinename", "avatarurl", "aboutme", "country", "plusicon",
+			"ucbgp", "point" };
+	private static final int LEVEL = 0;
+	private static final int TYPES = 1;
+	private static final int PANELURL = 2;
+	private static final int ONLINENAME = 3;
+	private static final int AVATARURL = 4;
+	private static final int ABOUTME = 5;
+	private static final int COUNTRY = 6;
+	private static final int PLUSICON = 7;
+	private static final int UCBGP = 8;
+	private static final int POINT = 9;
+
+	// trophy info elements, stop reading once all are found
+	private static final int FOUND_ALL = 1 << LEVEL | 1 << TYPES | 1 << POINT;
 
 	private String id;
 	private int backgroundColor;
+	private int found;
 
 	private final PsnProfile.Builder builder;
 
@@ -48,26 +67,39 @@ public final class HandlerXmlProfile extends HandlerXml {
 
 	}
 
+	@Override
+	protected String[] getSymbols() {
+		return SYMBOLS;
+	}
+
 	@Override
 	public void startElement(String uri, String localName, String qName,
 			Attributes attributes) throws SAXException {
 		super.startElement(uri, localName, qName, attributes);
 
-		if (startTag.equalsIgnoreCase("level")) {
-			builder.setLevelFloor(Integer.parseInt(attributes.getValue("base")));
-			builder.setLevelCeiling(Integer.parseInt(attributes
-					.getValue("next")));
-			builder.setProgress(Integer.parseInt(attributes
-					.getValue("progress")));
-		} else if (startTag.equalsIgnoreCase("types")) {
-			builder.setPlatinum(Integer.parseInt(attributes
-					.getValue("platinum")));
-			builder.setGold(Integer.parseInt(attributes.getValue("gold")));
-			builder.setSilver(Integer.parseInt(attributes.getValue("silver")));
-			builder.setBronze(Integer.parseInt(attributes.getValue("bronze")));
-		} else if (startTag.equalsIgnoreCase("panelurl")) builder
-				.setPanelBackgroundColor(Integer.parseInt(
+		switch (startId) {
+			case LEVEL:
+				builder.setLevelFloor(Integer.parseInt(attributes
+						.getValue("base")));
+				builder.setLevelCeiling(Integer.parseInt(attributes
+						.getValue("next")));
+				builder.setProgress(Integer.parseInt(attributes
+						.getValue("progress")));
+				break;
+			case TYPES:
+				builder.setPlatinum(Integer.parseInt(attributes
+						.getValue("platinum")));
+				builder.setGold(Integer.parseInt(attributes.getValue("gold")));
+				builder.setSilver(Integer.parseInt(attributes
+						.getValue("silver")));
+				builder.setBronze(Integer.parseInt(attributes
+						.getValue("bronze")));
+				break;
+			case PANELURL:
+				builder.setPanelBackgroundColor(Integer.parseInt(
 						attributes.getValue("bgc"), 16));
+				break;
+		}
 
 	}
 
@@ -78,32 +110,57 @@ public final class HandlerXmlProfile extends HandlerXml {
 		String str;
 
 		if (calledStartElement) {
-			if (startTag.equalsIgnoreCase("onlinename")) id = new String(ch,
-					start, length);
-			else if (startTag.equalsIgnoreCase("avatarurl")) builder
-					.setAvatar(new String(ch, start, length));
-			else if (startTag.equalsIgnoreCase("aboutme")) builder
-					.setAboutMe(new String(ch, start, length));
-			else if (startTag.equalsIgnoreCase("country")) builder
-					.setCountry(PsnProfile.CULTURE_MAP.get(new String(ch,
-							start, length).toUpperCase()));
-			else if (startTag.equalsIgnoreCase("plusicon")) builder
-					.setPP(new String(ch, start, length).equals("0") ? false
-							: true);
-			else if (startTag.equals("ucbgp")) {
-				str = new String(ch, start, length);
-				str = str.substring(8, str.length() - 2);
-				backgroundColor = Integer.parseInt(str, 16);
-			} else if (startTag.equalsIgnoreCase("point")) builder
-					.setPoints(Integer.parseInt(new String(ch, start, length)));
-			else if (startTag.equalsIgnoreCase("level")) builder
-					.setLevel(Integer.parseInt(new String(ch, start, length)));
-			else if (startTag.equalsIgnoreCase("panelurl")) builder
-					.setPanel(new String(ch, start, length));
-
+			switch (startId) {
+				case ONLINENAME:
+					id = new String(ch, start, length);
+					break;
+				case AVATARURL:
+					builder.setAvatar(new String(ch, start, length));
+					break;
+				case ABOUTME:
+					builder.setAboutMe(new String(ch, start, length));
+					break;
+				case COUNTRY:
+					builder.setCountry(PsnProfile.CULTURE_MAP.get(new String(
+							ch, start, length).toUpperCase()));
+					break;
+				case PLUSICON:
+					builder.setPP(length != 1 || ch[start] != '0');
+					break;
+				case UCBGP:
+					str = new String(ch, start, length);
+					str = str.substring(8, str.length() - 2);
+					backgroundColor = Integer.parseInt(str, 16);
+					break;
+				case POINT:
+					builder.setPoints(CharSlice.parseInt(ch, start, length));
+					break;
+				case LEVEL:
+					builder.setLevel(CharSlice.parseInt(ch, start, length));
+					break;
+				case PANELURL:
+					builder.setPanel(new String(ch, start, length));
+					break;
+			}
 		}
 
 		calledStartElement = false;
 
 	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName)
+			throws SAXException {
+		super.endElement(uri, localName, qName);
+
+		switch (endId) {
+			case LEVEL:
+			case TYPES:
+			case POINT:
+				found |= 1 << endId;
+				if (found == FOUND_ALL) throw new StopException();
+				break;
+		}
+
+	}
 }
@@ -17,41 +17,60 @@
 
 package com.krobothsoftware.snc.sen.psn.internal;
 
-import static com.krobothsoftware.snc.sen.psn.Trophy.BRONZE;
-import static com.krobothsoftware.snc.sen.psn.Trophy.GOLD;
-import static com.krobothsoftware.snc.sen.psn.Trophy.PLATINUM;
-import static com.krobothsoftware.snc.sen.psn.Trophy.SILVER;
-
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 
+import com.krobothsoftware.commons.parse.CharSlice;
 import com.krobothsoftware.commons.parse.HandlerXml;
-import com.krobothsoftware.snc.sen.Platform;
+import com.krobothsoftware.commons.parse.ResultCallback;
+import com.krobothsoftware.snc.sen.psn.PsnField;
+import com.krobothsoftware.snc.sen.psn.PsnUtils;
+import com.krobothsoftware.snc.sen.psn.ResultFilter;
 import com.krobothsoftware.snc.sen.psn.model.PsnTrophyOfficial;
+import com.krobothsoftware.snc.sen.psn.model.PsnTrophyOfficial.Builder;
 
 /**
  * 
  * @author Kyle Kroboth
  * @since SEN-PSN 1.0
  */
-public final class HandlerXmlTrophy extends HandlerXml {
-	private static final String NPCOMMID = "npcommid";
-	private static final String PF = "pf";
-	private final List<PsnTrophyOfficial> list;
-	private final PsnTrophyOfficial.Builder builder;
+public final class HandlerXmlTrophy extends HandlerXml implements
+		NpTrophyScanner.Target {
+	private static final String[] SYMBOLS = { "nptrophy", "info", "trophy" };
+	private static final int NPTROPHY = 0;
+	private static final int INFO = 1;
+	private static final int TROPHY = 2;
+	private final ResultSink<PsnTrophyOfficial> results;
+	private final Builder builder;
+	private final ResultFilter<? super Builder> filter;
+	private final boolean dates;
+	private final CharSlice value = new CharSlice();
 
 	private String result;
 
 	public HandlerXmlTrophy(String psnId) {
-		list = new ArrayList<PsnTrophyOfficial>();
-		builder = new PsnTrophyOfficial.Builder(psnId);
+		this(psnId, null);
+	}
+
+	public HandlerXmlTrophy(String psnId,
+			ResultCallback<? super PsnTrophyOfficial> callback) {
+		this(psnId, callback, null, null);
+	}
+
+	public HandlerXmlTrophy(String psnId,
+			ResultCallback<? super PsnTrophyOfficial> callback,
+			ResultFilter<? super Builder> filter, Set<PsnField> fields) {
+		results = new ResultSink<PsnTrophyOfficial>(callback);
+		builder = new Builder(PsnUtils.STRING_POOL.intern(psnId));
+		this.filter = filter;
+		dates = fields == null || fields.contains(PsnField.DATE_EARNED);
 	}
 
 	public List<PsnTrophyOfficial> getTrophyList() {
-		return list;
+		return results.getList();
 	}
 
 	public String getResult() {
@@ -59,36 +78,83 @@ public final class HandlerXmlTrophy extends HandlerXml {
 	}
 
 	@Override
-	public void startElement(String uri, String localName, String qName,
-			Attributes attributes) throws SAXException {
-		super.startElement(uri, localName, qName, attributes);
+	protected String[] getSymbols() {
+		return SYMBOLS;
+	}
 
-		if (startTag.equalsIgnoreCase("nptrophy")) {
-			result = attributes.getValue("result");
-		} else if (startTag.equalsIgnoreCase("info")) {
-			builder.setGameId(attributes.getValue(NPCOMMID));
-			builder.setPlatform(Platform.getPlatform(attributes.getValue(PF)));
-		} else if (startTag.equalsIgnoreCase("trophy")) {
-			builder.setIndex(Integer.parseInt(attributes.getValue("id")));
-			if (attributes.getIndex(NPCOMMID) != -1) builder
-					.setGameId(attributes.getValue(NPCOMMID));
-			switch (Integer.parseInt(attributes.getValue("type"))) {
-				case 0:
-					builder.setType(BRONZE);
-					break;
-				case 1:
-					builder.setType(SILVER);
+	@Override
+	public String[] getScanSymbols() {
+		return SYMBOLS;
+	}
+
+	@Override
+	public void scan(NpTrophyScanner scanner) {
+		int event;
+		int current = -1;
+		boolean started = false;
+
+		while ((event = scanner.next()) != NpTrophyScanner.EOF) {
+			switch (event) {
+				case NpTrophyScanner.START:
+					current = scanner.tag();
+					started = true;
+					switch (current) {
+						case NPTROPHY:
+							result = scanner.attribute("result");
+							break;
+						case TROPHY:
+							clearEarned();
+							// fall through, trophy has the same attributes
+						case INFO:
+							for (int id = 0; id < Builder.FIELD_COUNT; id++) {
+								String name = Builder.FIELD_NAMES[id];
+								if (name != null
+										&& scanner.attribute(name, value)) builder
+										.setField(id, value);
+							}
+							break;
+					}
 					break;
-				case 2:
-					builder.setType(GOLD);
+				case NpTrophyScanner.END:
+					if (scanner.tag() == TROPHY) addTrophy();
 					break;
-				case 3:
-					builder.setType(PLATINUM);
+				case NpTrophyScanner.TEXT:
+					// only earned trophies have a date
+					if (started && current == TROPHY) setDateEarned(scanner
+							.text(value));
+					started = false;
 					break;
 			}
-			if (attributes.getIndex(PF) != -1) builder.setPlatform(Platform
-					.getPlatform(attributes.getValue(PF)));
+		}
+	}
 
+	@Override
+	public void reset() {
+		results.reset();
+		result = null;
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName,
+			Attributes attributes) throws SAXException {
+		super.startElement(uri, localName, qName, attributes);
+
+		switch (startId) {
+			case NPTROPHY:
+				result = attributes.getValue("result");
+				break;
+			case TROPHY:
+				clearEarned();
+				// fall through, trophy has the same attributes
+			case INFO:
+				for (int id = 0; id < Builder.FIELD_COUNT; id++) {
+					String name = Builder.FIELD_NAMES[id];
+					String str = name != null ? attributes.getValue(name)
+							: null;
+					if (str != null) builder.setField(id, value.set(
+							str.toCharArray(), 0, str.length()));
+				}
+				break;
 		}
 	}
 
@@ -96,19 +162,37 @@ public final class HandlerXmlTrophy extends HandlerXml {
 	public void endElement(String uri, String localName, String qName)
 			throws SAXException {
 		super.endElement(uri, localName, qName);
+		// whitespace after an empty trophy isn't its date
+		calledStartElement = false;
 
-		if (endTag.equalsIgnoreCase("trophy")) list.add(builder.build());
+		if (endId == TROPHY) addTrophy();
 	}
 
 	@Override
 	public void characters(char[] ch, int start, int length)
 			throws SAXException {
-		if (calledStartElement) {
-			if (startTag.equalsIgnoreCase("trophy")) builder
-					.setDateEarned(new String(ch, start, length));
-		}
+		if (calledStartElement && startId == TROPHY) setDateEarned(value.set(
+				ch, start, length));
 
 		calledStartElement = false;
 	}
 
+	// builder is reused, unearned trophies have no text to overwrite it
+	private void clearEarned() {
+		builder.setReceieved(false);
+		builder.setDateEarned(null, PsnUtils.NO_DATE);
+	}
+
+	// only earned trophies have a date
+	private void setDateEarned(CharSlice text) {
+		if (dates) builder.setField(Builder.FIELD_DATE_EARNED, text);
+		else
+			builder.setReceieved(true);
+	}
+
+	private void addTrophy() {
+		if (filter == null || filter.accept(builder)) results.add(builder
+				.build());
+	}
+
 }
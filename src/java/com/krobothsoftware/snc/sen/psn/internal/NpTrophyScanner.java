@@ -0,0 +1,506 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.snc.sen.psn.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.krobothsoftware.commons.parse.CharSlice;
+import com.krobothsoftware.commons.parse.HandlerXml;
+import com.krobothsoftware.commons.parse.ParseException;
+import com.krobothsoftware.commons.parse.Parser;
+import com.krobothsoftware.commons.parse.StopException;
+import com.krobothsoftware.commons.util.StringPool;
+import com.krobothsoftware.snc.sen.psn.PsnUtils;
+
+/**
+ * Byte level scanner for the small, fixed <i>nptrophy</i> documents returned
+ * by <code>trophy.ww.np.community.playstation.net</code>. Reads the whole
+ * response into a pooled buffer and walks the bytes directly. Element names
+ * are matched against the handler's symbols and ints are parsed in place, so
+ * no decoder, <code>Attributes</code> or per-element strings are created.
+ *
+ * <p>
+ * Only the subset of XML these documents use is supported. Anything else
+ * (CDATA, DOCTYPE, entities or non-ASCII in a value that is read, a charset
+ * which isn't ASCII compatible) resets the handler and falls back to SAX on
+ * the buffered bytes. A {@link StopException} from the handler ends the scan
+ * without falling back.
+ * </p>
+ *
+ * @author Kyle Kroboth
+ * @since SEN-PSN 1.0.1
+ */
+public final class NpTrophyScanner {
+	public static final int EOF = 0;
+	public static final int START = 1;
+	public static final int END = 2;
+	public static final int TEXT = 3;
+
+	// don't keep huge buffers around after a large response
+	private static final int MAX_POOLED = 256 * 1024;
+	private static final int INITIAL_BUFFER = 8 * 1024;
+	private static final ThreadLocal<byte[]> POOL = new ThreadLocal<byte[]>();
+	private static final ScanException FAILED = new ScanException();
+
+	private final byte[] b;
+	private final int limit;
+	private final byte[][] names;
+	private int pos;
+
+	private int tag = -1;
+	private boolean pendingEnd;
+	private int attrStart;
+	private int attrEnd;
+	private int textStart;
+	private int textEnd;
+	private int valueEnd;
+	private char[] chars = new char[32];
+
+	private NpTrophyScanner(byte[] b, int limit, String[] symbols) {
+		this.b = b;
+		this.limit = limit;
+		names = new byte[symbols.length][];
+		for (int i = 0; i < symbols.length; i++) {
+			String symbol = symbols[i];
+			names[i] = new byte[symbol.length()];
+			for (int n = 0; n < names[i].length; n++)
+				names[i][n] = (byte) symbol.charAt(n);
+		}
+		// UTF-8 byte order mark
+		if (limit >= 3 && (b[0] & 0xFF) == 0xEF && (b[1] & 0xFF) == 0xBB
+				&& (b[2] & 0xFF) == 0xBF) pos = 3;
+	}
+
+	/**
+	 * Handler which can be fed by scanner.
+	 *
+	 * @since SEN-PSN 1.0.1
+	 */
+	public interface Target {
+
+		/**
+		 * Gets element names scanner matches. Id of each name is its index.
+		 *
+		 * @return element names
+		 */
+		String[] getScanSymbols();
+
+		/**
+		 * Walks events of scanner.
+		 *
+		 * @param scanner
+		 */
+		void scan(NpTrophyScanner scanner);
+
+		/**
+		 * Clears any state set by a failed scan. May rethrow an exception
+		 * which shouldn't be retried with SAX.
+		 */
+		void reset();
+	}
+
+	/**
+	 * Parses nptrophy document for handler. Uses the scanner if charset is
+	 * ASCII compatible, and SAX if not or if scanning fails. When scanning,
+	 * whole stream is read before the handler gets its first event, so
+	 * callbacks get no backpressure and memory grows with the response.
+	 * Scanning may run on several threads at once, while SAX fallback runs
+	 * one document at a time on the shared {@link Parser}.
+	 *
+	 * @param parser
+	 *            parser for fallback
+	 * @param inputStream
+	 *            response stream
+	 * @param handler
+	 *            handler to fill
+	 * @param charset
+	 *            charset of response
+	 * @throws ParseException
+	 * @throws IOException
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static <T extends HandlerXml & Target> void parse(Parser parser,
+			InputStream inputStream, T handler, String charset)
+			throws ParseException, IOException {
+		if (!isAsciiCompatible(charset)) {
+			parser.parse(inputStream, handler, charset);
+			return;
+		}
+
+		// taken out of pool while in use, callbacks may parse another
+		// response on this thread
+		byte[] buffer = POOL.get();
+		POOL.set(null);
+		if (buffer == null) buffer = new byte[INITIAL_BUFFER];
+		int length = 0;
+		try {
+			int read;
+			while ((read = inputStream.read(buffer, length, buffer.length
+					- length)) != -1) {
+				length += read;
+				if (length == buffer.length) {
+					byte[] grown = new byte[buffer.length << 1];
+					System.arraycopy(buffer, 0, grown, 0, length);
+					buffer = grown;
+				}
+			}
+
+			try {
+				handler.scan(new NpTrophyScanner(buffer, length, handler
+						.getScanSymbols()));
+				return;
+			} catch (StopException e) {
+				// handler is done
+				return;
+			} catch (RuntimeException e) {
+				// unexpected input, let SAX handle it
+			}
+			handler.reset();
+			parser.parse(new ByteArrayInputStream(buffer, 0, length), handler,
+					charset);
+		} finally {
+			if (buffer.length <= MAX_POOLED) POOL.set(buffer);
+		}
+	}
+
+	/**
+	 * Advances to next event.
+	 *
+	 * @return {@link #START}, {@link #END}, {@link #TEXT} or {@link #EOF}
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int next() {
+		if (pendingEnd) {
+			pendingEnd = false;
+			return END;
+		}
+		while (pos < limit) {
+			if (b[pos] != '<') {
+				textStart = pos;
+				while (pos < limit && b[pos] != '<')
+					pos++;
+				textEnd = pos;
+				return TEXT;
+			}
+
+			byte c = peek(pos + 1);
+			if (c == '?') {
+				pos = skipPast(pos + 2, "?>");
+			} else if (c == '!') {
+				if (peek(pos + 2) != '-' || peek(pos + 3) != '-') throw FAILED;
+				pos = skipPast(pos + 4, "-->");
+			} else if (c == '/') {
+				int start = pos + 2;
+				int end = nameEnd(start);
+				tag = match(start, end);
+				pos = skipSpace(end);
+				if (peek(pos) != '>') throw FAILED;
+				pos++;
+				return END;
+			} else {
+				int start = pos + 1;
+				int end = nameEnd(start);
+				if (end == start) throw FAILED;
+				tag = match(start, end);
+				attrStart = end;
+				pos = end;
+				byte quote = 0;
+				for (; pos < limit; pos++) {
+					byte ch = b[pos];
+					if (quote != 0) {
+						if (ch == quote) quote = 0;
+					} else if (ch == '"' || ch == '\'') quote = ch;
+					else if (ch == '>') break;
+				}
+				if (pos == limit) throw FAILED;
+				attrEnd = pos;
+				if (b[pos - 1] == '/') {
+					attrEnd--;
+					pendingEnd = true;
+				}
+				pos++;
+				return START;
+			}
+		}
+		return EOF;
+	}
+
+	/**
+	 * Gets symbol id of current start or end element.
+	 *
+	 * @return id, or -1 if unknown
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int tag() {
+		return tag;
+	}
+
+	/**
+	 * Gets attribute of current start element.
+	 *
+	 * @param name
+	 *            attribute name
+	 * @return value, or null if not found
+	 * @since SEN-PSN 1.0.1
+	 */
+	public String attribute(String name) {
+		int start = findAttribute(name);
+		if (start == -1) return null;
+		return ascii(start, valueEnd);
+	}
+
+	/**
+	 * Gets attribute of current start element from pool. A string is only
+	 * created if value isn't pooled.
+	 *
+	 * @param name
+	 *            attribute name
+	 * @param pool
+	 *            pool to look up value in
+	 * @return pooled value, or null if not found
+	 * @since SEN-PSN 1.0.1
+	 */
+	public String attribute(String name, StringPool pool) {
+		int start = findAttribute(name);
+		if (start == -1) return null;
+		int length = ascii(start, valueEnd, chars.length);
+		return pool.intern(chars, 0, length);
+	}
+
+	/**
+	 * Points slice to attribute of current start element without creating a
+	 * string. Slice is only valid until the next call.
+	 *
+	 * @param name
+	 *            attribute name
+	 * @param slice
+	 *            slice to point to value
+	 * @return true, if found
+	 * @since SEN-PSN 1.0.1
+	 */
+	public boolean attribute(String name, CharSlice slice) {
+		int start = findAttribute(name);
+		if (start == -1) return false;
+		slice.set(chars, 0, ascii(start, valueEnd, chars.length));
+		return true;
+	}
+
+	/**
+	 * Gets attribute of current start element as int.
+	 *
+	 * @param name
+	 *            attribute name
+	 * @return value
+	 * @throws RuntimeException
+	 *             if not found or not an int, which makes caller fall back
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int attributeInt(String name) {
+		int start = findAttribute(name);
+		if (start == -1) throw FAILED;
+		return parseInt(start, valueEnd);
+	}
+
+	/**
+	 * Gets current text.
+	 *
+	 * @return text
+	 * @since SEN-PSN 1.0.1
+	 */
+	public String text() {
+		return ascii(textStart, textEnd);
+	}
+
+	/**
+	 * Points slice to current text without creating a string. Slice is only
+	 * valid until the next call.
+	 *
+	 * @param slice
+	 *            slice to point to text
+	 * @return slice
+	 * @since SEN-PSN 1.0.1
+	 */
+	public CharSlice text(CharSlice slice) {
+		return slice.set(chars, 0, ascii(textStart, textEnd, chars.length));
+	}
+
+	/**
+	 * Gets current text as int. Surrounding whitespace is skipped.
+	 *
+	 * @return value
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int textInt() {
+		int start = textStart;
+		int end = textEnd;
+		while (start < end && b[start] <= ' ')
+			start++;
+		while (end > start && b[end - 1] <= ' ')
+			end--;
+		return parseInt(start, end);
+	}
+
+	/**
+	 * Gets current text as date without creating a string.
+	 *
+	 * @return milliseconds since epoch, or {@link PsnUtils#NO_DATE} if not a
+	 *         date
+	 * @see PsnUtils#parseDate(char[], int, int)
+	 * @since SEN-PSN 1.0.1
+	 */
+	public long textDate() {
+		int length = ascii(textStart, textEnd, chars.length);
+		return PsnUtils.parseDate(chars, 0, length);
+	}
+
+	// returns start of value and sets valueEnd, or -1
+	private int findAttribute(String name) {
+		int i = attrStart;
+		while (true) {
+			i = skipSpace(i);
+			if (i >= attrEnd) return -1;
+			int nameStart = i;
+			while (i < attrEnd && b[i] != '=' && b[i] > ' ')
+				i++;
+			int nameEnd = i;
+			i = skipSpace(i);
+			if (i >= attrEnd || b[i] != '=') throw FAILED;
+			i = skipSpace(i + 1);
+			if (i >= attrEnd) throw FAILED;
+			byte quote = b[i];
+			if (quote != '"' && quote != '\'') throw FAILED;
+			int start = ++i;
+			while (i < attrEnd && b[i] != quote)
+				i++;
+			if (i >= attrEnd) throw FAILED;
+			if (equals(nameStart, nameEnd, name)) {
+				valueEnd = i;
+				return start;
+			}
+			i++;
+		}
+	}
+
+	private boolean equals(int start, int end, String name) {
+		if (end - start != name.length()) return false;
+		for (int i = 0; i < name.length(); i++)
+			if (b[start + i] != name.charAt(i)) return false;
+		return true;
+	}
+
+	private int match(int start, int end) {
+		int length = end - start;
+		outer: for (int i = 0; i < names.length; i++) {
+			byte[] name = names[i];
+			if (name.length != length) continue;
+			for (int n = 0; n < length; n++)
+				if (b[start + n] != name[n]) continue outer;
+			return i;
+		}
+		return -1;
+	}
+
+	private int nameEnd(int i) {
+		while (i < limit) {
+			byte c = b[i];
+			if (c <= ' ' || c == '>' || c == '/') break;
+			i++;
+		}
+		return i;
+	}
+
+	private int skipSpace(int i) {
+		while (i < limit && b[i] <= ' ' && b[i] >= 0)
+			i++;
+		return i;
+	}
+
+	private int skipPast(int i, String end) {
+		int last = limit - end.length();
+		for (; i <= last; i++)
+			if (equals(i, i + end.length(), end)) return i + end.length();
+		throw FAILED;
+	}
+
+	private byte peek(int i) {
+		return i < limit ? b[i] : 0;
+	}
+
+	// copies into chars, growing it if needed, and returns length
+	private int ascii(int start, int end, int capacity) {
+		int length = end - start;
+		if (length > capacity) chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			byte c = b[start + i];
+			if (c < 0 || c == '&') throw FAILED;
+			chars[i] = (char) c;
+		}
+		return length;
+	}
+
+	private String ascii(int start, int end) {
+		char[] chars = new char[end - start];
+		for (int i = start; i < end; i++) {
+			byte c = b[i];
+			// multi-byte or entity, needs a real decoder
+			if (c < 0 || c == '&') throw FAILED;
+			chars[i - start] = (char) c;
+		}
+		return new String(chars);
+	}
+
+	private int parseInt(int start, int end) {
+		boolean negative = start < end && b[start] == '-';
+		if (negative) start++;
+		if (start == end || end - start > 9) throw FAILED;
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			int digit = b[i] - '0';
+			if (digit < 0 || digit > 9) throw FAILED;
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	private static boolean isAsciiCompatible(String charset) {
+		return charset == null || charset.equalsIgnoreCase("UTF-8")
+				|| charset.equalsIgnoreCase("UTF8")
+				|| charset.equalsIgnoreCase("US-ASCII")
+				|| charset.equalsIgnoreCase("ISO-8859-1");
+	}
+
+	/**
+	 * Thrown on unexpected input. Shared and without stack trace since it is
+	 * only used to fall back.
+	 */
+	private static final class ScanException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		ScanException() {
+			super("Unexpected nptrophy document");
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+
+}
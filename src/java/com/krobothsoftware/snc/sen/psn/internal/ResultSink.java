@@ -0,0 +1,104 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.snc.sen.psn.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.krobothsoftware.commons.parse.ResultCallback;
+import com.krobothsoftware.commons.parse.StopException;
+
+/**
+ * Destination of a handler's results. Either collects them into a list or
+ * passes each one to a {@link ResultCallback}.
+ *
+ * <p>
+ * If a {@link NpTrophyScanner} falls back to SAX, results already given to
+ * the callback are skipped on the second pass, and an exception thrown by the
+ * callback is rethrown from {@link #reset()} instead of parsing again.
+ * </p>
+ *
+ * @author Kyle Kroboth
+ * @since SEN-PSN 1.0.1
+ */
+final class ResultSink<T> {
+	private final ResultCallback<? super T> callback;
+	private final ArrayList<T> list;
+	private int delivered;
+	private int skip;
+	private RuntimeException error;
+
+	ResultSink(ResultCallback<? super T> callback) {
+		this.callback = callback;
+		list = callback == null ? new ArrayList<T>() : null;
+	}
+
+	/**
+	 * Sets expected number of results.
+	 */
+	void ensureCapacity(int capacity) {
+		if (list != null) list.ensureCapacity(capacity);
+	}
+
+	/**
+	 * Adds result to list or gives it to callback.
+	 *
+	 * @throws StopException
+	 *             if callback returned false
+	 */
+	void add(T result) {
+		if (callback == null) {
+			list.add(result);
+			return;
+		}
+
+		if (skip > 0) {
+			skip--;
+			return;
+		}
+		boolean more;
+		try {
+			more = callback.onResult(result);
+		} catch (RuntimeException e) {
+			error = e;
+			throw e;
+		}
+		delivered++;
+		if (!more) throw new StopException();
+	}
+
+	/**
+	 * Gets collected results.
+	 *
+	 * @return results, empty if none or if a callback is used
+	 */
+	List<T> getList() {
+		return list != null ? list : Collections.<T> emptyList();
+	}
+
+	/**
+	 * Prepares for parsing same document again.
+	 */
+	void reset() {
+		if (error != null) throw error;
+		if (list != null) list.clear();
+		skip = delivered;
+	}
+
+}
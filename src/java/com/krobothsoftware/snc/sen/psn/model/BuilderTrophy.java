@@ -17,6 +17,7 @@
 
 package com.krobothsoftware.snc.sen.psn.model;
 
+import com.krobothsoftware.snc.sen.psn.PsnUtils;
 import com.krobothsoftware.snc.sen.psn.Trophy;
 
 /**
@@ -30,6 +31,7 @@ public abstract class BuilderTrophy<T> {
 	public int index;
 	public String gameId;
 	public String dateEarned;
+	public long dateEarnedMillis = PsnUtils.NO_DATE;
 	public boolean received;
 	public Trophy type;
 
@@ -48,7 +50,22 @@ public abstract class BuilderTrophy<T> {
 	}
 
 	public BuilderTrophy<T> setDateEarned(String dateEarned) {
+		return setDateEarned(dateEarned, PsnUtils.parseDate(dateEarned));
+	}
+
+	/**
+	 * Sets date earned already parsed by handler, so it isn't parsed again.
+	 * 
+	 * @param dateEarned
+	 *            date as shown by site
+	 * @param millis
+	 *            milliseconds since epoch, or {@link PsnUtils#NO_DATE}
+	 * @return this builder
+	 * @since SEN-PSN 1.0.1
+	 */
+	public BuilderTrophy<T> setDateEarned(String dateEarned, long millis) {
 		this.dateEarned = dateEarned;
+		dateEarnedMillis = millis;
 		return this;
 	}
 
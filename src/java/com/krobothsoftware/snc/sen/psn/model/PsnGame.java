@@ -21,6 +21,7 @@ import java.io.Serializable;
 
 import com.krobothsoftware.snc.sen.OnlineId;
 import com.krobothsoftware.snc.sen.Platform;
+import com.krobothsoftware.snc.sen.psn.PsnUtils;
 
 /**
  * Holds game data used by <i>UK</i> and <i>US</i> methods.
@@ -34,6 +35,7 @@ public class PsnGame implements OnlineId, Serializable {
 	private final String gameId;
 	private final Platform pf;
 	private final String name;
+	private final String imagePrefix;
 	private final String image;
 	private final int progress;
 	private final int platinum;
@@ -47,6 +49,7 @@ public class PsnGame implements OnlineId, Serializable {
 		gameId = builder.gameId;
 		pf = builder.pf;
 		name = builder.name;
+		imagePrefix = builder.imagePrefix;
 		image = builder.image;
 		progress = builder.progress;
 		platinum = builder.platinum;
@@ -105,7 +108,7 @@ public class PsnGame implements OnlineId, Serializable {
 	 * @since SEN-PSN 1.0
 	 */
 	public String getImage() {
-		return image;
+		return imagePrefix == null ? image : imagePrefix.concat(image);
 	}
 
 	/**
@@ -187,10 +190,12 @@ public class PsnGame implements OnlineId, Serializable {
 	 * @since SEN-PSN 1.0
 	 */
 	public static class Builder extends BuilderGame<PsnGame> {
-		String name;
-		Platform pf;
-		String image;
-		int progress;
+		public String name;
+		public Platform pf;
+		// split url, read whole url with getImage()
+		private String imagePrefix;
+		private String image;
+		public int progress;
 
 		public Builder(String userId) {
 			super(userId);
@@ -208,10 +213,39 @@ public class PsnGame implements OnlineId, Serializable {
 		}
 
 		public Builder setImage(String gameImage) {
-			this.image = gameImage;
+			String prefix = PsnUtils.TROPHY_IMAGE_PREFIX;
+			if (gameImage == null || !gameImage.startsWith(prefix)) return setImage(
+					null, gameImage);
+			return setImage(prefix, gameImage.substring(prefix.length()));
+		}
+
+		/**
+		 * Sets image url as a shared prefix and the rest of the url, so the
+		 * prefix isn't copied for each game.
+		 * 
+		 * @param prefix
+		 *            start of url, or null if image is the whole url
+		 * @param image
+		 *            rest of url
+		 * @return this builder
+		 * @since SEN-PSN 1.0.1
+		 */
+		public Builder setImage(String prefix, String image) {
+			imagePrefix = prefix;
+			this.image = image;
 			return this;
 		}
 
+		/**
+		 * Gets whole image url.
+		 * 
+		 * @return image url, or null if not set
+		 * @since SEN-PSN 1.0.1
+		 */
+		public String getImage() {
+			return imagePrefix == null ? image : imagePrefix.concat(image);
+		}
+
 		public Builder setProgress(int progress) {
 			this.progress = progress;
 			return this;
@@ -17,10 +17,13 @@
 
 package com.krobothsoftware.snc.sen.psn.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 import com.krobothsoftware.snc.sen.Platform;
 import com.krobothsoftware.snc.sen.psn.Jid;
+import com.krobothsoftware.snc.sen.psn.PsnUtils;
 
 /**
  * Holds game data for <i>Official</i> methods.
@@ -38,6 +41,8 @@ public class PsnGameOfficial implements Jid, Serializable {
 	private final int silver;
 	private final int bronze;
 	private final String lastUpdated;
+	// derived from lastUpdated, not in serialized form
+	private transient long lastUpdatedMillis;
 
 	PsnGameOfficial(Builder builder) {
 		jid = builder.userId;
@@ -48,6 +53,7 @@ public class PsnGameOfficial implements Jid, Serializable {
 		silver = builder.silver;
 		bronze = builder.bronze;
 		lastUpdated = builder.lastUpdated;
+		lastUpdatedMillis = builder.lastUpdatedMillis;
 	}
 
 	/**
@@ -121,14 +127,29 @@ public class PsnGameOfficial implements Jid, Serializable {
 	 * Gets last updated or when trophy was recieved.
 	 * 
 	 * @return last updated
-	 * @see com.krobothsoftware.snc.sen.psn.PsnUtils#getOfficialDate(String,
-	 *      java.util.Locale)
+	 * @see #getLastUpdatedMillis()
 	 * @since SEN-PSN 1.0
 	 */
 	public String getLastUpdated() {
 		return lastUpdated;
 	}
 
+	/**
+	 * Gets last updated, parsed when game was read.
+	 * 
+	 * @return milliseconds since epoch, or {@link PsnUtils#NO_DATE}
+	 * @since SEN-PSN 1.0.1
+	 */
+	public long getLastUpdatedMillis() {
+		return lastUpdatedMillis;
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		in.defaultReadObject();
+		lastUpdatedMillis = PsnUtils.parseDate(lastUpdated);
+	}
+
 	/**
 	 * Returns string in format "PsnGameOfficial [npCommid='nmCommid',
 	 * platinum='platinum', gold='gold', silver='silver', bronze='bronze',
@@ -152,8 +173,9 @@ public class PsnGameOfficial implements Jid, Serializable {
 	 * @since SEN-PSN 1.0
 	 */
 	public static class Builder extends BuilderGame<PsnGameOfficial> {
-		String lastUpdated;
-		Platform pf;
+		public String lastUpdated;
+		public long lastUpdatedMillis = PsnUtils.NO_DATE;
+		public Platform pf;
 
 		public Builder(String userId) {
 			super(userId);
@@ -166,7 +188,23 @@ public class PsnGameOfficial implements Jid, Serializable {
 		}
 
 		public Builder setLastUpdated(String lastUpdated) {
+			return setLastUpdated(lastUpdated, PsnUtils.parseDate(lastUpdated));
+		}
+
+		/**
+		 * Sets last updated already parsed by handler, so it isn't parsed
+		 * again.
+		 * 
+		 * @param lastUpdated
+		 *            official date
+		 * @param millis
+		 *            milliseconds since epoch, or {@link PsnUtils#NO_DATE}
+		 * @return this builder
+		 * @since SEN-PSN 1.0.1
+		 */
+		public Builder setLastUpdated(String lastUpdated, long millis) {
 			this.lastUpdated = lastUpdated;
+			lastUpdatedMillis = millis;
 			return this;
 		}
 
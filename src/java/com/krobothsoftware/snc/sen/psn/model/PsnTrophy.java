@@ -20,6 +20,7 @@ package com.krobothsoftware.snc.sen.psn.model;
 import java.io.Serializable;
 
 import com.krobothsoftware.snc.sen.OnlineId;
+import com.krobothsoftware.snc.sen.psn.PsnUtils;
 import com.krobothsoftware.snc.sen.psn.Trophy;
 
 /**
@@ -34,9 +35,11 @@ public class PsnTrophy implements OnlineId, Serializable {
 	private final int index;
 	private final String gameId;
 	private final String name;
+	private final String imagePrefix;
 	private final String image;
 	private final String description;
 	private final String dateEarned;
+	private final long dateEarnedMillis;
 	private final Trophy type;
 	private final boolean isReceived;
 
@@ -45,9 +48,11 @@ public class PsnTrophy implements OnlineId, Serializable {
 		index = builder.index;
 		gameId = builder.gameId;
 		name = builder.name;
+		imagePrefix = builder.imagePrefix;
 		image = builder.image;
 		description = builder.description;
 		dateEarned = builder.dateEarned;
+		dateEarnedMillis = builder.dateEarnedMillis;
 		type = builder.type;
 		isReceived = builder.received;
 	}
@@ -79,7 +84,7 @@ public class PsnTrophy implements OnlineId, Serializable {
 	 * @since SEN-PSN 1.0
 	 */
 	public String getImage() {
-		return image;
+		return imagePrefix == null ? image : imagePrefix.concat(image);
 	}
 
 	/**
@@ -122,6 +127,17 @@ public class PsnTrophy implements OnlineId, Serializable {
 		return dateEarned;
 	}
 
+	/**
+	 * Gets date earned of trophy, parsed when trophy was read.
+	 * 
+	 * @return milliseconds since epoch, or {@link PsnUtils#NO_DATE} if
+	 *         haven't gotten
+	 * @since SEN-PSN 1.0.1
+	 */
+	public long getDateEarnedMillis() {
+		return dateEarnedMillis;
+	}
+
 	/**
 	 * Gets trophy type.
 	 * 
@@ -164,9 +180,11 @@ public class PsnTrophy implements OnlineId, Serializable {
 	 * 
 	 */
 	public static class Builder extends BuilderTrophy<PsnTrophy> {
-		String name;
-		String image;
-		String description;
+		public String name;
+		// split url, read whole url with getImage()
+		private String imagePrefix;
+		private String image;
+		public String description;
 
 		public Builder(String userId) {
 			super(userId);
@@ -178,10 +196,39 @@ public class PsnTrophy implements OnlineId, Serializable {
 		}
 
 		public Builder setImage(String image) {
+			String prefix = PsnUtils.TROPHY_IMAGE_PREFIX;
+			if (image == null || !image.startsWith(prefix)) return setImage(
+					null, image);
+			return setImage(prefix, image.substring(prefix.length()));
+		}
+
+		/**
+		 * Sets image url as a shared prefix and the rest of the url, so the
+		 * prefix isn't copied for each trophy.
+		 * 
+		 * @param prefix
+		 *            start of url, or null if image is the whole url
+		 * @param image
+		 *            rest of url
+		 * @return this builder
+		 * @since SEN-PSN 1.0.1
+		 */
+		public Builder setImage(String prefix, String image) {
+			imagePrefix = prefix;
 			this.image = image;
 			return this;
 		}
 
+		/**
+		 * Gets whole image url.
+		 * 
+		 * @return image url, or null if not set
+		 * @since SEN-PSN 1.0.1
+		 */
+		public String getImage() {
+			return imagePrefix == null ? image : imagePrefix.concat(image);
+		}
+
 		public Builder setDescription(String description) {
 			this.description = description;
 			return this;
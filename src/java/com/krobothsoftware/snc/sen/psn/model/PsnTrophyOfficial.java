@@ -17,10 +17,15 @@
 
 package com.krobothsoftware.snc.sen.psn.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
+import com.krobothsoftware.commons.parse.CharSlice;
+import com.krobothsoftware.commons.parse.FieldBuilder;
 import com.krobothsoftware.snc.sen.Platform;
 import com.krobothsoftware.snc.sen.psn.Jid;
+import com.krobothsoftware.snc.sen.psn.PsnUtils;
 import com.krobothsoftware.snc.sen.psn.Trophy;
 
 /**
@@ -36,6 +41,8 @@ public class PsnTrophyOfficial implements Jid, Serializable {
 	private final int index;
 	private final String gameId;
 	private final String dateEarned;
+	// derived from dateEarned, not in serialized form
+	private transient long dateEarnedMillis;
 	private final Trophy type;
 	private final boolean isReceived;
 
@@ -44,6 +51,7 @@ public class PsnTrophyOfficial implements Jid, Serializable {
 		index = builder.index;
 		gameId = builder.gameId;
 		dateEarned = builder.dateEarned;
+		dateEarnedMillis = builder.dateEarnedMillis;
 		type = builder.type;
 		isReceived = builder.received;
 		pf = builder.pf;
@@ -97,6 +105,17 @@ public class PsnTrophyOfficial implements Jid, Serializable {
 		return dateEarned;
 	}
 
+	/**
+	 * Gets date earned of trophy, parsed when trophy was read.
+	 * 
+	 * @return milliseconds since epoch, or {@link PsnUtils#NO_DATE} if
+	 *         haven't gotten
+	 * @since SEN-PSN 1.0.1
+	 */
+	public long getDateEarnedMillis() {
+		return dateEarnedMillis;
+	}
+
 	/**
 	 * Gets trophy type.
 	 * 
@@ -117,6 +136,12 @@ public class PsnTrophyOfficial implements Jid, Serializable {
 		return isReceived;
 	}
 
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		in.defaultReadObject();
+		dateEarnedMillis = PsnUtils.parseDate(dateEarned);
+	}
+
 	/**
 	 * Returns string in format "PsnTrophyOfficial [trophyId='index',
 	 * gameId='gameId', earned='earned', type='type']".
@@ -136,8 +161,37 @@ public class PsnTrophyOfficial implements Jid, Serializable {
 	 * @author Kyle Kroboth
 	 * @since SEN-PSN 1.0
 	 */
-	public static class Builder extends BuilderTrophy<PsnTrophyOfficial> {
-		Platform pf;
+	public static class Builder extends BuilderTrophy<PsnTrophyOfficial>
+			implements FieldBuilder {
+		public static final int FIELD_GAME_ID = 0;
+		public static final int FIELD_PLATFORM = 1;
+		public static final int FIELD_INDEX = 2;
+		public static final int FIELD_TYPE = 3;
+		public static final int FIELD_DATE_EARNED = 4;
+
+		/**
+		 * Number of field ids used by builder.
+		 * 
+		 * @since SEN-PSN 1.0.1
+		 */
+		public static final int FIELD_COUNT = 5;
+
+		/**
+		 * Name of each attribute in <i>nptrophy</i> responses, indexed by
+		 * field id. Date earned is the text of the trophy element, so it has
+		 * no name. Shared, don't modify.
+		 * 
+		 * @since SEN-PSN 1.0.1
+		 */
+		public static final String[] FIELD_NAMES = new String[FIELD_COUNT];
+		static {
+			FIELD_NAMES[FIELD_GAME_ID] = "npcommid";
+			FIELD_NAMES[FIELD_PLATFORM] = "pf";
+			FIELD_NAMES[FIELD_INDEX] = "id";
+			FIELD_NAMES[FIELD_TYPE] = "type";
+		}
+
+		public Platform pf;
 
 		public Builder(String userId) {
 			super(userId);
@@ -148,11 +202,56 @@ public class PsnTrophyOfficial implements Jid, Serializable {
 			return this;
 		}
 
+		/**
+		 * Sets field from text. Game ids are pooled, an unknown type keeps
+		 * the previous one, and a date earned also marks trophy as received.
+		 * 
+		 * @since SEN-PSN 1.0.1
+		 */
+		@Override
+		public void setField(int field, CharSlice value) {
+			switch (field) {
+				case FIELD_GAME_ID:
+					gameId = PsnUtils.STRING_POOL.intern(value.array(),
+							value.offset(), value.length());
+					break;
+				case FIELD_PLATFORM:
+					pf = Platform.getPlatform(value.toString());
+					break;
+				case FIELD_INDEX:
+					index = value.parseInt();
+					break;
+				case FIELD_TYPE:
+					Trophy trophy = getType(value.parseInt());
+					if (trophy != null) type = trophy;
+					break;
+				case FIELD_DATE_EARNED:
+					received = true;
+					setDateEarned(value.toString(), PsnUtils.parseDate(
+							value.array(), value.offset(), value.length()));
+					break;
+			}
+		}
+
 		@Override
 		public PsnTrophyOfficial build() {
 			return new PsnTrophyOfficial(this);
 		}
 
+		private static Trophy getType(int type) {
+			switch (type) {
+				case 0:
+					return Trophy.BRONZE;
+				case 1:
+					return Trophy.SILVER;
+				case 2:
+					return Trophy.GOLD;
+				case 3:
+					return Trophy.PLATINUM;
+			}
+			return null;
+		}
+
 	}
 
 }
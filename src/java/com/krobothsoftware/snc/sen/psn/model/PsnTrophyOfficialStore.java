@@ -0,0 +1,378 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.snc.sen.psn.model;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.krobothsoftware.commons.parse.ResultCallback;
+import com.krobothsoftware.snc.sen.Platform;
+import com.krobothsoftware.snc.sen.psn.PsnUtils;
+import com.krobothsoftware.snc.sen.psn.Trophy;
+
+/**
+ * Compact store for large numbers of <i>Official</i> trophies. Each field is
+ * kept in its own primitive array instead of one object per trophy. Jids and
+ * game ids go into a shared dictionary and are stored as int ids. Trophy type
+ * and platform are stored as bytes, index as a short, date earned as epoch
+ * millis and received as a bit. A trophy takes about 20 bytes plus its share
+ * of the dictionary.
+ * 
+ * <p>
+ * Store is a {@link ResultCallback}, so trophies may be appended while they
+ * are parsed without keeping a list.
+ * </p>
+ * 
+ * <pre>
+ * PsnTrophyOfficialStore store = new PsnTrophyOfficialStore();
+ * for (PsnGameOfficial game : games)
+ * 	psn.getOfficialTrophyList(jid, game.getGameId(), store);
+ * </pre>
+ * 
+ * <p>
+ * {@link #get(int)} and {@link #asList()} create trophies on demand. Their
+ * date earned is formatted back into
+ * {@link com.krobothsoftware.snc.sen.psn.PsnUtils#OFFICIAL_DATE_FORMAT}, so
+ * fractions of a second aren't kept. Store isn't thread safe.
+ * </p>
+ * 
+ * @author Kyle Kroboth
+ * @since SEN-PSN 1.0.1
+ */
+public final class PsnTrophyOfficialStore implements
+		ResultCallback<PsnTrophyOfficial>, Serializable {
+	private static final long serialVersionUID = 3183446170251862049L;
+
+	private static final Trophy[] TYPES = Trophy.values();
+	private static final Platform[] PLATFORMS = Platform.values();
+
+	// read directly by PsnTrophyStats
+	final List<String> strings = new ArrayList<String>();
+	private final Map<String, Integer> stringIds = new HashMap<String, Integer>();
+
+	int size;
+	int[] jids;
+	int[] gameIds;
+	byte[] types;
+	byte[] platforms;
+	short[] indexes;
+	private long[] dates;
+	long[] received;
+
+	/**
+	 * Creates empty store.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public PsnTrophyOfficialStore() {
+		this(64);
+	}
+
+	/**
+	 * Creates empty store with room for number of trophies.
+	 * 
+	 * @param capacity
+	 *            initial capacity
+	 * @since SEN-PSN 1.0.1
+	 */
+	public PsnTrophyOfficialStore(int capacity) {
+		if (capacity < 0) throw new IllegalArgumentException(
+				"Capacity may not be negative");
+		allocate(capacity);
+	}
+
+	/**
+	 * Appends trophy.
+	 * 
+	 * @param trophy
+	 *            trophy to add
+	 * @throws IllegalArgumentException
+	 *             if index doesn't fit in a short
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void add(PsnTrophyOfficial trophy) {
+		add(trophy.getJid(), trophy.getGameId(), trophy.getIndex(),
+				trophy.getType(), trophy.getPlatform(),
+				trophy.getDateEarnedMillis(), trophy.isReceived());
+	}
+
+	/**
+	 * Appends all trophies.
+	 * 
+	 * @param trophies
+	 *            trophies to add
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void addAll(Collection<? extends PsnTrophyOfficial> trophies) {
+		ensureCapacity(size + trophies.size());
+		for (PsnTrophyOfficial trophy : trophies)
+			add(trophy);
+	}
+
+	/**
+	 * Appends trophy from builder without building it.
+	 * 
+	 * @param builder
+	 *            builder holding fields of trophy
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void add(PsnTrophyOfficial.Builder builder) {
+		add(builder.userId, builder.gameId, builder.index, builder.type,
+				builder.pf, builder.dateEarnedMillis, builder.received);
+	}
+
+	/**
+	 * Appends parsed trophy.
+	 * 
+	 * @return always true
+	 * @since SEN-PSN 1.0.1
+	 */
+	@Override
+	public boolean onResult(PsnTrophyOfficial result) {
+		add(result);
+		return true;
+	}
+
+	/**
+	 * Gets number of trophies.
+	 * 
+	 * @return size
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets jid of trophy.
+	 * 
+	 * @param i
+	 *            position of trophy
+	 * @return jid
+	 * @since SEN-PSN 1.0.1
+	 */
+	public String getJid(int i) {
+		return strings.get(jids[check(i)]);
+	}
+
+	/**
+	 * Gets <i>Official</i> game id of trophy.
+	 * 
+	 * @param i
+	 *            position of trophy
+	 * @return game id
+	 * @since SEN-PSN 1.0.1
+	 */
+	public String getGameId(int i) {
+		return strings.get(gameIds[check(i)]);
+	}
+
+	/**
+	 * Gets index of trophy in its game.
+	 * 
+	 * @param i
+	 *            position of trophy
+	 * @return trophy index
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int getIndex(int i) {
+		return indexes[check(i)];
+	}
+
+	/**
+	 * Gets type of trophy.
+	 * 
+	 * @param i
+	 *            position of trophy
+	 * @return type, or null if unknown
+	 * @since SEN-PSN 1.0.1
+	 */
+	public Trophy getType(int i) {
+		byte type = types[check(i)];
+		return type < 0 ? null : TYPES[type];
+	}
+
+	/**
+	 * Gets platform of trophy.
+	 * 
+	 * @param i
+	 *            position of trophy
+	 * @return platform, or null if unknown
+	 * @since SEN-PSN 1.0.1
+	 */
+	public Platform getPlatform(int i) {
+		byte platform = platforms[check(i)];
+		return platform < 0 ? null : PLATFORMS[platform];
+	}
+
+	/**
+	 * Gets date trophy was earned.
+	 * 
+	 * @param i
+	 *            position of trophy
+	 * @return milliseconds since epoch, or {@link PsnUtils#NO_DATE}
+	 * @since SEN-PSN 1.0.1
+	 */
+	public long getDateEarned(int i) {
+		return dates[check(i)];
+	}
+
+	/**
+	 * Checks if trophy is received.
+	 * 
+	 * @param i
+	 *            position of trophy
+	 * @return true, if received
+	 * @since SEN-PSN 1.0.1
+	 */
+	public boolean isReceived(int i) {
+		check(i);
+		return (received[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * Creates trophy at position.
+	 * 
+	 * @param i
+	 *            position of trophy
+	 * @return new trophy
+	 * @since SEN-PSN 1.0.1
+	 */
+	public PsnTrophyOfficial get(int i) {
+		PsnTrophyOfficial.Builder builder = new PsnTrophyOfficial.Builder(
+				getJid(i));
+		builder.setIndex(getIndex(i)).setGameId(getGameId(i))
+				.setType(getType(i)).setReceieved(isReceived(i));
+		long date = dates[i];
+		if (date != PsnUtils.NO_DATE) builder.setDateEarned(
+				PsnUtils.formatOfficialDate(date), date);
+		return builder.setPlatform(getPlatform(i)).build();
+	}
+
+	/**
+	 * Gets read only view of store. Trophies are created each time they are
+	 * accessed.
+	 * 
+	 * @return list view
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<PsnTrophyOfficial> asList() {
+		return new AbstractList<PsnTrophyOfficial>() {
+
+			@Override
+			public PsnTrophyOfficial get(int index) {
+				return PsnTrophyOfficialStore.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+		};
+	}
+
+	/**
+	 * Makes room for number of trophies.
+	 * 
+	 * @param capacity
+	 *            minimum capacity
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > jids.length) resize(Math.max(capacity,
+				jids.length + (jids.length >> 1)));
+	}
+
+	/**
+	 * Shrinks arrays to size of store.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void trimToSize() {
+		if (size < jids.length) resize(size);
+	}
+
+	/**
+	 * Removes all trophies. Dictionary is kept.
+	 * 
+	 * @since SEN-PSN 1.0.1
+	 */
+	public void clear() {
+		Arrays.fill(received, 0);
+		size = 0;
+	}
+
+	private void add(String jid, String gameId, int index, Trophy type,
+			Platform platform, long date, boolean isReceived) {
+		if (index < Short.MIN_VALUE || index > Short.MAX_VALUE) throw new IllegalArgumentException(
+				"Trophy index out of range: " + index);
+		ensureCapacity(size + 1);
+		jids[size] = intern(jid);
+		gameIds[size] = intern(gameId);
+		indexes[size] = (short) index;
+		types[size] = (byte) (type == null ? -1 : type.ordinal());
+		platforms[size] = (byte) (platform == null ? -1 : platform.ordinal());
+		dates[size] = date;
+		if (isReceived) received[size >>> 6] |= 1L << size;
+		size++;
+	}
+
+	private int intern(String str) {
+		Integer id = stringIds.get(str);
+		if (id == null) {
+			id = Integer.valueOf(strings.size());
+			strings.add(str);
+			stringIds.put(str, id);
+		}
+		return id.intValue();
+	}
+
+	private int check(int i) {
+		if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index: "
+				+ i + ", Size: " + size);
+		return i;
+	}
+
+	private void allocate(int capacity) {
+		jids = new int[capacity];
+		gameIds = new int[capacity];
+		types = new byte[capacity];
+		platforms = new byte[capacity];
+		indexes = new short[capacity];
+		dates = new long[capacity];
+		received = new long[(capacity + 63) >>> 6];
+	}
+
+	private void resize(int capacity) {
+		jids = Arrays.copyOf(jids, capacity);
+		gameIds = Arrays.copyOf(gameIds, capacity);
+		types = Arrays.copyOf(types, capacity);
+		platforms = Arrays.copyOf(platforms, capacity);
+		indexes = Arrays.copyOf(indexes, capacity);
+		dates = Arrays.copyOf(dates, capacity);
+		received = Arrays.copyOf(received, (capacity + 63) >>> 6);
+	}
+
+}
@@ -0,0 +1,777 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.snc.sen.psn.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.krobothsoftware.snc.sen.Platform;
+import com.krobothsoftware.snc.sen.psn.Trophy;
+
+/**
+ * Stats for trophies in a {@link PsnTrophyOfficialStore}. Includes the players
+ * and completion rate of each game, the rarity of each trophy, and earned
+ * counts by trophy type and platform. Stats are computed once and are
+ * immutable, so they may be shared between threads.
+ * 
+ * <p>
+ * Counting reads the store's arrays directly. Games get dense numbers and
+ * each trophy of a game gets a slot in one int array. The only table is a
+ * primitive long to int table of user and game pairs, so nothing is boxed per
+ * trophy. A large store may be split over an executor. Each task counts its
+ * own range, and the counts are added together at the end.
+ * </p>
+ * 
+ * <pre>
+ * PsnTrophyStats stats = PsnTrophyStats.compute(store, executor);
+ * for (PsnTrophyStats.Rarity rarity : stats.getRarest(10))
+ * 	System.out.println(rarity);
+ * </pre>
+ * 
+ * <p>
+ * The store should hold each trophy once per user. A user is a player of a
+ * game if the store has any trophy of that game for them. A game's trophy
+ * count is the number of distinct indexes seen for it.
+ * </p>
+ * 
+ * @author Kyle Kroboth
+ * @since SEN-PSN 1.0.1
+ */
+public final class PsnTrophyStats {
+	private static final Trophy[] TYPES = Trophy.values();
+	private static final Platform[] PLATFORMS = Platform.values();
+	private static final double PERCENT = 100D;
+	// smallest range worth giving its own task
+	private static final int MIN_BATCH = 8192;
+
+	private final int size;
+	private final String[] gameIds;
+	private final Map<String, Integer> gameNumbers;
+	private final byte[] gamePlatforms;
+	// first slot of each game, plus end of last game
+	private final int[] offsets;
+	private final int[] trophyCounts;
+	private final int[] players;
+	private final int[] completions;
+	private final long[] gameEarned;
+	private final int[] slotCounts;
+	private final int[] slotEarned;
+	private final byte[] slotTypes;
+	private final int[] typeCounts;
+	private final int[] typeEarned;
+	private final int[] platformCounts;
+	private final int[] platformEarned;
+
+	/**
+	 * Computes stats for trophies in store.
+	 * 
+	 * @param store
+	 *            trophies to count
+	 * @return stats
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static PsnTrophyStats compute(PsnTrophyOfficialStore store) {
+		try {
+			return new PsnTrophyStats(store, null);
+		} catch (InterruptedException e) {
+			// no tasks without executor
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * Same as {@link #compute(PsnTrophyOfficialStore)}, but splits large
+	 * stores into tasks on executor. Store must not change until it returns.
+	 * 
+	 * @param store
+	 *            trophies to count
+	 * @param executor
+	 *            executor to run tasks on
+	 * @return stats
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for tasks
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static PsnTrophyStats compute(PsnTrophyOfficialStore store,
+			ExecutorService executor) throws InterruptedException {
+		if (executor == null) throw new IllegalArgumentException(
+				"Executor may not be null");
+		return new PsnTrophyStats(store, executor);
+	}
+
+	/**
+	 * Computes stats for trophies. Trophies are copied into a
+	 * {@link PsnTrophyOfficialStore} first.
+	 * 
+	 * @param trophies
+	 *            trophies to count
+	 * @return stats
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static PsnTrophyStats compute(
+			Collection<? extends PsnTrophyOfficial> trophies) {
+		PsnTrophyOfficialStore store = new PsnTrophyOfficialStore(
+				trophies.size());
+		store.addAll(trophies);
+		return compute(store);
+	}
+
+	private PsnTrophyStats(PsnTrophyOfficialStore store,
+			ExecutorService executor) throws InterruptedException {
+		size = store.size;
+
+		// number games in order of first trophy
+		int[] gameOf = new int[store.strings.size()];
+		Arrays.fill(gameOf, -1);
+		int[] maxIndex = new int[16];
+		int games = 0;
+		for (int i = 0; i < size; i++) {
+			int id = store.gameIds[i];
+			int game = gameOf[id];
+			if (game == -1) {
+				if (games == maxIndex.length) maxIndex = Arrays.copyOf(
+						maxIndex, games << 1);
+				maxIndex[games] = -1;
+				game = gameOf[id] = games++;
+			}
+			if (store.indexes[i] > maxIndex[game]) maxIndex[game] = store.indexes[i];
+		}
+
+		gameIds = new String[games];
+		gameNumbers = new HashMap<String, Integer>(games * 2);
+		for (int id = 0; id < gameOf.length; id++) {
+			if (gameOf[id] == -1) continue;
+			gameIds[gameOf[id]] = store.strings.get(id);
+			gameNumbers.put(store.strings.get(id), Integer.valueOf(gameOf[id]));
+		}
+		offsets = new int[games + 1];
+		for (int game = 0; game < games; game++)
+			offsets[game + 1] = offsets[game] + maxIndex[game] + 1;
+
+		Counter counter = count(store, gameOf, executor);
+		slotCounts = counter.counts;
+		slotEarned = counter.earned;
+		slotTypes = counter.types;
+		gamePlatforms = counter.platforms;
+		typeCounts = counter.typeCounts;
+		typeEarned = counter.typeEarned;
+		platformCounts = counter.platformCounts;
+		platformEarned = counter.platformEarned;
+
+		trophyCounts = new int[games];
+		gameEarned = new long[games];
+		for (int game = 0; game < games; game++) {
+			for (int slot = offsets[game]; slot < offsets[game + 1]; slot++) {
+				if (slotCounts[slot] == 0) continue;
+				trophyCounts[game]++;
+				gameEarned[game] += slotEarned[slot];
+			}
+		}
+
+		players = new int[games];
+		completions = new int[games];
+		LongIntMap pairs = counter.pairs;
+		for (int i = 0; i < pairs.keys.length; i++) {
+			if (pairs.keys[i] == LongIntMap.EMPTY) continue;
+			int game = (int) pairs.keys[i];
+			players[game]++;
+			if (trophyCounts[game] > 0
+					&& pairs.values[i] >= trophyCounts[game]) completions[game]++;
+		}
+	}
+
+	private Counter count(PsnTrophyOfficialStore store, int[] gameOf,
+			ExecutorService executor) throws InterruptedException {
+		int tasks = executor == null ? 1 : Math.min(size / MIN_BATCH, Runtime
+				.getRuntime().availableProcessors());
+		if (tasks < 2) return new Counter(store, gameOf, 0, size).call();
+
+		List<Callable<Counter>> ranges = new ArrayList<Callable<Counter>>(
+				tasks);
+		for (int t = 0; t < tasks; t++)
+			ranges.add(new Counter(store, gameOf, (int) ((long) size * t / tasks),
+					(int) ((long) size * (t + 1) / tasks)));
+		Counter total = null;
+		for (Future<Counter> future : executor.invokeAll(ranges)) {
+			try {
+				if (total == null) total = future.get();
+				else
+					total.add(future.get());
+			} catch (ExecutionException e) {
+				// only unchecked exceptions can be thrown by counters
+				Throwable cause = e.getCause();
+				if (cause instanceof Error) throw (Error) cause;
+				throw (RuntimeException) cause;
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Gets number of trophies counted.
+	 * 
+	 * @return number of trophies
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets ids of all games, in order of their first trophy in store.
+	 * 
+	 * @return read only list of game ids
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<String> getGameIds() {
+		return Collections.unmodifiableList(Arrays.asList(gameIds));
+	}
+
+	/**
+	 * Gets platform of game, taken from its trophies.
+	 * 
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @return platform, or null if unknown
+	 * @since SEN-PSN 1.0.1
+	 */
+	public Platform getPlatform(String gameId) {
+		int game = game(gameId);
+		if (game == -1 || gamePlatforms[game] < 0) return null;
+		return PLATFORMS[gamePlatforms[game]];
+	}
+
+	/**
+	 * Gets number of users with trophies of game.
+	 * 
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @return players, or 0 if game isn't in stats
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int getPlayers(String gameId) {
+		int game = game(gameId);
+		return game == -1 ? 0 : players[game];
+	}
+
+	/**
+	 * Gets number of distinct trophies of game.
+	 * 
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @return trophy count, or 0 if game isn't in stats
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int getTrophyCount(String gameId) {
+		int game = game(gameId);
+		return game == -1 ? 0 : trophyCounts[game];
+	}
+
+	/**
+	 * Gets number of players who earned every trophy of game.
+	 * 
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @return completions, or 0 if game isn't in stats
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int getCompletions(String gameId) {
+		int game = game(gameId);
+		return game == -1 ? 0 : completions[game];
+	}
+
+	/**
+	 * Gets percentage of players who earned every trophy of game.
+	 * 
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @return completion rate in percentage, or 0 if game isn't in stats
+	 * @since SEN-PSN 1.0.1
+	 */
+	public double getCompletionRate(String gameId) {
+		int game = game(gameId);
+		return game == -1 ? 0 : completionRate(game);
+	}
+
+	/**
+	 * Gets average progress of players in game, which is the percentage of
+	 * the game's trophies each player earned.
+	 * 
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @return average progress in percentage, or 0 if game isn't in stats
+	 * @since SEN-PSN 1.0.1
+	 */
+	public double getAverageProgress(String gameId) {
+		int game = game(gameId);
+		if (game == -1 || trophyCounts[game] == 0) return 0;
+		return gameEarned[game] * PERCENT
+				/ ((double) players[game] * trophyCounts[game]);
+	}
+
+	/**
+	 * Gets rarity of trophy.
+	 * 
+	 * @param gameId
+	 *            <i>Official</i> game id
+	 * @param index
+	 *            trophy index
+	 * @return rarity, or null if trophy isn't in stats
+	 * @since SEN-PSN 1.0.1
+	 */
+	public Rarity getRarity(String gameId, int index) {
+		int game = game(gameId);
+		if (game == -1 || index < 0) return null;
+		int slot = offsets[game] + index;
+		if (slot >= offsets[game + 1] || slotCounts[slot] == 0) return null;
+		return rarity(game, slot);
+	}
+
+	/**
+	 * Gets trophies earned by the smallest percentage of their game's
+	 * players, rarest first.
+	 * 
+	 * @param n
+	 *            maximum number of trophies
+	 * @return rarest trophies
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<Rarity> getRarest(int n) {
+		double[] scores = new double[slotCounts.length];
+		int[] games = new int[slotCounts.length];
+		for (int game = 0; game < gameIds.length; game++) {
+			for (int slot = offsets[game]; slot < offsets[game + 1]; slot++) {
+				games[slot] = game;
+				scores[slot] = slotCounts[slot] == 0 ? Double.NaN
+						: -(double) slotEarned[slot] / players[game];
+			}
+		}
+		int[] slots = top(scores, n);
+		List<Rarity> rarest = new ArrayList<Rarity>(slots.length);
+		for (int slot : slots)
+			rarest.add(rarity(games[slot], slot));
+		return rarest;
+	}
+
+	/**
+	 * Gets games with the highest completion rate, highest first.
+	 * 
+	 * @param n
+	 *            maximum number of games
+	 * @return game ids
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<String> getMostCompleted(int n) {
+		double[] scores = new double[gameIds.length];
+		for (int game = 0; game < scores.length; game++)
+			scores[game] = completionRate(game);
+		return games(top(scores, n));
+	}
+
+	/**
+	 * Gets games with the most players, most first.
+	 * 
+	 * @param n
+	 *            maximum number of games
+	 * @return game ids
+	 * @since SEN-PSN 1.0.1
+	 */
+	public List<String> getMostPlayed(int n) {
+		double[] scores = new double[gameIds.length];
+		for (int game = 0; game < scores.length; game++)
+			scores[game] = players[game];
+		return games(top(scores, n));
+	}
+
+	/**
+	 * Gets number of trophies of type, earned or not.
+	 * 
+	 * @param type
+	 *            trophy type
+	 * @return count
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int getCount(Trophy type) {
+		return typeCounts[type.ordinal()];
+	}
+
+	/**
+	 * Gets number of earned trophies of type.
+	 * 
+	 * @param type
+	 *            trophy type
+	 * @return count
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int getEarned(Trophy type) {
+		return typeEarned[type.ordinal()];
+	}
+
+	/**
+	 * Gets number of trophies of platform, earned or not.
+	 * 
+	 * @param platform
+	 *            platform
+	 * @return count
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int getCount(Platform platform) {
+		return platformCounts[platform.ordinal()];
+	}
+
+	/**
+	 * Gets number of earned trophies of platform.
+	 * 
+	 * @param platform
+	 *            platform
+	 * @return count
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int getEarned(Platform platform) {
+		return platformEarned[platform.ordinal()];
+	}
+
+	/**
+	 * Gets number of games of platform.
+	 * 
+	 * @param platform
+	 *            platform
+	 * @return count
+	 * @since SEN-PSN 1.0.1
+	 */
+	public int getGameCount(Platform platform) {
+		int count = 0;
+		for (byte gamePlatform : gamePlatforms)
+			if (gamePlatform == platform.ordinal()) count++;
+		return count;
+	}
+
+	private int game(String gameId) {
+		Integer game = gameNumbers.get(gameId);
+		return game == null ? -1 : game.intValue();
+	}
+
+	private double completionRate(int game) {
+		return completions[game] * PERCENT / players[game];
+	}
+
+	private Rarity rarity(int game, int slot) {
+		byte type = slotTypes[slot];
+		return new Rarity(gameIds[game], slot - offsets[game], type < 0 ? null
+				: TYPES[type], slotEarned[slot], players[game]);
+	}
+
+	private List<String> games(int[] numbers) {
+		List<String> games = new ArrayList<String>(numbers.length);
+		for (int game : numbers)
+			games.add(gameIds[game]);
+		return games;
+	}
+
+	/**
+	 * Gets positions of up to n highest scores, highest first. NaN scores are
+	 * skipped and ties go to the lower position. Uses a min heap of size n.
+	 */
+	private static int[] top(double[] scores, int n) {
+		if (n < 0) throw new IllegalArgumentException(
+				"Number may not be negative");
+		int[] heap = new int[Math.min(n, scores.length)];
+		int count = 0;
+		for (int i = 0; i < scores.length; i++) {
+			if (Double.isNaN(scores[i])) continue;
+			if (count < heap.length) {
+				heap[count] = i;
+				for (int child = count++; child > 0;) {
+					int parent = (child - 1) >> 1;
+					if (!better(heap[parent], heap[child], scores)) break;
+					swap(heap, parent, child);
+					child = parent;
+				}
+			} else if (count > 0 && better(i, heap[0], scores)) {
+				heap[0] = i;
+				siftDown(heap, count, scores);
+			}
+		}
+
+		int[] top = new int[count];
+		while (count > 0) {
+			top[count - 1] = heap[0];
+			heap[0] = heap[--count];
+			siftDown(heap, count, scores);
+		}
+		return top;
+	}
+
+	private static void siftDown(int[] heap, int count, double[] scores) {
+		int parent = 0;
+		for (int child; (child = (parent << 1) + 1) < count; parent = child) {
+			if (child + 1 < count
+					&& better(heap[child], heap[child + 1], scores)) child++;
+			if (!better(heap[parent], heap[child], scores)) break;
+			swap(heap, parent, child);
+		}
+	}
+
+	private static boolean better(int a, int b, double[] scores) {
+		return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+	}
+
+	private static void swap(int[] heap, int a, int b) {
+		int tmp = heap[a];
+		heap[a] = heap[b];
+		heap[b] = tmp;
+	}
+
+	/**
+	 * Earned count of a trophy among its game's players.
+	 * 
+	 * @author Kyle Kroboth
+	 * @since SEN-PSN 1.0.1
+	 */
+	public static final class Rarity {
+		private final String gameId;
+		private final int index;
+		private final Trophy type;
+		private final int earned;
+		private final int players;
+
+		Rarity(String gameId, int index, Trophy type, int earned, int players) {
+			this.gameId = gameId;
+			this.index = index;
+			this.type = type;
+			this.earned = earned;
+			this.players = players;
+		}
+
+		/**
+		 * Gets <i>Official</i> game id of trophy.
+		 * 
+		 * @return game id
+		 * @since SEN-PSN 1.0.1
+		 */
+		public String getGameId() {
+			return gameId;
+		}
+
+		/**
+		 * Gets index of trophy in its game.
+		 * 
+		 * @return trophy index
+		 * @since SEN-PSN 1.0.1
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Gets type of trophy.
+		 * 
+		 * @return type, or null if unknown
+		 * @since SEN-PSN 1.0.1
+		 */
+		public Trophy getType() {
+			return type;
+		}
+
+		/**
+		 * Gets number of players who earned trophy.
+		 * 
+		 * @return earned count
+		 * @since SEN-PSN 1.0.1
+		 */
+		public int getEarned() {
+			return earned;
+		}
+
+		/**
+		 * Gets number of players of trophy's game.
+		 * 
+		 * @return players
+		 * @since SEN-PSN 1.0.1
+		 */
+		public int getPlayers() {
+			return players;
+		}
+
+		/**
+		 * Gets percentage of players who earned trophy.
+		 * 
+		 * @return rarity in percentage
+		 * @since SEN-PSN 1.0.1
+		 */
+		public double getPercent() {
+			return earned * PERCENT / players;
+		}
+
+		@Override
+		public String toString() {
+			return "Rarity [gameId=" + gameId + ", index=" + index + ", type="
+					+ type + ", earned=" + earned + ", players=" + players
+					+ "]";
+		}
+
+	}
+
+	/**
+	 * Counts a range of store. Counters of each range are added together.
+	 */
+	private final class Counter implements Callable<Counter> {
+		final PsnTrophyOfficialStore store;
+		final int[] gameOf;
+		final int from;
+		final int to;
+		final int[] counts = new int[offsets[offsets.length - 1]];
+		final int[] earned = new int[counts.length];
+		final byte[] types = new byte[counts.length];
+		final byte[] platforms = new byte[gameIds.length];
+		final int[] typeCounts = new int[TYPES.length];
+		final int[] typeEarned = new int[TYPES.length];
+		final int[] platformCounts = new int[PLATFORMS.length];
+		final int[] platformEarned = new int[PLATFORMS.length];
+		final LongIntMap pairs;
+
+		Counter(PsnTrophyOfficialStore store, int[] gameOf, int from, int to) {
+			this.store = store;
+			this.gameOf = gameOf;
+			this.from = from;
+			this.to = to;
+			Arrays.fill(types, (byte) -1);
+			Arrays.fill(platforms, (byte) -1);
+			pairs = new LongIntMap((to - from) >> 4);
+		}
+
+		@Override
+		public Counter call() {
+			for (int i = from; i < to; i++) {
+				int game = gameOf[store.gameIds[i]];
+				int got = (store.received[i >>> 6] & (1L << i)) != 0 ? 1 : 0;
+				byte type = store.types[i];
+				byte platform = store.platforms[i];
+				if (type >= 0) {
+					typeCounts[type]++;
+					typeEarned[type] += got;
+				}
+				if (platform >= 0) {
+					platformCounts[platform]++;
+					platformEarned[platform] += got;
+					if (platforms[game] < 0) platforms[game] = platform;
+				}
+				pairs.add(((long) store.jids[i] << 32) | game, got);
+
+				int index = store.indexes[i];
+				if (index < 0) continue;
+				int slot = offsets[game] + index;
+				counts[slot]++;
+				earned[slot] += got;
+				if (type >= 0) types[slot] = type;
+			}
+			return this;
+		}
+
+		void add(Counter other) {
+			for (int slot = 0; slot < counts.length; slot++) {
+				counts[slot] += other.counts[slot];
+				earned[slot] += other.earned[slot];
+				if (types[slot] < 0) types[slot] = other.types[slot];
+			}
+			for (int game = 0; game < platforms.length; game++)
+				if (platforms[game] < 0) platforms[game] = other.platforms[game];
+			for (int t = 0; t < typeCounts.length; t++) {
+				typeCounts[t] += other.typeCounts[t];
+				typeEarned[t] += other.typeEarned[t];
+			}
+			for (int p = 0; p < platformCounts.length; p++) {
+				platformCounts[p] += other.platformCounts[p];
+				platformEarned[p] += other.platformEarned[p];
+			}
+			for (int i = 0; i < other.pairs.keys.length; i++)
+				if (other.pairs.keys[i] != LongIntMap.EMPTY) pairs.add(
+						other.pairs.keys[i], other.pairs.values[i]);
+		}
+
+	}
+
+	/**
+	 * Open addressing table of non-negative long keys to int sums.
+	 */
+	private static final class LongIntMap {
+		static final long EMPTY = -1L;
+
+		long[] keys;
+		int[] values;
+		private int size;
+
+		LongIntMap(int expected) {
+			int capacity = 16;
+			while (capacity < expected * 2)
+				capacity <<= 1;
+			keys = new long[capacity];
+			values = new int[capacity];
+			Arrays.fill(keys, EMPTY);
+		}
+
+		void add(long key, int delta) {
+			int mask = keys.length - 1;
+			int slot = hash(key) & mask;
+			long existing;
+			while ((existing = keys[slot]) != EMPTY) {
+				if (existing == key) {
+					values[slot] += delta;
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+			keys[slot] = key;
+			values[slot] = delta;
+			if (++size * 2 > keys.length) rehash();
+		}
+
+		private void rehash() {
+			long[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = new long[oldKeys.length << 1];
+			values = new int[keys.length];
+			Arrays.fill(keys, EMPTY);
+			int mask = keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] == EMPTY) continue;
+				int slot = hash(oldKeys[i]) & mask;
+				while (keys[slot] != EMPTY)
+					slot = (slot + 1) & mask;
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+
+		private static int hash(long key) {
+			long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+
+	}
+
+}
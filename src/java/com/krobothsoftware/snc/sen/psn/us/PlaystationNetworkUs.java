@@ -36,12 +36,14 @@ import com.krobothsoftware.commons.network.value.NameValuePair;
 import com.krobothsoftware.commons.parse.Handler;
 import com.krobothsoftware.commons.parse.HandlerJson;
 import com.krobothsoftware.commons.parse.ParseException;
+import com.krobothsoftware.commons.parse.UnexpectedContentException;
 import com.krobothsoftware.commons.parse.Parser;
 import com.krobothsoftware.commons.parse.ParserHandler;
 import com.krobothsoftware.commons.parse.ParserJson;
 import com.krobothsoftware.commons.progress.ProgressListener;
 import com.krobothsoftware.commons.progress.ProgressMonitor;
 import com.krobothsoftware.commons.util.CommonUtils;
+import com.krobothsoftware.commons.util.StringMatcher;
 import com.krobothsoftware.snc.Beta;
 import com.krobothsoftware.snc.ClientException;
 import com.krobothsoftware.snc.ClientLoginException;
@@ -88,6 +90,8 @@ import com.krobothsoftware.snc.sen.psn.us.model.PsnUser;
  * @since SEN-PSN-US 1.0
  */
 public class PlaystationNetworkUs extends SonyEntertainmentNetwork {
+	private static final StringMatcher LOGIN_ERRORS = new StringMatcher(
+			"Incorrect", "maintenance");
 	private final PlaystationNetwork psnClient;
 
 	/**
@@ -574,6 +578,9 @@ public class PlaystationNetworkUs extends SonyEntertainmentNetwork {
 			if (handler.failed()) {
 				return null;
 			}
+		} catch (UnexpectedContentException e) {
+			// error page instead of profile
+			return null;
 		} catch (ParseException e) {
 			throw new ClientException(e);
 		} finally {
@@ -828,6 +835,9 @@ public class PlaystationNetworkUs extends SonyEntertainmentNetwork {
 			if (handler.failed()) {
 				return null;
 			}
+		} catch (UnexpectedContentException e) {
+			// error page instead of profile
+			return null;
 		} catch (ParseException e) {
 			throw new ClientException(e);
 		} finally {
@@ -942,7 +952,7 @@ public class PlaystationNetworkUs extends SonyEntertainmentNetwork {
 		if (response instanceof ResponseRedirect) return true;
 
 		switch (CommonUtils.streamingContains(response.getStream(),
-				response.getCharset(), "Incorrect", "maintenance")) {
+				response.getCharset(), LOGIN_ERRORS)) {
 			case 0:
 				throw new ClientLoginException("Incorrect username or password");
 			case 1:
@@ -0,0 +1,97 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package com.krobothsoftware.snc.sen.psn.us;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import com.krobothsoftware.commons.util.ModelCache;
+import com.krobothsoftware.snc.ClientException;
+import com.krobothsoftware.snc.sen.psn.PsnCache;
+import com.krobothsoftware.snc.sen.psn.us.model.PsnGamerProfile;
+
+/**
+ * Caches gamer profiles of {@link PlaystationNetworkUs}. Uses the same
+ * defaults as {@link PsnCache}.
+ * 
+ * @author Kyle Kroboth
+ * @since SEN-PSN-US 1.0.1
+ * @see PsnCache
+ */
+public class PsnUsCache {
+	private final PlaystationNetworkUs psnUs;
+	private final ModelCache<String, PsnGamerProfile> gamerProfiles;
+
+	/**
+	 * Creates new cache.
+	 * 
+	 * @param psnUs
+	 *            network to request values with
+	 * @param executor
+	 *            runs background reloads, or null to reload in caller once
+	 *            expired
+	 * @since SEN-PSN-US 1.0.1
+	 */
+	public PsnUsCache(PlaystationNetworkUs psnUs, Executor executor) {
+		this.psnUs = psnUs;
+		gamerProfiles = PsnCache.newCache(PsnCache.DEFAULT_PROFILE_TTL,
+				executor);
+	}
+
+	/**
+	 * Same as {@link PlaystationNetworkUs#getGamerProfile(String)}, but cached
+	 * by psnId.
+	 * 
+	 * @param psnId
+	 *            id
+	 * @return gamer profile or null if PsnId was not found
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClientException
+	 *             if parser encountered an error
+	 * @since SEN-PSN-US 1.0.1
+	 */
+	public PsnGamerProfile getGamerProfile(String psnId) throws IOException,
+			ClientException {
+		try {
+			return gamerProfiles.get(psnId,
+					new ModelCache.Loader<String, PsnGamerProfile>() {
+
+						@Override
+						public PsnGamerProfile load(String key)
+								throws IOException, ClientException {
+							return psnUs.getGamerProfile(key);
+						}
+
+					});
+		} catch (Exception e) {
+			throw PsnCache.rethrow(e);
+		}
+	}
+
+	/**
+	 * Gets cache of {@link #getGamerProfile(String)}.
+	 * 
+	 * @return gamer profile cache
+	 * @since SEN-PSN-US 1.0.1
+	 */
+	public ModelCache<String, PsnGamerProfile> getGamerProfileCache() {
+		return gamerProfiles;
+	}
+
+}
@@ -23,7 +23,6 @@ import java.util.List;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.krobothsoftware.commons.parse.HandlerJson;
-import com.krobothsoftware.commons.parse.ParseException;
 import com.krobothsoftware.snc.sen.psn.us.model.PsnGamerProfile;
 import com.krobothsoftware.snc.sen.psn.us.model.PsnGamerProfile.Builder;
 
@@ -46,27 +45,14 @@ public class HandlerJsonFriendProfile extends HandlerJson {
 	}
 
 	@Override
-	public void tokenText(String name) throws ParseException,
-			JsonParseException, IOException {
-		super.tokenText(name);
+	protected String[] getSymbols() {
+		return Builder.FRIEND_LIST_FIELD_NAMES;
+	}
 
-		if (name.equals("avatar")) {
-			builder.setAvatar(jsonParser.getText());
-		} else if (name.equals("bronze")) {
-			builder.setBronze(Integer.parseInt(jsonParser.getText()));
-		} else if (name.equals("silver")) {
-			builder.setSilver(Integer.parseInt(jsonParser.getText()));
-		} else if (name.equals("gold")) {
-			builder.setGold(Integer.parseInt(jsonParser.getText()));
-		} else if (name.equals("platinum")) {
-			builder.setPlatinum(Integer.parseInt(jsonParser.getText()));
-		} else if (name.equals("level")) {
-			builder.setLevel(Integer.parseInt(jsonParser.getText()));
-		} else if (name.equals("progress")) {
-			builder.setProgress(Integer.parseInt(jsonParser.getText()));
-		} else if (name.equals("name")) {
-			builder.setPsnId(jsonParser.getText());
-			list.add(builder.build());
-		}
+	@Override
+	protected void field(int id) throws JsonParseException, IOException {
+		builder.setField(id, getTextSlice());
+		// name is last field of each friend
+		if (id == Builder.FIELD_PSN_ID) list.add(builder.build());
 	}
 }
@@ -20,10 +20,12 @@ package com.krobothsoftware.snc.sen.psn.us.internal;
 import java.io.IOException;
 
 import com.fasterxml.jackson.core.JsonParseException;
+import com.krobothsoftware.commons.parse.CharSlice;
 import com.krobothsoftware.commons.parse.HandlerJson;
 import com.krobothsoftware.commons.parse.ParseException;
 import com.krobothsoftware.snc.sen.psn.model.FriendStatus;
 import com.krobothsoftware.snc.sen.psn.us.model.PsnFriendGamerProfile;
+import com.krobothsoftware.snc.sen.psn.us.model.PsnFriendGamerProfile.Builder;
 import com.krobothsoftware.snc.sen.psn.us.model.PsnGamerProfile;
 
 /**
@@ -32,26 +34,15 @@ import com.krobothsoftware.snc.sen.psn.us.model.PsnGamerProfile;
  * @since SEN-PSN-US 1.0
  */
 public class HandlerJsonGamerProfile extends HandlerJson {
-	private String psnId;
-	private String aboutMe;
-	private String avatar;
-	private int bronze;
-	private int silver;
-	private int gold;
-	private int platinum;
-	private int level;
-	private int progress;
-
-	private String comment;
-	private FriendStatus status;
-	private String title;
-	private String titleStatus;
-	private String lastSeen;
+	private final PsnGamerProfile.Builder profile;
+	private final Builder friend;
 
 	private boolean failed;
 
 	public HandlerJsonGamerProfile() {
-		status = FriendStatus.ONLINE;
+		profile = new PsnGamerProfile.Builder();
+		friend = new Builder();
+		friend.setStatus(FriendStatus.ONLINE);
 	}
 
 	@Override
@@ -70,55 +61,27 @@ public class HandlerJsonGamerProfile extends HandlerJson {
 	}
 
 	@Override
-	public void tokenText(String name) throws ParseException,
-			JsonParseException, IOException {
-		super.tokenText(name);
-		if (name.equals("aboutMe")) {
-			aboutMe = jsonParser.getText();
-		} else if (name.equals("avatar")) {
-			avatar = jsonParser.getText();
-		} else if (name.equals("bronze")) {
-			bronze = Integer.parseInt(jsonParser.getText());
-		} else if (name.equals("silver")) {
-			silver = Integer.parseInt(jsonParser.getText());
-		} else if (name.equals("gold")) {
-			gold = Integer.parseInt(jsonParser.getText());
-		} else if (name.equals("platinum")) {
-			platinum = Integer.parseInt(jsonParser.getText());
-		} else if (name.equals("level")) {
-			level = Integer.parseInt(jsonParser.getText());
-		} else if (name.equals("progress")) {
-			progress = Integer.parseInt(jsonParser.getText());
-		} else if (name.equals("userName")) {
-			psnId = jsonParser.getText();
-		} else if (name.equals("comment")) {
-			comment = jsonParser.getText();
-			if (comment.isEmpty()) comment = null;
-		} else if (name.equals("status")) {
-			titleStatus = jsonParser.getText();
-		} else if (name.equals("title")) {
-			title = jsonParser.getText();
-		} else if (name.equals("stamp")) {
-			lastSeen = jsonParser.getText();
-			status = FriendStatus.OFFLINE;
-		}
+	protected String[] getSymbols() {
+		return Builder.FIELD_NAMES;
+	}
+
+	@Override
+	protected void field(int id) throws JsonParseException, IOException {
+		CharSlice value = getTextSlice();
+		friend.setField(id, value);
+		if (id < PsnGamerProfile.Builder.FIELD_COUNT) profile.setField(id,
+				value);
+		// only sent when offline
+		else if (id == Builder.FIELD_LAST_SEEN) friend
+				.setStatus(FriendStatus.OFFLINE);
 	}
 
 	public PsnGamerProfile getProfile() {
-		return new PsnGamerProfile.Builder().setPsnId(psnId)
-				.setAboutMe(aboutMe).setAvatar(avatar).setBronze(bronze)
-				.setSilver(silver).setGold(gold).setPlatinum(platinum)
-				.setLevel(level).setProgress(progress).build();
+		return profile.build();
 	}
 
 	public PsnFriendGamerProfile getFriendProfile() {
-		PsnGamerProfile.Builder builder = new PsnFriendGamerProfile.Builder()
-				.setComment(comment).setStatus(status).setLastSeen(lastSeen)
-				.setTitle(title).setTitleStatus(titleStatus).setPsnId(psnId)
-				.setAboutMe(aboutMe).setAvatar(avatar).setBronze(bronze)
-				.setSilver(silver).setGold(gold).setPlatinum(platinum)
-				.setLevel(level).setProgress(progress);
-		return (PsnFriendGamerProfile) builder.build();
+		return friend.build();
 	}
 
 	public boolean failed() {
@@ -17,6 +17,7 @@
 
 package com.krobothsoftware.snc.sen.psn.us.model;
 
+import com.krobothsoftware.commons.parse.CharSlice;
 import com.krobothsoftware.snc.sen.psn.model.FriendStatus;
 
 /**
@@ -68,8 +69,7 @@ public class PsnFriendGamerProfile extends PsnGamerProfile {
 	 * Gets date of last seen when offline.
 	 * 
 	 * @return last seen date or null if online
-	 * @see com.krobothsoftware.snc.sen.psn.PsnUtils#getOfficialDate(String,
-	 *      java.util.Locale)
+	 * @see com.krobothsoftware.snc.sen.psn.PsnUtils#parseDate(String)
 	 * @since SEN-PSN-US 1.0
 	 */
 	public String getLastSeen() {
@@ -115,6 +115,34 @@ public class PsnFriendGamerProfile extends PsnGamerProfile {
 	 * @since SEN-PSN-US 1.0
 	 */
 	public static class Builder extends PsnGamerProfile.Builder {
+		public static final int FIELD_COMMENT = PsnGamerProfile.Builder.FIELD_COUNT;
+		public static final int FIELD_TITLE = FIELD_COMMENT + 1;
+		public static final int FIELD_TITLE_STATUS = FIELD_COMMENT + 2;
+		public static final int FIELD_LAST_SEEN = FIELD_COMMENT + 3;
+
+		/**
+		 * Number of field ids used by builder, including the gamer profile's.
+		 * 
+		 * @since SEN-PSN-US 1.0.1
+		 */
+		public static final int FIELD_COUNT = FIELD_COMMENT + 4;
+
+		/**
+		 * Name of each field in gamer profile responses, indexed by field id,
+		 * including the gamer profile's. Shared, don't modify.
+		 * 
+		 * @since SEN-PSN-US 1.0.1
+		 */
+		public static final String[] FIELD_NAMES = new String[FIELD_COUNT];
+		static {
+			System.arraycopy(PsnGamerProfile.Builder.FIELD_NAMES, 0,
+					FIELD_NAMES, 0, PsnGamerProfile.Builder.FIELD_COUNT);
+			FIELD_NAMES[FIELD_COMMENT] = "comment";
+			FIELD_NAMES[FIELD_TITLE] = "title";
+			FIELD_NAMES[FIELD_TITLE_STATUS] = "status";
+			FIELD_NAMES[FIELD_LAST_SEEN] = "stamp";
+		}
+
 		String comment;
 		FriendStatus status;
 		String title;
@@ -146,6 +174,31 @@ public class PsnFriendGamerProfile extends PsnGamerProfile {
 			return this;
 		}
 
+		/**
+		 * Sets field from text. An empty comment is set as null.
+		 * 
+		 * @since SEN-PSN-US 1.0.1
+		 */
+		@Override
+		public void setField(int field, CharSlice value) {
+			switch (field) {
+				case FIELD_COMMENT:
+					comment = value.length() == 0 ? null : value.toString();
+					break;
+				case FIELD_TITLE:
+					title = value.toString();
+					break;
+				case FIELD_TITLE_STATUS:
+					titleStatus = value.toString();
+					break;
+				case FIELD_LAST_SEEN:
+					lastSeen = value.toString();
+					break;
+				default:
+					super.setField(field, value);
+			}
+		}
+
 		@Override
 		public PsnFriendGamerProfile build() {
 			return new PsnFriendGamerProfile(this);
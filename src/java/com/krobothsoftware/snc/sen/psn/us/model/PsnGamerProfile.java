@@ -19,6 +19,8 @@ package com.krobothsoftware.snc.sen.psn.us.model;
 
 import java.io.Serializable;
 
+import com.krobothsoftware.commons.parse.CharSlice;
+import com.krobothsoftware.commons.parse.FieldBuilder;
 import com.krobothsoftware.snc.sen.OnlineId;
 
 /**
@@ -159,7 +161,56 @@ public class PsnGamerProfile implements OnlineId, Serializable {
 	 * @author Kyle Kroboth
 	 * @since SEN-PSN-US 1.0
 	 */
-	public static class Builder {
+	public static class Builder implements FieldBuilder {
+		public static final int FIELD_PSN_ID = 0;
+		public static final int FIELD_ABOUT_ME = 1;
+		public static final int FIELD_AVATAR = 2;
+		public static final int FIELD_BRONZE = 3;
+		public static final int FIELD_SILVER = 4;
+		public static final int FIELD_GOLD = 5;
+		public static final int FIELD_PLATINUM = 6;
+		public static final int FIELD_LEVEL = 7;
+		public static final int FIELD_PROGRESS = 8;
+
+		/**
+		 * Number of field ids used by builder.
+		 * 
+		 * @since SEN-PSN-US 1.0.1
+		 */
+		public static final int FIELD_COUNT = 9;
+
+		/**
+		 * Name of each field in gamer profile responses, indexed by field id.
+		 * Handlers use it as their symbols. Shared, don't modify.
+		 * 
+		 * @since SEN-PSN-US 1.0.1
+		 */
+		public static final String[] FIELD_NAMES = new String[FIELD_COUNT];
+
+		/**
+		 * Name of each field in friend list responses, indexed by field id.
+		 * Shared, don't modify.
+		 * 
+		 * @since SEN-PSN-US 1.0.1
+		 */
+		public static final String[] FRIEND_LIST_FIELD_NAMES = new String[FIELD_COUNT];
+		static {
+			FIELD_NAMES[FIELD_PSN_ID] = "userName";
+			FIELD_NAMES[FIELD_ABOUT_ME] = "aboutMe";
+			FIELD_NAMES[FIELD_AVATAR] = "avatar";
+			FIELD_NAMES[FIELD_BRONZE] = "bronze";
+			FIELD_NAMES[FIELD_SILVER] = "silver";
+			FIELD_NAMES[FIELD_GOLD] = "gold";
+			FIELD_NAMES[FIELD_PLATINUM] = "platinum";
+			FIELD_NAMES[FIELD_LEVEL] = "level";
+			FIELD_NAMES[FIELD_PROGRESS] = "progress";
+
+			System.arraycopy(FIELD_NAMES, 0, FRIEND_LIST_FIELD_NAMES, 0,
+					FIELD_COUNT);
+			FRIEND_LIST_FIELD_NAMES[FIELD_PSN_ID] = "name";
+			FRIEND_LIST_FIELD_NAMES[FIELD_ABOUT_ME] = null;
+		}
+
 		String psnId;
 		String aboutMe;
 		String avatar;
@@ -215,6 +266,42 @@ public class PsnGamerProfile implements OnlineId, Serializable {
 			return this;
 		}
 
+		/**
+		 * @since SEN-PSN-US 1.0.1
+		 */
+		@Override
+		public void setField(int field, CharSlice value) {
+			switch (field) {
+				case FIELD_PSN_ID:
+					psnId = value.toString();
+					break;
+				case FIELD_ABOUT_ME:
+					aboutMe = value.toString();
+					break;
+				case FIELD_AVATAR:
+					avatar = value.toString();
+					break;
+				case FIELD_BRONZE:
+					bronze = value.parseInt();
+					break;
+				case FIELD_SILVER:
+					silver = value.parseInt();
+					break;
+				case FIELD_GOLD:
+					gold = value.parseInt();
+					break;
+				case FIELD_PLATINUM:
+					platinum = value.parseInt();
+					break;
+				case FIELD_LEVEL:
+					level = value.parseInt();
+					break;
+				case FIELD_PROGRESS:
+					progress = value.parseInt();
+					break;
+			}
+		}
+
 		public <T extends PsnGamerProfile> PsnGamerProfile build() {
 			return new PsnGamerProfile(this);
 		}
@@ -0,0 +1,180 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.krobothsoftware.commons.parse.HandlerXml;
+import com.krobothsoftware.commons.parse.Parser;
+import com.krobothsoftware.snc.sen.psn.internal.HandlerXmlGame;
+import com.krobothsoftware.snc.sen.psn.internal.HandlerXmlTrophy;
+import com.krobothsoftware.snc.sen.psn.internal.NpTrophyScanner;
+import com.krobothsoftware.snc.sen.psn.model.PsnGameOfficial;
+import com.krobothsoftware.snc.sen.psn.model.PsnTrophyOfficial;
+
+/**
+ * Checks {@link NpTrophyScanner} against SAX on nptrophy fixtures and times
+ * both. Fixtures named <code>get_title_list*</code> are parsed as game lists,
+ * all others as trophy lists. Exits with 1 if any result differs.
+ * 
+ * <pre>
+ * java test.NpTrophyBench fixtures-dir [iterations]
+ * </pre>
+ * 
+ * @author Kyle Kroboth
+ */
+public final class NpTrophyBench {
+	private static final String JID = "bench@a1.us.np.playstation.net";
+	private static final String CHARSET = "UTF-8";
+
+	private final Parser parser;
+	private final int iterations;
+
+	private NpTrophyBench(int iterations) {
+		parser = new Parser();
+		parser.init();
+		this.iterations = iterations;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.err.println("Usage: NpTrophyBench fixtures-dir [iterations]");
+			System.exit(2);
+		}
+		File[] files = new File(args[0]).listFiles();
+		if (files == null) throw new IOException("Not a directory: " + args[0]);
+		Arrays.sort(files);
+		NpTrophyBench bench = new NpTrophyBench(args.length > 1 ? Integer
+				.parseInt(args[1]) : 20000);
+
+		boolean failed = false;
+		for (File file : files) {
+			if (!file.getName().endsWith(".xml")) continue;
+			if (!bench.run(file.getName(), read(file))) failed = true;
+		}
+		if (failed) System.exit(1);
+	}
+
+	private boolean run(String name, byte[] data) throws Exception {
+		boolean games = name.startsWith("get_title_list");
+		List<String> sax = describe(parse(data, games, false), games);
+		List<String> scanned = describe(parse(data, games, true), games);
+		if (!sax.equals(scanned)) {
+			System.out.println(String.format("%-28s FAILED", name));
+			for (int i = 0; i < Math.max(sax.size(), scanned.size()); i++) {
+				String a = i < sax.size() ? sax.get(i) : null;
+				String b = i < scanned.size() ? scanned.get(i) : null;
+				if (a == null || !a.equals(b)) {
+					System.out.println("  sax:  " + a);
+					System.out.println("  scan: " + b);
+					break;
+				}
+			}
+			return false;
+		}
+
+		// warm up both paths before timing
+		time(data, games, false, iterations);
+		time(data, games, true, iterations);
+		long saxNanos = time(data, games, false, iterations);
+		long scanNanos = time(data, games, true, iterations);
+		System.out.println(String.format(
+				"%-28s %4d results  sax %8.1f us  scan %8.1f us  %5.2fx",
+				name, Integer.valueOf(sax.size()),
+				Double.valueOf(saxNanos / 1000D / iterations),
+				Double.valueOf(scanNanos / 1000D / iterations),
+				Double.valueOf((double) saxNanos / scanNanos)));
+		return true;
+	}
+
+	private long time(byte[] data, boolean games, boolean scan, int count)
+			throws Exception {
+		long start = System.nanoTime();
+		for (int i = 0; i < count; i++)
+			parse(data, games, scan);
+		return System.nanoTime() - start;
+	}
+
+	private HandlerXml parse(byte[] data, boolean games, boolean scan)
+			throws Exception {
+		InputStream in = new ByteArrayInputStream(data);
+		if (games) {
+			HandlerXmlGame handler = new HandlerXmlGame(JID);
+			if (scan) NpTrophyScanner.parse(parser, in, handler, CHARSET);
+			else parser.parse(in, handler, CHARSET);
+			return handler;
+		}
+		HandlerXmlTrophy handler = new HandlerXmlTrophy(JID);
+		if (scan) NpTrophyScanner.parse(parser, in, handler, CHARSET);
+		else parser.parse(in, handler, CHARSET);
+		return handler;
+	}
+
+	private static List<String> describe(HandlerXml handler, boolean games) {
+		List<String> list = new ArrayList<String>();
+		if (games) {
+			HandlerXmlGame handlerGame = (HandlerXmlGame) handler;
+			list.add("result=" + handlerGame.getResult() + " total="
+					+ handlerGame.getTotal());
+			for (PsnGameOfficial game : handlerGame.getGames())
+				list.add(String.format("%s %s %s %d/%d/%d/%d %s %d",
+						game.getJid(), game.getGameId(), game.getPlatform(),
+						Integer.valueOf(game.getPlatinum()),
+						Integer.valueOf(game.getGold()),
+						Integer.valueOf(game.getSilver()),
+						Integer.valueOf(game.getBronze()),
+						game.getLastUpdated(),
+						Long.valueOf(game.getLastUpdatedMillis())));
+		} else {
+			HandlerXmlTrophy handlerTrophy = (HandlerXmlTrophy) handler;
+			list.add("result=" + handlerTrophy.getResult());
+			for (PsnTrophyOfficial trophy : handlerTrophy.getTrophyList())
+				list.add(String.format("%s %s %s %d %s %s %d %b",
+						trophy.getJid(), trophy.getGameId(),
+						trophy.getPlatform(),
+						Integer.valueOf(trophy.getIndex()), trophy.getType(),
+						trophy.getDateEarned(),
+						Long.valueOf(trophy.getDateEarnedMillis()),
+						Boolean.valueOf(trophy.isReceived())));
+		}
+		return list;
+	}
+
+	private static byte[] read(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) != -1)
+				out.write(buffer, 0, read);
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+/* ===================================================
+ * Copyright 2013 Kroboth Software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ========================================================== 
+ */
+
+package test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+import com.krobothsoftware.commons.parse.Parser;
+import com.krobothsoftware.snc.sen.psn.PsnUtils;
+import com.krobothsoftware.snc.sen.psn.Trophy;
+import com.krobothsoftware.snc.sen.psn.internal.HandlerXmlTrophy;
+import com.krobothsoftware.snc.sen.psn.internal.NpTrophyScanner;
+import com.krobothsoftware.snc.sen.psn.model.PsnTrophyOfficialStore;
+import com.krobothsoftware.snc.sen.psn.model.PsnTrophyStats;
+
+/**
+ * Checks that trophies parsed from <i>Official</i> trophy fixtures are
+ * counted as earned by {@link PsnTrophyStats}. Every trophy with a date must
+ * be received, and no trophy without one. Exits with 1 on failure.
+ * 
+ * <pre>
+ * java test.PsnTrophyStatsCheck fixtures-dir
+ * </pre>
+ * 
+ * @author Kyle Kroboth
+ */
+public final class PsnTrophyStatsCheck {
+	private static final String JID = "check@a1.us.np.playstation.net";
+
+	private PsnTrophyStatsCheck() {
+
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.err.println("Usage: PsnTrophyStatsCheck fixtures-dir");
+			System.exit(2);
+		}
+		Parser parser = new Parser();
+		parser.init();
+		PsnTrophyOfficialStore store = new PsnTrophyOfficialStore();
+		for (String name : new String[] { "get_trophies.xml",
+				"get_latest_trophies.xml", "get_trophies_fallback.xml" }) {
+			InputStream in = new FileInputStream(new File(args[0], name));
+			try {
+				NpTrophyScanner.parse(parser, in, new HandlerXmlTrophy(JID,
+						store), "UTF-8");
+			} finally {
+				in.close();
+			}
+		}
+
+		int dated = 0;
+		int first = -1;
+		for (int i = 0; i < store.size(); i++) {
+			boolean hasDate = store.getDateEarned(i) != PsnUtils.NO_DATE;
+			if (hasDate && dated++ == 0) first = i;
+			check(hasDate == store.isReceived(i), "trophy " + i
+					+ " received doesn't match its date");
+		}
+		check(dated > 0 && dated < store.size(),
+				"fixtures should have earned and unearned trophies");
+
+		PsnTrophyStats stats = PsnTrophyStats.compute(store);
+		int earned = 0;
+		for (Trophy type : Trophy.values())
+			earned += stats.getEarned(type);
+		check(earned == dated, "earned by type " + earned + ", expected "
+				+ dated);
+		check(stats.getRarity(store.getGameId(first), store.getIndex(first))
+				.getPercent() > 0, "rarity of earned trophy is 0");
+		double progress = 0;
+		for (String gameId : stats.getGameIds())
+			progress += stats.getAverageProgress(gameId);
+		check(progress > 0, "average progress of every game is 0");
+
+		System.out.println(String.format(
+				"PsnTrophyStats: %d trophies, %d earned, %d games", Integer
+						.valueOf(store.size()), Integer.valueOf(earned),
+				Integer.valueOf(stats.getGameIds().size())));
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			System.out.println("PsnTrophyStats FAILED: " + message);
+			System.exit(1);
+		}
+	}
+
+}